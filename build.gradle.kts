@@ -599,4 +599,26 @@ sourceSets {
         java.srcDir("src/test/java")
         resources.srcDir("src/test/testData")
     }
+
+    // Timing comparisons, kept out of the unit suite; they reuse the tests' reference implementations
+    create("benchmark") {
+        java.srcDir("src/benchmark/java")
+        compileClasspath += sourceSets.test.get().output + sourceSets.test.get().compileClasspath
+        runtimeClasspath += sourceSets.test.get().output + sourceSets.test.get().runtimeClasspath
+    }
+}
+
+// Run benchmarks in a test IDE: ./gradlew benchmark (not part of check)
+intellijPlatformTesting.testIde.register("benchmark") {
+    task {
+        description = "Run the lexer, parser and indexing benchmarks"
+        group = "verification"
+
+        val benchmarkSourceSet = sourceSets.getByName("benchmark")
+        testClassesDirs = benchmarkSourceSet.output.classesDirs
+        classpath = benchmarkSourceSet.runtimeClasspath
+        useJUnit()
+        testLogging.showStandardStreams = true
+        outputs.upToDateWhen { false }
+    }
 }
@@ -0,0 +1,39 @@
+package org.msaraiva.pytcss;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Timing helper shared by the benchmarks. Each measured run returns a checksum that is accumulated,
+ * so the JIT cannot drop the work.
+ */
+final class Benchmarks {
+    private static final int WARMUP_RUNS = 3;
+
+    private static volatile long sink;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Warm up, then time a number of runs.
+     *
+     * @param runs Measured runs
+     * @param work One run; returns a checksum of its results
+     * @return Average milliseconds per run
+     */
+    static double millisPerRun(int runs, @NotNull LongSupplier work) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            checksum += work.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            checksum += work.getAsLong();
+        }
+        long nanos = System.nanoTime() - start;
+        sink += checksum;
+        return nanos / 1e6 / runs;
+    }
+}
@@ -0,0 +1,40 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.color.ColorParser;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Color parsing timings: the packed parser against the regex-based parser it replaced.
+ */
+public class ColorParserBenchmark extends BasePlatformTestCase {
+
+    public void testPackedParserAgainstLegacy() {
+        List<String> corpus = ColorParserTest.buildCorpus(50_000);
+        assertEquals(legacyParseAll(corpus), parseAll(corpus));
+
+        double packedMillis = Benchmarks.millisPerRun(10, () -> parseAll(corpus));
+        double legacyMillis = Benchmarks.millisPerRun(10, () -> legacyParseAll(corpus));
+        System.out.printf("Color parsing (%d values): packed parser %.2f ms, legacy regex %.2f ms%n",
+                corpus.size(), packedMillis, legacyMillis);
+    }
+
+    private static long parseAll(List<String> corpus) {
+        long checksum = 0;
+        for (String text : corpus) {
+            checksum += ColorParser.parse(text, 0, text.length());
+        }
+        return checksum;
+    }
+
+    private static long legacyParseAll(List<String> corpus) {
+        long checksum = 0;
+        for (String text : corpus) {
+            Color color = ColorParserTest.LegacyColorUtil.parse(text);
+            checksum += color != null ? color.getRGB() & 0xFFFFFFFFL : ColorParser.NONE;
+        }
+        return checksum;
+    }
+}
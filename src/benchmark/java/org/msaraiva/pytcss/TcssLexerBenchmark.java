@@ -0,0 +1,92 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.psi.tree.IElementType;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.color.NamedColors;
+import org.msaraiva.pytcss.util.KeywordTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexer timings: value keyword classification against the string-based classification it replaced,
+ * and full lexing of a value corpus and of a 50,000-line stylesheet.
+ */
+public class TcssLexerBenchmark extends BasePlatformTestCase {
+
+    public void testValueKeywordClassification() {
+        String corpus = TcssLexerTest.buildValueCorpus(20_000);
+        List<int[]> identifiers = new ArrayList<>();
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(corpus, 0, corpus.length(), 0);
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (type == TcssTokenTypes.IDENTIFIER || type == TcssTokenTypes.COLOR_KEYWORD
+                    || type == TcssTokenTypes.INITIAL_KEYWORD || type == TcssTokenTypes.COLOR_FUNCTION_NAME) {
+                identifiers.add(new int[]{lexer.getTokenStart(), lexer.getTokenEnd()});
+            }
+            lexer.advance();
+        }
+
+        List<String> keywords = new ArrayList<>(List.of("rgb", "rgba", "hsl", "hsla", "auto", "initial"));
+        keywords.addAll(NamedColors.getAllColorNames());
+        KeywordTable table = new KeywordTable(keywords);
+        assertEquals(legacyClassifyAll(corpus, identifiers), tableLookupAll(table, corpus, identifiers));
+
+        double tableMillis = Benchmarks.millisPerRun(10, () -> tableLookupAll(table, corpus, identifiers));
+        double legacyMillis = Benchmarks.millisPerRun(10, () -> legacyClassifyAll(corpus, identifiers));
+        System.out.printf("Value identifier classification (%d identifiers): keyword table %.2f ms, legacy %.2f ms%n",
+                identifiers.size(), tableMillis, legacyMillis);
+
+        long tokens = lexAll(corpus);
+        double lexMillis = Benchmarks.millisPerRun(10, () -> lexAll(corpus));
+        System.out.printf("Full lex: %d tokens in %.2f ms (%.0f tokens/ms)%n", tokens, lexMillis, tokens / lexMillis);
+    }
+
+    public void testLargeStylesheetThroughput() {
+        int blocks = 50_000 / TcssLexerTest.STYLESHEET_BLOCK_LINES;
+        String stylesheet = TcssLexerTest.buildStylesheet(blocks);
+        int lines = blocks * TcssLexerTest.STYLESHEET_BLOCK_LINES;
+
+        long tokens = lexAll(stylesheet);
+        double millis = Benchmarks.millisPerRun(10, () -> lexAll(stylesheet));
+        System.out.printf("Lexed %d lines (%d tokens): %.0f tokens/second%n", lines, tokens, tokens * 1000 / millis);
+    }
+
+    private static long lexAll(CharSequence text) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, 0, text.length(), 0);
+        long count = 0;
+        while (lexer.getTokenType() != null) {
+            count++;
+            lexer.advance();
+        }
+        return count;
+    }
+
+    private static int tableLookupAll(KeywordTable table, CharSequence text, List<int[]> identifiers) {
+        int matched = 0;
+        for (int[] range : identifiers) {
+            if (table.contains(text, range[0], range[1])) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static int legacyClassifyAll(CharSequence text, List<int[]> identifiers) {
+        int matched = 0;
+        for (int[] range : identifiers) {
+            if (TcssLexerTest.legacyClassify(text, range[0], range[1]) != TcssTokenTypes.IDENTIFIER
+                    || isLegacyFunctionName(text, range)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static boolean isLegacyFunctionName(CharSequence text, int[] range) {
+        String lower = text.subSequence(range[0], range[1]).toString().toLowerCase();
+        return lower.equals("rgb") || lower.equals("rgba") || lower.equals("hsl") || lower.equals("hsla");
+    }
+}
@@ -0,0 +1,33 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.index.TcssVariableIndex;
+
+/**
+ * Variable indexing timings: the lexer-based indexer against the PSI-based one it replaced.
+ */
+public class TcssVariableIndexBenchmark extends BasePlatformTestCase {
+
+    public void testLexerIndexerAgainstPsi() {
+        String text = TcssVariableIndexTest.buildStylesheet(200);
+        int files = 200;
+        assertEquals(TcssVariableIndexTest.indexWithPsi(getProject(), text), TcssVariableIndex.indexText(text));
+
+        double psiMillis = Benchmarks.millisPerRun(3, () -> {
+            long entries = 0;
+            for (int i = 0; i < files; i++) {
+                entries += TcssVariableIndexTest.indexWithPsi(getProject(), text).size();
+            }
+            return entries;
+        });
+        double lexerMillis = Benchmarks.millisPerRun(3, () -> {
+            long entries = 0;
+            for (int i = 0; i < files; i++) {
+                entries += TcssVariableIndex.indexText(text).size();
+            }
+            return entries;
+        });
+        System.out.printf("Indexed %d files: PSI %.1f ms, lexer %.1f ms (%.1fx)%n",
+                files, psiMillis, lexerMillis, psiMillis / lexerMillis);
+    }
+}
@@ -5,6 +5,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.util.PsiTreeUtil;
+import org.msaraiva.pytcss.psi.TcssPropertyValue;
 import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
 import org.msaraiva.pytcss.psi.TcssVariableReference;
 import org.jetbrains.annotations.NotNull;
@@ -32,6 +33,17 @@ public final class TcssElementFactory {
         return reference != null ? reference : null;
     }
 
+    /**
+     * Parse a detached property value, e.g. from a variable declaration stub.
+     */
+    @Nullable
+    public static TcssPropertyValue createPropertyValue(@NotNull Project project, @NotNull String valueText) {
+        String text = "$value: " + valueText + ";";
+        PsiFile file = PsiFileFactory.getInstance(project)
+            .createFileFromText("dummy.tcss", TcssLanguage.INSTANCE, text);
+        return PsiTreeUtil.findChildOfType(file, TcssPropertyValue.class);
+    }
+
     @Nullable
     private static TcssVariableDeclaration createVariableDeclaration(@NotNull Project project, @NotNull String name) {
         String text = "$" + name + ": #000;";
@@ -1,14 +1,18 @@
 package org.msaraiva.pytcss;
 
 import com.intellij.psi.tree.IElementType;
+import org.msaraiva.pytcss.psi.stubs.TcssRuleSetElementType;
+import org.msaraiva.pytcss.psi.stubs.TcssVariableDeclarationElementType;
 
 /**
  * PSI element type constants for structured TCSS AST.
  * These types are used by the parser to mark syntactic constructs in the PSI tree.
+ * RULE_SET and VARIABLE_DECLARATION are stub element types (registered as a stubElementTypeHolder).
  */
 public interface TcssElementTypes {
     // Structural elements
-    IElementType RULE_SET = new TcssElementType("RULE_SET");
+    IElementType RULE_SET = new TcssRuleSetElementType("RULE_SET");
+    IElementType RULE_BLOCK = new TcssRuleBlockElementType("RULE_BLOCK");
     IElementType SELECTOR = new TcssElementType("SELECTOR");
     IElementType PROPERTY_DECLARATION = new TcssElementType("PROPERTY_DECLARATION");
     IElementType PROPERTY_VALUE = new TcssElementType("PROPERTY_VALUE");
@@ -22,7 +26,7 @@ public interface TcssElementTypes {
     IElementType FUNCTION_ARGUMENT_LIST = new TcssElementType("FUNCTION_ARGUMENT_LIST");
 
     // Variable elements
-    IElementType VARIABLE_DECLARATION = new TcssElementType("VARIABLE_DECLARATION");
+    IElementType VARIABLE_DECLARATION = new TcssVariableDeclarationElementType("VARIABLE_DECLARATION");
     IElementType VARIABLE_REFERENCE = new TcssElementType("VARIABLE_REFERENCE");
 
     // Grammar completeness element types (Phase 5.2)
@@ -3,8 +3,14 @@ package org.msaraiva.pytcss;
 import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class TcssFile extends PsiFileBase {
     public TcssFile(@NotNull FileViewProvider viewProvider) {
         super(viewProvider, TcssLanguage.INSTANCE);
@@ -16,6 +22,22 @@ public class TcssFile extends PsiFileBase {
         return TcssFileType.INSTANCE;
     }
 
+    /**
+     * Get top-level variable declarations in source order.
+     * Served from the stub tree when available, so this does not force parsing the file.
+     *
+     * @return Variable declarations (duplicates included; last one wins on lookup)
+     */
+    @NotNull
+    public List<TcssVariableDeclaration> getVariableDeclarations() {
+        StubElement<?> stub = getGreenStub();
+        if (stub != null) {
+            return Arrays.asList(stub.getChildrenByType(TcssElementTypes.VARIABLE_DECLARATION,
+                    TcssVariableDeclaration.EMPTY_ARRAY));
+        }
+        return PsiTreeUtil.getChildrenOfTypeAsList(this, TcssVariableDeclaration.class);
+    }
+
     @Override
     public String toString() {
         return "Textual CSS File";
@@ -0,0 +1,18 @@
+package org.msaraiva.pytcss;
+
+/**
+ * Lexer used by the editor highlighter.
+ *
+ * <p>Produces exactly the same tokens as {@link TcssLexer}, but its state only records whether the
+ * lexer is inside a property value (0 or {@link TcssLexer#STATE_IN_PROPERTY_VALUE}). With brace depth
+ * dropped, the state at the start of almost every line is 0, so the editor highlighter can restart
+ * relexing close to an edit and stop as soon as the token stream lines up again. That keeps typing
+ * latency flat in very large {@code .tcss} files and in large injected {@code DEFAULT_CSS} strings.
+ *
+ * <p>The parser keeps using {@link TcssLexer}.
+ */
+public class TcssHighlightingLexer extends TcssLexer {
+    public TcssHighlightingLexer() {
+        super(false);
+    }
+}
@@ -3,10 +3,48 @@ package org.msaraiva.pytcss;
 import com.intellij.lexer.LexerBase;
 import com.intellij.psi.tree.IElementType;
 import org.msaraiva.pytcss.color.NamedColors;
+import org.msaraiva.pytcss.util.KeywordTable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TcssLexer extends LexerBase {
+    /**
+     * State bit set while lexing a property or variable value (after ':' and before ';', '{' or '}').
+     */
+    public static final int STATE_IN_PROPERTY_VALUE = 1;
+
+    /**
+     * Brace depth is stored in the bits above {@link #STATE_IN_PROPERTY_VALUE} and saturates at this value,
+     * so every state the lexer reports fits in five bits. Depth does not influence tokenization; it is only
+     * carried along so a restarted lexer reports the same states as one that ran from the start of the file.
+     */
+    public static final int MAX_TRACKED_BRACE_DEPTH = 15;
+
+    // Value keywords; ids below FIRST_NAMED_COLOR are fixed (rgb, rgba, hsl, hsla, auto, initial),
+    // named colors follow
+    private static final int KW_RGB = 0;
+    private static final int KW_HSLA = 3;
+    private static final int KW_AUTO = 4;
+    private static final int KW_INITIAL = 5;
+    private static final int FIRST_NAMED_COLOR = 6;
+
+    private static final KeywordTable VALUE_KEYWORDS = createValueKeywords();
+
+    // Character classes for the ASCII fast path; other characters fall back to java.lang.Character
+    private static final int ASCII_LIMIT = 128;
+    private static final byte CC_WHITESPACE = 1;
+    private static final byte CC_LETTER = 2;
+    private static final byte CC_DIGIT = 4;
+    private static final byte CC_NAME = 8;
+    private static final byte CC_HEX_DIGIT = 16;
+    private static final byte[] CHAR_CLASSES = createCharClasses();
+
+    // False for the highlighting lexer, which keeps only the property-value bit in its state
+    private final boolean trackBraceDepth;
+
     private CharSequence buffer;
     private int startOffset;
     private int endOffset;
@@ -19,21 +57,118 @@ public class TcssLexer extends LexerBase {
     private boolean inPropertyValue = false;
     private int braceDepth = 0;
 
+    // State in effect at the start of the current token, as required for restarting there
+    private int tokenState = 0;
+
+    // Whitespace run found by the PROPERTY_NAME lookahead, reused for the next WHITE_SPACE token
+    private int pendingWhitespaceStart = -1;
+    private int pendingWhitespaceEnd = -1;
+
+    public TcssLexer() {
+        this(true);
+    }
+
+    /**
+     * @param trackBraceDepth Whether to carry brace depth in the lexer state. Tokenization never depends
+     *                        on it, so lexers that only need restartability (see {@link TcssHighlightingLexer})
+     *                        can turn it off and report just two states.
+     */
+    protected TcssLexer(boolean trackBraceDepth) {
+        this.trackBraceDepth = trackBraceDepth;
+    }
+
     @Override
     public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
         this.buffer = buffer;
         this.startOffset = startOffset;
         this.endOffset = endOffset;
         this.currentOffset = startOffset;
-        this.inPropertyValue = false;
-        this.braceDepth = 0;
+        // Resume from a state previously reported by getState(), so highlighters can relex from any token
+        this.inPropertyValue = (initialState & STATE_IN_PROPERTY_VALUE) != 0;
+        this.braceDepth = trackBraceDepth ? Math.min(initialState >>> 1, MAX_TRACKED_BRACE_DEPTH) : 0;
+        this.pendingWhitespaceStart = -1;
+        this.pendingWhitespaceEnd = -1;
         advance();
     }
 
     @Override
     public int getState() {
-        // Encode state for incremental parsing
-        return (braceDepth << 1) | (inPropertyValue ? 1 : 0);
+        return tokenState;
+    }
+
+    /**
+     * Encode lexer context into a bounded state value.
+     *
+     * @param braceDepth      Current brace nesting depth (clamped to 0..MAX_TRACKED_BRACE_DEPTH)
+     * @param inPropertyValue Whether the lexer is inside a property value
+     * @return State value accepted by {@link #start(CharSequence, int, int, int)}
+     */
+    public static int encodeState(int braceDepth, boolean inPropertyValue) {
+        int depth = Math.max(0, Math.min(braceDepth, MAX_TRACKED_BRACE_DEPTH));
+        return (depth << 1) | (inPropertyValue ? STATE_IN_PROPERTY_VALUE : 0);
+    }
+
+    private static KeywordTable createValueKeywords() {
+        List<String> keywords = new ArrayList<>(List.of("rgb", "rgba", "hsl", "hsla", "auto", "initial"));
+        keywords.addAll(NamedColors.getAllColorNames());
+        return new KeywordTable(keywords);
+    }
+
+    private static byte[] createCharClasses() {
+        byte[] classes = new byte[ASCII_LIMIT];
+        for (char c = 0; c < ASCII_LIMIT; c++) {
+            int flags = 0;
+            if (Character.isWhitespace(c)) {
+                flags |= CC_WHITESPACE;
+            }
+            if (Character.isLetter(c)) {
+                flags |= CC_LETTER | CC_NAME;
+            }
+            if (Character.isDigit(c)) {
+                flags |= CC_DIGIT | CC_NAME;
+            }
+            if (c == '_' || c == '-') {
+                flags |= CC_NAME;
+            }
+            if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')) {
+                flags |= CC_HEX_DIGIT;
+            }
+            classes[c] = (byte) flags;
+        }
+        return classes;
+    }
+
+    private static boolean isWhitespaceChar(char c) {
+        return c < ASCII_LIMIT ? (CHAR_CLASSES[c] & CC_WHITESPACE) != 0 : Character.isWhitespace(c);
+    }
+
+    private static boolean isLetterChar(char c) {
+        return c < ASCII_LIMIT ? (CHAR_CLASSES[c] & CC_LETTER) != 0 : Character.isLetter(c);
+    }
+
+    private static boolean isDigitChar(char c) {
+        return c < ASCII_LIMIT ? (CHAR_CLASSES[c] & CC_DIGIT) != 0 : Character.isDigit(c);
+    }
+
+    /**
+     * Identifier, selector and variable name characters: letters, digits, '_' and '-'.
+     */
+    private static boolean isNameChar(char c) {
+        return c < ASCII_LIMIT ? (CHAR_CLASSES[c] & CC_NAME) != 0 : Character.isLetterOrDigit(c);
+    }
+
+    private int skipWhitespace(int offset) {
+        while (offset < endOffset && isWhitespaceChar(buffer.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private int skipNameChars(int offset) {
+        while (offset < endOffset && isNameChar(buffer.charAt(offset))) {
+            offset++;
+        }
+        return offset;
     }
 
     @Nullable
@@ -56,16 +191,21 @@ public class TcssLexer extends LexerBase {
     public void advance() {
         if (currentOffset >= endOffset) {
             tokenType = null;
+            tokenState = encodeState(braceDepth, inPropertyValue);
             return;
         }
 
         tokenStart = currentOffset;
+        tokenState = encodeState(braceDepth, inPropertyValue);
         char c = buffer.charAt(currentOffset);
 
         // Skip whitespace
-        if (Character.isWhitespace(c)) {
-            while (currentOffset < endOffset && Character.isWhitespace(buffer.charAt(currentOffset))) {
-                currentOffset++;
+        if (isWhitespaceChar(c)) {
+            if (currentOffset == pendingWhitespaceStart) {
+                // Run already measured by the property-name lookahead of the previous identifier
+                currentOffset = pendingWhitespaceEnd;
+            } else {
+                currentOffset = skipWhitespace(currentOffset);
             }
             tokenEnd = currentOffset;
             tokenType = TcssTokenTypes.WHITE_SPACE;
@@ -90,14 +230,7 @@ public class TcssLexer extends LexerBase {
         // Variables
         if (c == '$') {
             currentOffset++;
-            while (currentOffset < endOffset) {
-                char ch = buffer.charAt(currentOffset);
-                if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '-') {
-                    currentOffset++;
-                } else {
-                    break;
-                }
-            }
+            currentOffset = skipNameChars(currentOffset);
             tokenEnd = currentOffset;
             tokenType = TcssTokenTypes.VARIABLE;
             return;
@@ -112,9 +245,7 @@ public class TcssLexer extends LexerBase {
             // Count hex digits after #
             while (tempOffset < endOffset && hexCount < 8) {
                 char ch = buffer.charAt(tempOffset);
-                if ((ch >= '0' && ch <= '9') ||
-                    (ch >= 'a' && ch <= 'f') ||
-                    (ch >= 'A' && ch <= 'F')) {
+                if (ch < ASCII_LIMIT && (CHAR_CLASSES[ch] & CC_HEX_DIGIT) != 0) {
                     hexCount++;
                     tempOffset++;
                 } else {
@@ -132,14 +263,7 @@ public class TcssLexer extends LexerBase {
             }
 
             // Otherwise: ID selector
-            while (currentOffset < endOffset) {
-                char ch = buffer.charAt(currentOffset);
-                if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '-') {
-                    currentOffset++;
-                } else {
-                    break;
-                }
-            }
+            currentOffset = skipNameChars(currentOffset);
             tokenEnd = currentOffset;
             tokenType = TcssTokenTypes.ID_SELECTOR;
             return;
@@ -148,14 +272,7 @@ public class TcssLexer extends LexerBase {
         // Class selector
         if (c == '.') {
             currentOffset++;
-            while (currentOffset < endOffset) {
-                char ch = buffer.charAt(currentOffset);
-                if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '-') {
-                    currentOffset++;
-                } else {
-                    break;
-                }
-            }
+            currentOffset = skipNameChars(currentOffset);
             tokenEnd = currentOffset;
             tokenType = TcssTokenTypes.CLASS_SELECTOR;
             return;
@@ -164,17 +281,10 @@ public class TcssLexer extends LexerBase {
         // Pseudo-class selector vs colon separator
         if (c == ':') {
             // Check if followed by letter (pseudo-class like :hover) or not (property separator)
-            if (currentOffset + 1 < endOffset && Character.isLetter(buffer.charAt(currentOffset + 1))) {
+            if (currentOffset + 1 < endOffset && isLetterChar(buffer.charAt(currentOffset + 1))) {
                 // Pseudo-class selector
                 currentOffset++;
-                while (currentOffset < endOffset) {
-                    char ch = buffer.charAt(currentOffset);
-                    if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '-') {
-                        currentOffset++;
-                    } else {
-                        break;
-                    }
-                }
+                currentOffset = skipNameChars(currentOffset);
                 tokenEnd = currentOffset;
                 tokenType = TcssTokenTypes.PSEUDO_CLASS;
             } else {
@@ -188,9 +298,14 @@ public class TcssLexer extends LexerBase {
         }
 
         // Numbers
-        if (Character.isDigit(c)) {
-            while (currentOffset < endOffset && (Character.isDigit(buffer.charAt(currentOffset)) || buffer.charAt(currentOffset) == '.')) {
-                currentOffset++;
+        if (isDigitChar(c)) {
+            while (currentOffset < endOffset) {
+                char ch = buffer.charAt(currentOffset);
+                if (isDigitChar(ch) || ch == '.') {
+                    currentOffset++;
+                } else {
+                    break;
+                }
             }
             // Check for units
             if (currentOffset < endOffset) {
@@ -210,54 +325,41 @@ public class TcssLexer extends LexerBase {
         }
 
         // Identifiers and keywords (property names, type selectors, colors)
-        if (Character.isLetter(c) || c == '_') {
-            while (currentOffset < endOffset) {
-                char ch = buffer.charAt(currentOffset);
-                if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '-') {
-                    currentOffset++;
-                } else {
-                    break;
-                }
-            }
+        if (isLetterChar(c) || c == '_') {
+            currentOffset = skipNameChars(currentOffset);
             tokenEnd = currentOffset;
-            String text = buffer.subSequence(tokenStart, tokenEnd).toString();
 
             // Check if it's a property name (followed by :)
-            int nextNonWhitespace = tokenEnd;
-            while (nextNonWhitespace < endOffset && Character.isWhitespace(buffer.charAt(nextNonWhitespace))) {
-                nextNonWhitespace++;
+            int nextNonWhitespace = skipWhitespace(tokenEnd);
+            if (nextNonWhitespace > tokenEnd) {
+                // Remember the run so the WHITE_SPACE token that follows does not scan it again
+                pendingWhitespaceStart = tokenEnd;
+                pendingWhitespaceEnd = nextNonWhitespace;
             }
             if (nextNonWhitespace < endOffset && buffer.charAt(nextNonWhitespace) == ':'
-                && (nextNonWhitespace + 1 >= endOffset || !Character.isLetter(buffer.charAt(nextNonWhitespace + 1)))) {
+                && (nextNonWhitespace + 1 >= endOffset || !isLetterChar(buffer.charAt(nextNonWhitespace + 1)))) {
                 tokenType = TcssTokenTypes.PROPERTY_NAME;
                 // Don't enter property value context yet - that happens when we see the : token
             } else if (inPropertyValue) {
-                // In property value context - check for color functions and keywords
-                String lowerText = text.toLowerCase();
-
-                // Check for color functions (followed by parenthesis)
-                if ((lowerText.equals("rgb") || lowerText.equals("rgba") ||
-                     lowerText.equals("hsl") || lowerText.equals("hsla")) &&
-                    nextNonWhitespace < endOffset && buffer.charAt(nextNonWhitespace) == '(') {
-                    tokenType = TcssTokenTypes.COLOR_FUNCTION_NAME;
-                }
-                // Check for "auto" keyword (special TCSS color keyword)
-                else if (lowerText.equals("auto")) {
+                // In property value context - classify keywords in place, without allocating the token text
+                int keyword = VALUE_KEYWORDS.get(buffer, tokenStart, tokenEnd);
+                if (keyword >= KW_RGB && keyword <= KW_HSLA) {
+                    // Color functions only when followed by parenthesis; otherwise a plain identifier
+                    tokenType = nextNonWhitespace < endOffset && buffer.charAt(nextNonWhitespace) == '('
+                            ? TcssTokenTypes.COLOR_FUNCTION_NAME
+                            : TcssTokenTypes.IDENTIFIER;
+                } else if (keyword == KW_AUTO) {
+                    // "auto" is a special TCSS color keyword
                     tokenType = TcssTokenTypes.COLOR_KEYWORD;
-                }
-                // Check for "initial" keyword (special TCSS keyword for property reset)
-                else if (lowerText.equals("initial")) {
+                } else if (keyword == KW_INITIAL) {
+                    // "initial" resets the property
                     tokenType = TcssTokenTypes.INITIAL_KEYWORD;
-                }
-                // Check for named colors
-                else if (NamedColors.isNamedColor(text)) {
+                } else if (keyword >= FIRST_NAMED_COLOR) {
                     tokenType = TcssTokenTypes.COLOR_KEYWORD;
-                }
-                // Otherwise regular identifier
-                else {
+                } else {
                     tokenType = TcssTokenTypes.IDENTIFIER;
                 }
-            } else if (Character.isUpperCase(text.charAt(0))) {
+            } else if (Character.isUpperCase(c)) {
                 tokenType = TcssTokenTypes.TYPE_SELECTOR;
             } else {
                 tokenType = TcssTokenTypes.IDENTIFIER;
@@ -289,12 +391,16 @@ public class TcssLexer extends LexerBase {
         switch (c) {
             case '{':
                 tokenType = TcssTokenTypes.LBRACE;
-                braceDepth++;
+                if (trackBraceDepth && braceDepth < MAX_TRACKED_BRACE_DEPTH) {
+                    braceDepth++;
+                }
                 inPropertyValue = false; // Reset when entering block
                 break;
             case '}':
                 tokenType = TcssTokenTypes.RBRACE;
-                braceDepth--;
+                if (braceDepth > 0) {
+                    braceDepth--;
+                }
                 inPropertyValue = false; // Exit property value context
                 break;
             case ';':
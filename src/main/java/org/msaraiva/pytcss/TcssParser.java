@@ -52,7 +52,10 @@ public class TcssParser implements PsiParser {
 
     /**
      * Parse a rule set: selector { declarations and/or nested rules }
-     * Grammar: ruleSet ::= selector+ LBRACE (propertyDeclaration | ruleSet)* RBRACE
+     * Grammar: ruleSet ::= selector+ ruleBlock
+     *
+     * The block is collapsed into a lazily parsed {@link TcssElementTypes#RULE_BLOCK}, so edits inside
+     * it reparse only that block.
      *
      * Supports CSS nesting (TCSS v0.47.0+):
      * - Nested rule sets inherit parent selector
@@ -78,13 +81,38 @@ public class TcssParser implements PsiParser {
             }
         }
 
-        // Expect opening brace
+        // Body: collapsed into a lazily parsed block when braces are present
+        if (builder.getTokenType() == TcssTokenTypes.LBRACE) {
+            PsiBuilder.Marker blockMarker = builder.mark();
+            skipBlock(builder);
+            blockMarker.collapse(TcssElementTypes.RULE_BLOCK);
+        } else {
+            builder.error("Expected '{'");
+            parseRuleBlockBody(builder);
+        }
+
+        ruleMarker.done(TcssElementTypes.RULE_SET);
+    }
+
+    /**
+     * Parse the contents of a collapsed rule block, including its braces.
+     * Grammar: ruleBlock ::= LBRACE (propertyDeclaration | ruleSet)* RBRACE
+     *
+     * <p>Called by {@link TcssRuleBlockElementType} when the block is first expanded or reparsed.
+     */
+    void parseRuleBlock(@NotNull PsiBuilder builder) {
         if (builder.getTokenType() == TcssTokenTypes.LBRACE) {
             builder.advanceLexer();
         } else {
             builder.error("Expected '{'");
         }
+        parseRuleBlockBody(builder);
+    }
 
+    /**
+     * Parse property declarations and nested rule sets up to and including the closing brace.
+     */
+    private void parseRuleBlockBody(@NotNull PsiBuilder builder) {
         // Parse property declarations AND nested rule sets
         while (!builder.eof()) {
             IElementType type = builder.getTokenType();
@@ -113,8 +141,23 @@ public class TcssParser implements PsiParser {
                 builder.advanceLexer();
             }
         }
+    }
 
-        ruleMarker.done(TcssElementTypes.RULE_SET);
+    /**
+     * Advance past a block from its opening brace to the matching closing brace (or end of file)
+     * without building any nodes.
+     */
+    private void skipBlock(@NotNull PsiBuilder builder) {
+        int depth = 0;
+        while (!builder.eof()) {
+            IElementType type = builder.getTokenType();
+            builder.advanceLexer();
+            if (type == TcssTokenTypes.LBRACE) {
+                depth++;
+            } else if (type == TcssTokenTypes.RBRACE && --depth == 0) {
+                return;
+            }
+        }
     }
 
     /**
@@ -12,10 +12,11 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.IFileElementType;
 import com.intellij.psi.tree.TokenSet;
 import org.msaraiva.pytcss.psi.*;
+import org.msaraiva.pytcss.psi.stubs.TcssFileElementType;
 import org.jetbrains.annotations.NotNull;
 
 public class TcssParserDefinition implements ParserDefinition {
-    public static final IFileElementType FILE = new IFileElementType(TcssLanguage.INSTANCE);
+    public static final IFileElementType FILE = new TcssFileElementType();
 
     @NotNull
     @Override
@@ -59,6 +60,8 @@ public class TcssParserDefinition implements ParserDefinition {
         // Map element types to PSI classes
         if (type == TcssElementTypes.RULE_SET) {
             return new TcssRuleSet(node);
+        } else if (type == TcssElementTypes.RULE_BLOCK) {
+            return new TcssRuleBlock(node);
         } else if (type == TcssElementTypes.PROPERTY_DECLARATION) {
             return new TcssPropertyDeclaration(node);
         } else if (type == TcssElementTypes.PROPERTY_VALUE) {
@@ -0,0 +1,82 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Element type for the braced body of a rule set: { declarations and nested rule sets }.
+ *
+ * <p>Blocks are collapsed by the parser and only parsed when their contents are first accessed.
+ * Because the type is reparseable, an edit that keeps the braces balanced reparses just the
+ * innermost enclosing block instead of the whole file.
+ */
+public class TcssRuleBlockElementType extends IReparseableElementType {
+    public TcssRuleBlockElementType(@NotNull @NonNls String debugName) {
+        super(debugName, TcssLanguage.INSTANCE);
+    }
+
+    @Override
+    public ASTNode parseContents(@NotNull ASTNode chameleon) {
+        Project project = chameleon.getPsi().getProject();
+        PsiBuilder builder = PsiBuilderFactory.getInstance()
+                .createBuilder(project, chameleon, null, TcssLanguage.INSTANCE, chameleon.getChars());
+        PsiBuilder.Marker root = builder.mark();
+        new TcssParser().parseRuleBlock(builder);
+        while (!builder.eof()) {
+            builder.error("Unexpected token after '}'");
+            builder.advanceLexer();
+        }
+        root.done(this);
+        return builder.getTreeBuilt().getFirstChildNode();
+    }
+
+    @Override
+    public boolean isParsable(@Nullable ASTNode parent, @NotNull CharSequence buffer,
+                              @NotNull Language fileLanguage, @NotNull Project project) {
+        return isBalancedBlock(buffer);
+    }
+
+    /**
+     * Check that text is exactly one block: it starts with '{', ends with the '}' that closes it,
+     * and braces inside comments and strings do not count.
+     *
+     * @param text Candidate block text
+     * @return true if the text can be reparsed as a single rule block
+     */
+    public static boolean isBalancedBlock(@NotNull CharSequence text) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, 0, text.length(), 0);
+        if (lexer.getTokenType() != TcssTokenTypes.LBRACE) {
+            return false;
+        }
+
+        int depth = 0;
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type == TcssTokenTypes.LBRACE) {
+                depth++;
+            } else if (type == TcssTokenTypes.RBRACE) {
+                depth--;
+                if (depth == 0) {
+                    // Closing brace of the block must be the last token
+                    return lexer.getTokenEnd() == text.length();
+                }
+            }
+            lexer.advance();
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "TcssElementType." + super.toString();
+    }
+}
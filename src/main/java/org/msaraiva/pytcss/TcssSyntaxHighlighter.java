@@ -75,7 +75,7 @@ public class TcssSyntaxHighlighter extends SyntaxHighlighterBase {
     @NotNull
     @Override
     public Lexer getHighlightingLexer() {
-        return new TcssLexer();
+        return new TcssHighlightingLexer();
     }
 
     @NotNull
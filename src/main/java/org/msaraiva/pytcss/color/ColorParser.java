@@ -0,0 +1,390 @@
+package org.msaraiva.pytcss.color;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Color;
+
+/**
+ * Allocation-free TCSS color parser.
+ *
+ * <p>Parses a range of a {@link CharSequence} (PSI node chars, lexer buffer, index text) straight into
+ * a packed ARGB {@code int}, returned widened to a {@code long} so that {@link #NONE} can signal
+ * "not a color". {@link Color} objects are only created by {@link #toColor(long)}, where a caller
+ * actually needs one (gutter icons, the color picker).
+ *
+ * <p>Accepts the same syntax as the regex-based parser it replaces:
+ * <ul>
+ *   <li>{@code #RGB}, {@code #RGBA}, {@code #RRGGBB}, {@code #RRGGBBAA}</li>
+ *   <li>{@code rgb(r, g, b)} with integer channels 0-255, and {@code rgba(r, g, b, a)} with alpha 0-1</li>
+ *   <li>{@code hsl(h, s%, l%)} with hue 0-360, and {@code hsla(h, s%, l%, a)}</li>
+ *   <li>Named colors from {@link NamedColors}</li>
+ * </ul>
+ * Function names are case-insensitive and whitespace is allowed around the name, parentheses and commas.
+ */
+public final class ColorParser {
+    /** Returned when the text is not a valid color. */
+    public static final long NONE = -1L;
+
+    private static final int RGB = 0;
+    private static final int RGBA = 1;
+    private static final int HSL = 2;
+    private static final int HSLA = 3;
+
+    // Decimal scanning keeps at most 15 significant digits, which no valid argument comes close to
+    private static final long MAX_MANTISSA = 100_000_000_000_000L;
+    private static final double[] POWERS_OF_TEN = new double[17];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private ColorParser() {
+    }
+
+    /**
+     * Parse any TCSS color, ignoring surrounding whitespace.
+     *
+     * @return Packed ARGB, or {@link #NONE}
+     */
+    public static long parse(@NotNull CharSequence text, int start, int end) {
+        start = skipWhitespace(text, start, end);
+        while (end > start && isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return NONE;
+        }
+        if (text.charAt(start) == '#') {
+            return parseHex(text, start, end);
+        }
+        if (startsWithIgnoreCase(text, start, end, "rgb") || startsWithIgnoreCase(text, start, end, "hsl")) {
+            return parseFunction(text, start, end);
+        }
+        return NamedColors.getArgb(text, start, end);
+    }
+
+    /**
+     * @see #parse(CharSequence, int, int)
+     */
+    public static long parse(@NotNull CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parse {@code #RGB}, {@code #RGBA}, {@code #RRGGBB} or {@code #RRGGBBAA}.
+     *
+     * @return Packed ARGB, or {@link #NONE}
+     */
+    public static long parseHex(@NotNull CharSequence text, int start, int end) {
+        if (start >= end || text.charAt(start) != '#') {
+            return NONE;
+        }
+        int digits = end - start - 1;
+        if (digits != 3 && digits != 4 && digits != 6 && digits != 8) {
+            return NONE;
+        }
+
+        boolean shortForm = digits <= 4;
+        int width = shortForm ? 1 : 2;
+        int a = 255;
+        int r = readHex(text, start + 1, width);
+        int g = readHex(text, start + 1 + width, width);
+        int b = readHex(text, start + 1 + 2 * width, width);
+        if (digits == 4 || digits == 8) {
+            a = readHex(text, start + 1 + 3 * width, width);
+        }
+        if ((r | g | b | a) < 0) {
+            return NONE;
+        }
+        if (shortForm) {
+            // Expand: F -> FF (15 -> 255)
+            r *= 17;
+            g *= 17;
+            b *= 17;
+            if (digits == 4) {
+                a *= 17;
+            }
+        }
+        return pack(a, r, g, b);
+    }
+
+    /**
+     * Parse {@code rgb()}, {@code rgba()}, {@code hsl()} or {@code hsla()}.
+     *
+     * @return Packed ARGB, or {@link #NONE}
+     */
+    public static long parseFunction(@NotNull CharSequence text, int start, int end) {
+        int function;
+        int pos;
+        if (startsWithIgnoreCase(text, start, end, "rgba")) {
+            function = RGBA;
+            pos = start + 4;
+        } else if (startsWithIgnoreCase(text, start, end, "rgb")) {
+            function = RGB;
+            pos = start + 3;
+        } else if (startsWithIgnoreCase(text, start, end, "hsla")) {
+            function = HSLA;
+            pos = start + 4;
+        } else if (startsWithIgnoreCase(text, start, end, "hsl")) {
+            function = HSL;
+            pos = start + 3;
+        } else {
+            return NONE;
+        }
+
+        pos = skipWhitespace(text, pos, end);
+        if (pos == end || text.charAt(pos) != '(') {
+            return NONE;
+        }
+        pos++;
+
+        boolean rgbFamily = function == RGB || function == RGBA;
+        int count = function == RGBA || function == HSLA ? 4 : 3;
+        float first = 0;
+        float second = 0;
+        float third = 0;
+        float alpha = 1.0f;
+        for (int i = 0; i < count; i++) {
+            pos = skipWhitespace(text, pos, end);
+            if (i > 0) {
+                if (pos == end || text.charAt(pos) != ',') {
+                    return NONE;
+                }
+                pos = skipWhitespace(text, pos + 1, end);
+            }
+            // rgb channels are integers; hsl saturation and lightness carry a '%'
+            long scanned = scanNumber(text, pos, end, rgbFamily && i < 3, !rgbFamily && (i == 1 || i == 2));
+            if (scanned < 0) {
+                return NONE;
+            }
+            float value = scannedValue(scanned);
+            pos = (int) scanned;
+            switch (i) {
+                case 0: first = value; break;
+                case 1: second = value; break;
+                case 2: third = value; break;
+                default: alpha = value; break;
+            }
+        }
+        pos = skipWhitespace(text, pos, end);
+        if (pos == end || text.charAt(pos) != ')' || skipWhitespace(text, pos + 1, end) != end) {
+            return NONE;
+        }
+        if (alpha > 1.0f) {
+            return NONE;
+        }
+
+        int rgb;
+        if (rgbFamily) {
+            if (first > 255 || second > 255 || third > 255) {
+                return NONE;
+            }
+            rgb = (int) first << 16 | (int) second << 8 | (int) third;
+        } else {
+            if (first > 360 || second > 100 || third > 100) {
+                return NONE;
+            }
+            rgb = hslToRgb(first / 360.0f, second / 100.0f, third / 100.0f);
+        }
+        return ((long) Math.round(alpha * 255) << 24 | rgb) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Parse an opacity suffix such as {@code 50%} into an alpha value, clamping to 0-100%.
+     *
+     * @return Alpha 0-255, or -1 if the text is not a percentage
+     */
+    public static int parseOpacity(@NotNull CharSequence text, int start, int end) {
+        start = skipWhitespace(text, start, end);
+        while (end > start && isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        boolean negative = false;
+        if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+            negative = text.charAt(start) == '-';
+            start++;
+        }
+        long scanned = scanNumber(text, start, end, false, true);
+        if (scanned < 0 || (int) scanned != end) {
+            return -1;
+        }
+        float clamped = negative ? 0f : Math.min(1f, scannedValue(scanned) / 100f);
+        return Math.round(clamped * 255f);
+    }
+
+    /**
+     * Replace the alpha of a packed color.
+     *
+     * @param argb  Packed ARGB, or {@link #NONE}
+     * @param alpha Alpha 0-255
+     * @return Packed ARGB with the new alpha, or {@link #NONE}
+     */
+    public static long withAlpha(long argb, int alpha) {
+        if (argb == NONE) {
+            return NONE;
+        }
+        return ((long) alpha << 24 | (argb & 0xFFFFFF)) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Create a {@link Color} for a parsed value. This is the only place colors are allocated.
+     *
+     * @param argb Packed ARGB, or {@link #NONE}
+     * @return Color, or null for {@link #NONE}
+     */
+    @Nullable
+    public static Color toColor(long argb) {
+        return argb == NONE ? null : new Color((int) argb, true);
+    }
+
+    /**
+     * @return Packed ARGB of a color, widened like the parse results
+     */
+    public static long fromColor(@NotNull Color color) {
+        return color.getRGB() & 0xFFFFFFFFL;
+    }
+
+    static long pack(int a, int r, int g, int b) {
+        return ((long) a << 24 | r << 16 | g << 8 | b) & 0xFFFFFFFFL;
+    }
+
+    // ========== Scanning ==========
+
+    /**
+     * Scan an unsigned number: digits only when {@code integer} (as in {@code \d+}), otherwise digits with
+     * at most one decimal point (as in {@code [\d.]+} followed by {@link Float#parseFloat}). When
+     * {@code percent} is set, a {@code %} must follow immediately.
+     *
+     * @return The value's float bits in the high half and the position after the number in the low half,
+     *         or -1 if there is no valid number
+     */
+    private static long scanNumber(@NotNull CharSequence text, int pos, int end, boolean integer, boolean percent) {
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean point = false;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (isDigit(c)) {
+                if (mantissa < MAX_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (point) {
+                        scale++;
+                    }
+                } else if (!point) {
+                    mantissa = MAX_MANTISSA;  // Far outside every valid range; keeps scanning digits
+                }
+                digits++;
+            } else if (c == '.' && !integer) {
+                if (point) {
+                    return -1;
+                }
+                point = true;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (digits == 0) {
+            return -1;
+        }
+        if (percent) {
+            if (pos == end || text.charAt(pos) != '%') {
+                return -1;
+            }
+            pos++;
+        }
+        float value = (float) (mantissa / POWERS_OF_TEN[scale]);
+        return (long) Float.floatToRawIntBits(value) << 32 | pos;
+    }
+
+    private static float scannedValue(long scanned) {
+        return Float.intBitsToFloat((int) (scanned >>> 32));
+    }
+
+    private static int readHex(@NotNull CharSequence text, int start, int width) {
+        int value = 0;
+        for (int i = start; i < start + width; i++) {
+            char c = text.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                return -1;
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    private static boolean startsWithIgnoreCase(@NotNull CharSequence text, int start, int end, @NotNull String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipWhitespace(@NotNull CharSequence text, int pos, int end) {
+        while (pos < end && isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    // ========== HSL ==========
+
+    /**
+     * Standard HSL to RGB conversion, with the same float arithmetic as before.
+     *
+     * @param h Hue (0-1)
+     * @param s Saturation (0-1)
+     * @param l Lightness (0-1)
+     * @return Packed RGB without alpha
+     */
+    private static int hslToRgb(float h, float s, float l) {
+        float r, g, b;
+
+        if (s == 0) {
+            // Achromatic (gray)
+            r = g = b = l;
+        } else {
+            float q = l < 0.5f ? l * (1 + s) : l + s - l * s;
+            float p = 2 * l - q;
+            r = hueToRgb(p, q, h + 1.0f / 3.0f);
+            g = hueToRgb(p, q, h);
+            b = hueToRgb(p, q, h - 1.0f / 3.0f);
+        }
+
+        return Math.round(r * 255) << 16 | Math.round(g * 255) << 8 | Math.round(b * 255);
+    }
+
+    private static float hueToRgb(float p, float q, float t) {
+        if (t < 0) t += 1;
+        if (t > 1) t -= 1;
+        if (t < 1.0f / 6.0f) return p + (q - p) * 6 * t;
+        if (t < 1.0f / 2.0f) return q;
+        if (t < 2.0f / 3.0f) return p + (q - p) * (2.0f / 3.0f - t) * 6;
+        return p;
+    }
+}
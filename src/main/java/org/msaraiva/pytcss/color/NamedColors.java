@@ -1,12 +1,17 @@
 package org.msaraiva.pytcss.color;
 
+import org.msaraiva.pytcss.util.KeywordTable;
+import org.msaraiva.pytcss.util.SuggestionIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Registry of all TCSS named color keywords.
@@ -199,6 +204,22 @@ public class NamedColors {
         COLORS.put("yellowgreen", new Color(154, 205, 50));
     }
 
+    // Sorted, so ties between equally close names resolve the same way on every run
+    private static final SuggestionIndex SUGGESTIONS = SuggestionIndex.of(new TreeSet<>(COLORS.keySet()));
+
+    // Packed ARGB by keyword id, for lookups straight from a character range
+    private static final KeywordTable NAMES;
+    private static final int[] ARGB;
+
+    static {
+        List<String> names = new ArrayList<>(COLORS.keySet());
+        NAMES = new KeywordTable(names);
+        ARGB = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            ARGB[i] = COLORS.get(names.get(i)).getRGB();
+        }
+    }
+
     /**
      * Get color by name (case-insensitive).
      *
@@ -210,6 +231,19 @@ public class NamedColors {
         return COLORS.get(name.toLowerCase());
     }
 
+    /**
+     * Look up a color name in a range of characters (case-insensitive), without allocating.
+     *
+     * @param text  Text containing the name
+     * @param start Start offset (inclusive)
+     * @param end   End offset (exclusive)
+     * @return Packed ARGB, or {@link ColorParser#NONE} if the range is not a color name
+     */
+    public static long getArgb(@NotNull CharSequence text, int start, int end) {
+        int id = NAMES.get(text, start, end);
+        return id >= 0 ? ARGB[id] & 0xFFFFFFFFL : ColorParser.NONE;
+    }
+
     /**
      * Check if a name is a valid color keyword.
      *
@@ -230,6 +264,17 @@ public class NamedColors {
         return COLORS.keySet();
     }
 
+    /**
+     * Find the closest color keyword for a typo.
+     *
+     * @param name Unknown color name
+     * @return Closest color keyword within two edits, or null
+     */
+    @Nullable
+    public static String getSuggestion(@NotNull String name) {
+        return SUGGESTIONS.suggest(name);
+    }
+
     /**
      * Check if a color is an ANSI color.
      *
@@ -1,24 +1,47 @@
 package org.msaraiva.pytcss.completion;
 
+import com.intellij.ui.scale.JBUIScale;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provider for color preview icons in code completion.
  * Creates small 16x16 colored square icons with borders.
+ *
+ * <p>Icons are painted as vector shapes at the current UI scale, so they stay sharp on HiDPI screens.
+ * They are cached by packed ARGB and UI scale in a bounded, least-recently-used map that is safe to
+ * use from completion and highlighting threads at the same time. Dragging the color picker creates one
+ * icon per step; the bound keeps those from piling up.
  */
 public class ColorIconProvider {
     private static final int ICON_SIZE = 16;
     private static final int BORDER_SIZE = 1;
+    private static final int MAX_CACHE_SIZE = 512;
 
-    // Cache for icons - named colors never change, so cache indefinitely
-    private static final Map<Color, Icon> ICON_CACHE = new HashMap<>();
+    private static final Color LIGHT_BORDER = new Color(180, 180, 180);
+    private static final Color DARK_BORDER = new Color(100, 100, 100);
+
+    // Key: ARGB in the low 32 bits, UI scale float bits in the high 32 bits. Guarded by itself.
+    private static final Map<Long, Icon> ICON_CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Icon> eldest) {
+            if (size() > MAX_CACHE_SIZE) {
+                EVICTIONS.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
 
     /**
      * Create a 16x16 icon showing the given color.
@@ -32,59 +55,130 @@ public class ColorIconProvider {
         if (color == null) {
             return null;
         }
+        return createColorIcon(color.getRGB());
+    }
+
+    /**
+     * Create a 16x16 (at 100% scale) icon showing a packed ARGB color.
+     *
+     * @param argb Packed ARGB color
+     * @return Cached or new icon
+     */
+    @NotNull
+    public static Icon createColorIcon(int argb) {
+        float scale = JBUIScale.scale(1f);
+        Long key = (long) Float.floatToIntBits(scale) << 32 | (argb & 0xFFFFFFFFL);
 
-        // Check cache first
-        Icon cached = ICON_CACHE.get(color);
+        Icon cached;
+        synchronized (ICON_CACHE) {
+            cached = ICON_CACHE.get(key);
+        }
         if (cached != null) {
+            HITS.incrementAndGet();
             return cached;
         }
+        MISSES.incrementAndGet();
 
-        // Create new icon
-        Icon icon = createIconInternal(color);
-        ICON_CACHE.put(color, icon);
-        return icon;
+        // Create outside the lock; a concurrent miss for the same key just builds an equal icon
+        Icon icon = new ColorSwatchIcon(argb, scale);
+        synchronized (ICON_CACHE) {
+            Icon raced = ICON_CACHE.putIfAbsent(key, icon);
+            return raced != null ? raced : icon;
+        }
     }
 
     /**
-     * Internal method to create the actual icon.
+     * Square color swatch with a contrasting border, painted at paint time so the
+     * graphics transform supplies the device pixel ratio.
      */
-    @NotNull
-    private static Icon createIconInternal(@NotNull Color color) {
-        BufferedImage image = new BufferedImage(ICON_SIZE, ICON_SIZE, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = image.createGraphics();
+    private static final class ColorSwatchIcon implements Icon {
+        private final Color fill;
+        private final Color border;
+        private final int size;
+        private final int inset;
 
-        // Enable anti-aliasing for smoother borders
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        // Fill with color
-        g.setColor(color);
-        g.fillRect(BORDER_SIZE, BORDER_SIZE,
-                   ICON_SIZE - BORDER_SIZE * 2,
-                   ICON_SIZE - BORDER_SIZE * 2);
+        private ColorSwatchIcon(int argb, float scale) {
+            this.fill = new Color(argb, true);
+            // For dark colors, use light border; for light colors, use dark border
+            int brightness = (fill.getRed() + fill.getGreen() + fill.getBlue()) / 3;
+            this.border = brightness > 128 ? DARK_BORDER : LIGHT_BORDER;
+            this.size = Math.round(ICON_SIZE * scale);
+            this.inset = Math.max(1, Math.round(BORDER_SIZE * scale));
+        }
 
-        // Draw border - use a contrasting color based on brightness
-        // For dark colors, use light border; for light colors, use dark border
-        int brightness = (color.getRed() + color.getGreen() + color.getBlue()) / 3;
-        g.setColor(brightness > 128 ? new Color(100, 100, 100) : new Color(180, 180, 180));
-        g.drawRect(0, 0, ICON_SIZE - 1, ICON_SIZE - 1);
+        @Override
+        public void paintIcon(Component component, Graphics graphics, int x, int y) {
+            Graphics2D g = (Graphics2D) graphics.create();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(fill);
+                g.fillRect(x + inset, y + inset, size - inset * 2, size - inset * 2);
+                g.setColor(border);
+                for (int i = 0; i < inset; i++) {
+                    g.drawRect(x + i, y + i, size - 1 - i * 2, size - 1 - i * 2);
+                }
+            } finally {
+                g.dispose();
+            }
+        }
 
-        g.dispose();
+        @Override
+        public int getIconWidth() {
+            return size;
+        }
 
-        return new ImageIcon(image);
+        @Override
+        public int getIconHeight() {
+            return size;
+        }
     }
 
     /**
-     * Clear the icon cache. Useful for memory management in long-running IDEs.
-     * Note: Named color icons are safe to cache indefinitely since colors never change.
+     * Clear the icon cache and its metrics.
      */
     public static void clearCache() {
-        ICON_CACHE.clear();
+        synchronized (ICON_CACHE) {
+            ICON_CACHE.clear();
+        }
+        HITS.set(0);
+        MISSES.set(0);
+        EVICTIONS.set(0);
     }
 
     /**
      * Get the current cache size (for debugging/monitoring).
      */
     public static int getCacheSize() {
-        return ICON_CACHE.size();
+        synchronized (ICON_CACHE) {
+            return ICON_CACHE.size();
+        }
+    }
+
+    /**
+     * @return Number of lookups served from the cache since the last {@link #clearCache()}
+     */
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * @return Number of icons created since the last {@link #clearCache()}
+     */
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * @return Number of icons dropped to stay within the size bound since the last {@link #clearCache()}
+     */
+    public static long getEvictionCount() {
+        return EVICTIONS.get();
+    }
+
+    /**
+     * @return Largest number of icons kept
+     */
+    public static int getMaxCacheSize() {
+        return MAX_CACHE_SIZE;
     }
 }
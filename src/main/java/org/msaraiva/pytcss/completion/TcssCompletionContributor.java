@@ -4,14 +4,17 @@ import com.intellij.codeInsight.completion.CompletionContributor;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.CompletionSorter;
 import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.codeInsight.completion.CompletionUtil;
 import com.intellij.codeInsight.completion.InsertHandler;
+import com.intellij.codeInsight.completion.PrefixMatcher;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.editor.Document;
-import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -22,12 +25,12 @@ import org.msaraiva.pytcss.TcssTokenTypes;
 import org.msaraiva.pytcss.constants.TcssConstants;
 import org.msaraiva.pytcss.metadata.TcssPropertyCatalog;
 import org.msaraiva.pytcss.metadata.TcssPropertyInfo;
-import org.msaraiva.pytcss.metadata.generated.TcssPropertyDocumentation;
 import org.msaraiva.pytcss.psi.TcssPropertyDeclaration;
 import org.msaraiva.pytcss.psi.TcssPropertyValue;
 import org.msaraiva.pytcss.psi.TcssRuleSet;
 import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
 import org.msaraiva.pytcss.settings.TcssPluginSettings;
+import org.msaraiva.pytcss.util.TcssUsageStatistics;
 import org.msaraiva.pytcss.util.VariableResolver;
 import org.jetbrains.annotations.NotNull;
 
@@ -35,7 +38,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -46,7 +48,7 @@ public class TcssCompletionContributor extends CompletionContributor {
      * Insert handler that removes the $ prefix when a named color is selected.
      * This allows typing "$sea" and selecting "seashell" to insert "seashell" (not "$seashell").
      */
-    private static final InsertHandler<LookupElement> REMOVE_DOLLAR_PREFIX_HANDLER = (context, item) -> {
+    static final InsertHandler<LookupElement> REMOVE_DOLLAR_PREFIX_HANDLER = (context, item) -> {
         Document document = context.getDocument();
         int startOffset = context.getStartOffset();
 
@@ -140,11 +142,7 @@ public class TcssCompletionContributor extends CompletionContributor {
                                          @NotNull CompletionResultSet result) {
         String prefix = CompletionUtil.findReferenceOrAlphanumericPrefix(parameters);
         CompletionResultSet target = prefix.isEmpty() ? result : result.withPrefixMatcher(prefix);
-        for (TcssPropertyInfo info : TcssPropertyCatalog.getAll()) {
-            target.addElement(LookupElementBuilder.create(info.getName())
-                .withTypeText(info.getValueType().name(), true)
-                .withTailText(" — " + info.getDescription(), true));
-        }
+        target.addAllElements(TcssLookupPools.getPropertyNames());
     }
 
     private void contributePropertyValues(@NotNull CompletionParameters parameters,
@@ -153,6 +151,12 @@ public class TcssCompletionContributor extends CompletionContributor {
         String prefix = CompletionUtil.findReferenceOrAlphanumericPrefix(parameters);
         CompletionResultSet target = prefix.isEmpty() ? result : result.withPrefixMatcher(prefix);
 
+        // Local variables first, then the most used values in the project
+        TcssUsageWeigher usageWeigher = new TcssUsageWeigher(VariableResolver.getAllDeclarations(file).keySet(),
+                TcssUsageStatistics.getInstance(file.getProject()));
+        target = target.withRelevanceSorter(
+                CompletionSorter.defaultSorter(parameters, target.getPrefixMatcher()).weighBefore("stats", usageWeigher));
+
         // Get property context
         PsiElement element = parameters.getOriginalPosition() != null ? parameters.getOriginalPosition() : parameters.getPosition();
         TcssPropertyDeclaration declaration = PsiTreeUtil.getParentOfType(element, TcssPropertyDeclaration.class);
@@ -169,7 +173,7 @@ public class TcssCompletionContributor extends CompletionContributor {
             }
 
             // Non-enum property - always show variables
-            addVariableSuggestions(file, target);
+            addVariableSuggestions(parameters, file, target);
 
             // Check if property is COLOR type
             TcssPropertyInfo propertyInfo = TcssPropertyCatalog.get(propertyName);
@@ -181,7 +185,7 @@ public class TcssCompletionContributor extends CompletionContributor {
         }
 
         // No property context - show variables and colors as fallback
-        addVariableSuggestions(file, target);
+        addVariableSuggestions(parameters, file, target);
         addColorSuggestionsWithSettings(parameters, target);
     }
 
@@ -214,7 +218,9 @@ public class TcssCompletionContributor extends CompletionContributor {
         addNamedColorSuggestions(target);
     }
 
-    private void addVariableSuggestions(@NotNull PsiFile file, @NotNull CompletionResultSet result) {
+    private void addVariableSuggestions(@NotNull CompletionParameters parameters,
+                                        @NotNull PsiFile file,
+                                        @NotNull CompletionResultSet result) {
         Set<String> seen = new HashSet<>();
 
         // Local variables first (higher priority)
@@ -237,50 +243,43 @@ public class TcssCompletionContributor extends CompletionContributor {
             }
         }
 
-        // Cross-file variables (lower priority)
-        Project project = file.getProject();
-        Map<String, Collection<TcssVariableDeclaration>> crossFileVars =
-                VariableResolver.getAllDeclarationsCrossFile(project);
-
-        for (Map.Entry<String, Collection<TcssVariableDeclaration>> entry : crossFileVars.entrySet()) {
-            String name = entry.getKey();
-            if (seen.add(name)) {
-                Collection<TcssVariableDeclaration> decls = entry.getValue();
-                if (!decls.isEmpty()) {
-                    TcssVariableDeclaration first = decls.iterator().next();
-                    PsiFile sourceFile = first.getContainingFile();
-                    String fileName = sourceFile != null ? sourceFile.getName() : "unknown";
-
-                    // Resolve color for preview icon
-                    // Use cross-file resolution to respect local shadowing
-                    Color color = VariableResolver.resolveColorCrossFile(name, file);
-                    Icon icon = ColorIconProvider.createColorIcon(color);
-
-                    result.addElement(LookupElementBuilder.create("$" + name)
-                        .withIcon(icon)
-                        .withInsertHandler(REMOVE_DOLLAR_PREFIX_HANDLER)
-                        .withTypeText("variable (" + fileName + ")", true)
-                        .withTailText(" (project-wide)", true));
-                }
+        // Cross-file variables (lower priority), prebuilt by the project completion model.
+        // Names starting with the prefix come first, most used first. On repeated invocation, any other
+        // name the matcher accepts follows (e.g. "pri" for "$text-primary"); that pass walks every
+        // symbol, so the automatic popup skips it. Both passes stop once the lookup is full.
+        TcssVariableCompletionModel model = TcssVariableCompletionModel.getInstance(file.getProject());
+        PrefixMatcher matcher = result.getPrefixMatcher();
+        String prefix = StringUtil.trimStart(matcher.getPrefix(), "$");
+        int limit = Registry.intValue("ide.completion.variant.limit", 500);
+        int[] added = {seen.size()};
+
+        boolean complete = model.processSymbols(prefix, symbol -> {
+            if (result.isStopped() || added[0] >= limit) {
+                return false;
             }
+            if (seen.add(symbol.getName())) {
+                result.addElement(symbol.getLookupElement());
+                added[0]++;
+            }
+            return true;
+        });
+        if (complete && !prefix.isEmpty() && parameters.getInvocationCount() > 1) {
+            model.processSymbols("", symbol -> {
+                if (result.isStopped() || added[0] >= limit) {
+                    return false;
+                }
+                if (!seen.contains(symbol.getName()) && matcher.prefixMatches(symbol.getLookupElement())) {
+                    seen.add(symbol.getName());
+                    result.addElement(symbol.getLookupElement());
+                    added[0]++;
+                }
+                return true;
+            });
         }
     }
 
     private void addNamedColorSuggestions(@NotNull CompletionResultSet result) {
-        Set<String> keywords = org.msaraiva.pytcss.color.NamedColors.getAllColorNames();
-        for (String keyword : keywords) {
-            // Get the color and create preview icon
-            Color color = org.msaraiva.pytcss.color.NamedColors.getColorByName(keyword);
-            Icon icon = ColorIconProvider.createColorIcon(color);
-
-            result.addElement(LookupElementBuilder.create(keyword)
-                .withIcon(icon)
-                .withTypeText("color", true)
-                .withInsertHandler(REMOVE_DOLLAR_PREFIX_HANDLER));
-        }
-        result.addElement(LookupElementBuilder.create("auto")
-            .withTypeText("keyword", true)
-            .withInsertHandler(REMOVE_DOLLAR_PREFIX_HANDLER));
+        result.addAllElements(TcssLookupPools.getNamedColors());
     }
 
     /**
@@ -294,27 +293,6 @@ public class TcssCompletionContributor extends CompletionContributor {
         if (propertyName.isEmpty()) {
             return;
         }
-
-        Set<String> validValues = TcssConstants.getValidEnumValues(propertyName);
-        if (validValues == null || validValues.isEmpty()) {
-            return;
-        }
-
-        for (String value : validValues) {
-            // Try to get rich description from generated documentation
-            String description = TcssPropertyDocumentation.getEnumValueDescription(propertyName, value);
-
-            LookupElementBuilder element = LookupElementBuilder.create(value)
-                .withTypeText("enum value", true);
-
-            // Use rich description if available, otherwise fall back to generic message
-            if (description != null && !description.isEmpty()) {
-                element = element.withTailText(" — " + description, true);
-            } else {
-                element = element.withTailText(" — valid for " + propertyName, true);
-            }
-
-            result.addElement(element);
-        }
+        result.addAllElements(TcssLookupPools.getEnumValues(propertyName));
     }
 }
@@ -0,0 +1,134 @@
+package org.msaraiva.pytcss.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.ui.scale.JBUIScale;
+import org.msaraiva.pytcss.color.NamedColors;
+import org.msaraiva.pytcss.constants.TcssConstants;
+import org.msaraiva.pytcss.metadata.TcssPropertyCatalog;
+import org.msaraiva.pytcss.metadata.TcssPropertyInfo;
+import org.msaraiva.pytcss.metadata.generated.TcssPropertyDocumentation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable lookup elements for the fixed completion vocabularies: property names, named colors
+ * and per-property enum values.
+ *
+ * <p>Each pool is built once, on first use, and shared by all completion sessions, so a popup only
+ * pays for prefix matching. {@link LookupElementBuilder} is immutable, so sharing is safe. The named
+ * color pool carries color icons and is rebuilt if the UI scale changes.
+ */
+public final class TcssLookupPools {
+    private static final Map<String, List<LookupElement>> ENUM_VALUES = new ConcurrentHashMap<>();
+    private static volatile NamedColorPool namedColors;
+
+    private TcssLookupPools() {
+    }
+
+    /**
+     * @return One element per known property, with its value type and description
+     */
+    @NotNull
+    public static List<LookupElement> getPropertyNames() {
+        return PropertyNames.ELEMENTS;
+    }
+
+    /**
+     * @return One element per named color with its icon, followed by "auto"
+     */
+    @NotNull
+    public static List<LookupElement> getNamedColors() {
+        float scale = JBUIScale.scale(1f);
+        NamedColorPool pool = namedColors;
+        if (pool == null || pool.scale != scale) {
+            namedColors = pool = new NamedColorPool(scale);
+        }
+        return pool.elements;
+    }
+
+    /**
+     * @param propertyName Property name (case-insensitive)
+     * @return Elements for the property's enum values, sorted; empty if it has none
+     */
+    @NotNull
+    public static List<LookupElement> getEnumValues(@NotNull String propertyName) {
+        return ENUM_VALUES.computeIfAbsent(propertyName.toLowerCase(Locale.US), TcssLookupPools::buildEnumValues);
+    }
+
+    @NotNull
+    private static List<LookupElement> buildEnumValues(@NotNull String propertyName) {
+        Set<String> validValues = TcssConstants.getValidEnumValues(propertyName);
+        if (validValues == null || validValues.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<LookupElement> elements = new ArrayList<>(validValues.size());
+        for (String value : new TreeSet<>(validValues)) {
+            // Try to get rich description from generated documentation
+            String description = TcssPropertyDocumentation.getEnumValueDescription(propertyName, value);
+
+            LookupElementBuilder element = LookupElementBuilder.create(value)
+                .withTypeText("enum value", true);
+
+            // Use rich description if available, otherwise fall back to generic message
+            if (description != null && !description.isEmpty()) {
+                element = element.withTailText(" — " + description, true);
+            } else {
+                element = element.withTailText(" — valid for " + propertyName, true);
+            }
+            elements.add(element);
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Property name elements, built when the class is first loaded.
+     */
+    private static final class PropertyNames {
+        private static final List<LookupElement> ELEMENTS = build();
+
+        @NotNull
+        private static List<LookupElement> build() {
+            List<LookupElement> elements = new ArrayList<>();
+            for (TcssPropertyInfo info : TcssPropertyCatalog.getAll()) {
+                elements.add(LookupElementBuilder.create(info.getName())
+                    .withTypeText(info.getValueType().name(), true)
+                    .withTailText(" — " + info.getDescription(), true));
+            }
+            return Collections.unmodifiableList(elements);
+        }
+    }
+
+    /**
+     * Named color elements with icons for one UI scale.
+     */
+    private static final class NamedColorPool {
+        private final float scale;
+        private final List<LookupElement> elements;
+
+        private NamedColorPool(float scale) {
+            this.scale = scale;
+            Set<String> keywords = NamedColors.getAllColorNames();
+            List<LookupElement> list = new ArrayList<>(keywords.size() + 1);
+            for (String keyword : keywords) {
+                list.add(LookupElementBuilder.create(keyword)
+                    .withIcon(ColorIconProvider.createColorIcon(NamedColors.getColorByName(keyword)))
+                    .withTypeText("color", true)
+                    .withInsertHandler(TcssCompletionContributor.REMOVE_DOLLAR_PREFIX_HANDLER));
+            }
+            list.add(LookupElementBuilder.create("auto")
+                .withTypeText("keyword", true)
+                .withInsertHandler(TcssCompletionContributor.REMOVE_DOLLAR_PREFIX_HANDLER));
+            this.elements = Collections.unmodifiableList(list);
+        }
+    }
+}
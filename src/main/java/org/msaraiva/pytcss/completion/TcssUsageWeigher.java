@@ -0,0 +1,41 @@
+package org.msaraiva.pytcss.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementWeigher;
+import org.msaraiva.pytcss.util.TcssUsageStatistics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Orders value completions by how often the project uses them: variables declared in the current
+ * file first, then the most used variables, enum values and named colors.
+ *
+ * <p>Counts come from {@link TcssUsageStatistics}, which keeps project totals up to date, so weighing is
+ * a map lookup per item. Smaller weights sort first.
+ */
+class TcssUsageWeigher extends LookupElementWeigher {
+    private final Set<String> localVariables;
+    private final TcssUsageStatistics statistics;
+
+    /**
+     * @param localVariables Names (without $) of the variables declared in the current file
+     * @param statistics     Project usage counts
+     */
+    TcssUsageWeigher(@NotNull Set<String> localVariables, @NotNull TcssUsageStatistics statistics) {
+        super("tcssUsage");
+        this.localVariables = localVariables;
+        this.statistics = statistics;
+    }
+
+    @NotNull
+    @Override
+    public Integer weigh(@NotNull LookupElement element) {
+        String lookup = element.getLookupString();
+        if (lookup.startsWith("$")) {
+            String name = lookup.substring(1);
+            return localVariables.contains(name) ? Integer.MIN_VALUE : -statistics.getVariableCount(name);
+        }
+        return -statistics.getWordCount(lookup);
+    }
+}
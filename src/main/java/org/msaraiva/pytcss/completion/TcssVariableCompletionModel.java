@@ -0,0 +1,441 @@
+package org.msaraiva.pytcss.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.scale.JBUIScale;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+import org.msaraiva.pytcss.index.TcssVariableIndex;
+import org.msaraiva.pytcss.index.TcssVariableUsageIndex;
+import org.msaraiva.pytcss.util.TcssChangedFiles;
+import org.msaraiva.pytcss.util.TcssColorResolutionCache;
+import org.msaraiva.pytcss.util.TcssFileModel;
+import org.msaraiva.pytcss.util.TcssVariableGraph;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Project-level model of the variables offered by completion.
+ *
+ * <p>Holds one {@link Symbol} per variable name declared in any project TCSS file or Python CSS string:
+ * the declaring file (first by path), the value kind, the project-wide resolved color and a ready-made
+ * {@link LookupElement} with its color icon. Everything is read from {@link TcssVariableIndex} and
+ * {@link TcssColorResolutionCache}, so no PSI is loaded.
+ *
+ * <p>Like {@link TcssVariableGraph}, each file's declarations are kept by a {@link TcssFileModel} and re-read
+ * only when {@link TcssChangedFiles} reports the file as changed. A file whose declarations did not change
+ * (e.g. an edit inside a rule set) leaves the symbols untouched; otherwise only the changed names and their
+ * transitive dependents are re-resolved, and symbols are rebuilt only if their file, kind or color changed.
+ *
+ * <p>Symbols are sorted by name (case-insensitive), so a completion prefix selects a contiguous range
+ * by binary search. Each symbol is also ranked by how often TCSS files and Python CSS strings reference
+ * it, from {@link TcssVariableUsageIndex}; {@link #processSymbols} ranks only the prefix range, emits it in
+ * rank order and checks for cancellation between batches, so a popup for a huge theme can stop as soon
+ * as it has enough.
+ */
+public final class TcssVariableCompletionModel implements Disposable {
+    /**
+     * Symbols processed between cancellation checks.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    private static final Comparator<String> NAME_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final Project project;
+    private final TcssFileModel<FileSymbols, Snapshot> model;
+
+    public TcssVariableCompletionModel(@NotNull Project project) {
+        this.project = project;
+        this.model = new TcssFileModel<>(project, this, this::readFile, this::compile, Snapshot.EMPTY);
+    }
+
+    @NotNull
+    public static TcssVariableCompletionModel getInstance(@NotNull Project project) {
+        return project.getService(TcssVariableCompletionModel.class);
+    }
+
+    /**
+     * @return All project variables, sorted by name (case-insensitive)
+     */
+    @NotNull
+    public List<Symbol> getSymbols() {
+        return update().symbols;
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return The variable's symbol, or null if no project TCSS file declares it
+     */
+    @Nullable
+    public Symbol getSymbol(@NotNull String name) {
+        return update().byName.get(name);
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return Number of references to the variable in project TCSS files and Python CSS strings
+     */
+    public int getUsageCount(@NotNull String name) {
+        Snapshot s = update();
+        int position = s.position(name);
+        return position >= 0 ? s.usages[position] : 0;
+    }
+
+    /**
+     * Feed the variables whose names start with a prefix (case-insensitive) to a processor, most
+     * referenced first, ties by name. Checks for cancellation between batches.
+     *
+     * @param prefix    Name prefix (without $); empty for all variables
+     * @param processor Receives symbols; returning false stops processing
+     * @return false if the processor stopped early
+     */
+    public boolean processSymbols(@NotNull String prefix, @NotNull Processor<? super Symbol> processor) {
+        Snapshot s = update();
+        int from = s.lowerBound(prefix);
+        int to = s.upperBound(prefix, from);
+        int[] positions = from == 0 && to == s.symbols.size() ? s.byUsage : s.rankRange(from, to);
+        for (int i = 0; i < positions.length; i++) {
+            if (i % BATCH_SIZE == 0) {
+                ProgressManager.checkCanceled();
+            }
+            if (!processor.process(s.symbols.get(positions[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bring the model up to date: re-read the files reported as changed and rebuild affected symbols.
+     * Symbols are also rebuilt when the UI scale changed, so their color icons stay sharp.
+     */
+    @NotNull
+    private Snapshot update() {
+        float scale = JBUIScale.scale(1f);
+        return model.get(s -> s.scale != scale);
+    }
+
+    @Override
+    public void dispose() {
+        // Parent of the file model's change listeners; nothing else to release
+    }
+
+    /**
+     * @return The file's declarations and reference counts, or null if it has neither
+     */
+    @Nullable
+    private FileSymbols readFile(@NotNull VirtualFile file) {
+        Map<String, TcssVariableEntry> entries = TcssVariableIndex.getFileEntries(file, project);
+        Map<String, String> values = new HashMap<>();
+        Map<String, TcssVariableEntry.Kind> kinds = new HashMap<>();
+        for (Map.Entry<String, TcssVariableEntry> entry : entries.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().getValueText());
+            kinds.put(entry.getKey(), entry.getValue().getKind());
+        }
+        Map<String, Integer> usages = new HashMap<>();
+        for (Map.Entry<String, int[]> entry :
+                FileBasedIndex.getInstance().getFileData(TcssVariableUsageIndex.INDEX_ID, file, project).entrySet()) {
+            usages.put(entry.getKey(), entry.getValue().length);
+        }
+        return values.isEmpty() && usages.isEmpty() ? null : new FileSymbols(values, kinds, usages);
+    }
+
+    /**
+     * Fold changed files into a new snapshot. A file whose declarations did not change only updates
+     * reference counts.
+     */
+    @NotNull
+    private Snapshot compile(@NotNull Snapshot previous,
+                             @NotNull Map<VirtualFile, FileSymbols> files,
+                             @NotNull Map<VirtualFile, FileSymbols> before) {
+        Set<String> changedNames = new HashSet<>();
+        boolean usagesChanged = false;
+        for (Map.Entry<VirtualFile, FileSymbols> change : before.entrySet()) {
+            FileSymbols old = change.getValue() != null ? change.getValue() : FileSymbols.EMPTY;
+            FileSymbols current = files.getOrDefault(change.getKey(), FileSymbols.EMPTY);
+            if (!old.values.equals(current.values)) {
+                changedNames.addAll(old.values.keySet());
+                changedNames.addAll(current.values.keySet());
+            }
+            usagesChanged |= !old.usages.equals(current.usages);
+        }
+
+        float scale = JBUIScale.scale(1f);
+        if (!changedNames.isEmpty() || scale != previous.scale) {
+            return rebuild(previous, files, changedNames, scale);
+        }
+        return usagesChanged ? previous.withUsages(countUsages(files, previous.symbols)) : previous;
+    }
+
+    /**
+     * Sum the references to each symbol over all files, by symbol position.
+     */
+    @NotNull
+    private static int[] countUsages(@NotNull Map<VirtualFile, FileSymbols> files, @NotNull List<Symbol> symbols) {
+        Map<String, Integer> totals = new HashMap<>();
+        for (FileSymbols fileSymbols : files.values()) {
+            fileSymbols.usages.forEach((name, count) -> totals.merge(name, count, Integer::sum));
+        }
+        int[] usages = new int[symbols.size()];
+        for (int i = 0; i < usages.length; i++) {
+            usages[i] = totals.getOrDefault(symbols.get(i).name, 0);
+        }
+        return usages;
+    }
+
+    /**
+     * Build a new snapshot, re-resolving only the changed names and the names that depend on them.
+     */
+    @NotNull
+    private Snapshot rebuild(@NotNull Snapshot previousSnapshot,
+                             @NotNull Map<VirtualFile, FileSymbols> files,
+                             @NotNull Set<String> changedNames,
+                             float scale) {
+        Set<String> affected = new HashSet<>(changedNames);
+        TcssVariableGraph graph = TcssVariableGraph.getInstance(project);
+        for (String name : changedNames) {
+            affected.addAll(graph.getTransitiveDependents(name));
+        }
+
+        // First declaring file by path, matching project-wide color resolution
+        List<VirtualFile> sortedFiles = new ArrayList<>(files.keySet());
+        sortedFiles.sort((a, b) -> a.getPath().compareTo(b.getPath()));
+        Map<String, VirtualFile> declaringFile = new HashMap<>();
+        for (VirtualFile file : sortedFiles) {
+            for (String name : files.get(file).values.keySet()) {
+                declaringFile.putIfAbsent(name, file);
+            }
+        }
+
+        String[] names = declaringFile.keySet().toArray(new String[0]);
+        Arrays.sort(names, NAME_ORDER);
+        TcssColorResolutionCache colors = TcssColorResolutionCache.getInstance(project);
+        boolean rescaled = scale != previousSnapshot.scale;
+
+        List<Symbol> symbols = new ArrayList<>(names.length);
+        Map<String, Symbol> byName = new HashMap<>(names.length * 2);
+        for (String name : names) {
+            VirtualFile file = declaringFile.get(name);
+            TcssVariableEntry.Kind kind = files.get(file).kinds.get(name);
+            Symbol previous = previousSnapshot.byName.get(name);
+
+            long argb = previous != null && !affected.contains(name) ? previous.argb : colors.resolve(name);
+            Symbol symbol = previous != null && !rescaled && previous.file.equals(file)
+                    && previous.kind == kind && previous.argb == argb
+                    ? previous
+                    : new Symbol(name, file, kind, argb);
+            symbols.add(symbol);
+            byName.put(name, symbol);
+        }
+        return new Snapshot(Collections.unmodifiableList(symbols), byName, scale, countUsages(files, symbols));
+    }
+
+    /**
+     * A project variable as offered by completion.
+     */
+    public static final class Symbol {
+        private final String name;
+        private final VirtualFile file;
+        private final TcssVariableEntry.Kind kind;
+        private final long argb;
+        private final LookupElement element;
+
+        private Symbol(@NotNull String name, @NotNull VirtualFile file, @NotNull TcssVariableEntry.Kind kind, long argb) {
+            this.name = name;
+            this.file = file;
+            this.kind = kind;
+            this.argb = argb;
+            this.element = LookupElementBuilder.create("$" + name)
+                    .withIcon(TcssColorResolutionCache.isColor(argb) ? ColorIconProvider.createColorIcon((int) argb) : null)
+                    .withInsertHandler(TcssCompletionContributor.REMOVE_DOLLAR_PREFIX_HANDLER)
+                    .withTypeText("variable (" + file.getName() + ")", true)
+                    .withTailText(" (project-wide)", true);
+        }
+
+        /**
+         * @return Variable name (without $)
+         */
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return First declaring file by path
+         */
+        @NotNull
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        @NotNull
+        public TcssVariableEntry.Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return Project-wide resolved color, or a negative value from {@link TcssColorResolutionCache}
+         */
+        public long getArgb() {
+            return argb;
+        }
+
+        /**
+         * @return Immutable lookup element, shared across completion sessions
+         */
+        @NotNull
+        public LookupElement getLookupElement() {
+            return element;
+        }
+    }
+
+    /**
+     * Data contributed by one file: name → value text and name → kind of its declarations,
+     * and name → number of its references.
+     */
+    private static final class FileSymbols {
+        private static final FileSymbols EMPTY = new FileSymbols(Map.of(), Map.of(), Map.of());
+
+        private final Map<String, String> values;
+        private final Map<String, TcssVariableEntry.Kind> kinds;
+        private final Map<String, Integer> usages;
+
+        private FileSymbols(Map<String, String> values, Map<String, TcssVariableEntry.Kind> kinds,
+                            Map<String, Integer> usages) {
+            this.values = values;
+            this.kinds = kinds;
+            this.usages = usages;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileSymbols)) {
+                return false;
+            }
+            FileSymbols other = (FileSymbols) o;
+            return values.equals(other.values) && kinds.equals(other.kinds) && usages.equals(other.usages);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(values, kinds, usages);
+        }
+    }
+
+    /**
+     * Immutable model state, safe to read without locking.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY =
+                new Snapshot(Collections.emptyList(), Collections.emptyMap(), Float.NaN, new int[0]);
+
+        private final List<Symbol> symbols;
+        private final Map<String, Symbol> byName;
+        private final float scale;
+        private final int[] usages;   // By symbol position
+        private final int[] byUsage;  // Symbol positions, most referenced first
+
+        private Snapshot(List<Symbol> symbols, Map<String, Symbol> byName, float scale, int[] usages) {
+            this.symbols = symbols;
+            this.byName = byName;
+            this.scale = scale;
+            this.usages = usages;
+            // Positions follow name order, so ties stay sorted by name
+            this.byUsage = IntStream.range(0, usages.length).boxed()
+                    .sorted((a, b) -> Integer.compare(usages[b], usages[a]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * Order a range of positions by rank: most referenced first, ties by position (name order).
+         * Costs O(k log k) in the range size k, independent of the number of symbols.
+         */
+        @NotNull
+        private int[] rankRange(int from, int to) {
+            // Pack (inverted usage count, position) into one long so a primitive sort does the work
+            long[] keys = new long[to - from];
+            for (int position = from; position < to; position++) {
+                keys[position - from] = (long) (Integer.MAX_VALUE - usages[position]) << 32 | position;
+            }
+            Arrays.sort(keys);
+            int[] positions = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                positions[i] = (int) keys[i];
+            }
+            return positions;
+        }
+
+        @NotNull
+        private Snapshot withUsages(@NotNull int[] usages) {
+            return new Snapshot(symbols, byName, scale, usages);
+        }
+
+        /**
+         * @return Position of the symbol with exactly this name, or -1
+         */
+        private int position(@NotNull String name) {
+            for (int i = lowerBound(name); i < symbols.size() && symbols.get(i).name.equalsIgnoreCase(name); i++) {
+                if (symbols.get(i).name.equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return Position of the first symbol whose name is not below the prefix
+         */
+        private int lowerBound(@NotNull String prefix) {
+            int low = 0;
+            int high = symbols.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(symbols.get(mid).name, prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return Position after the last symbol, from {@code from}, whose name starts with the prefix
+         */
+        private int upperBound(@NotNull String prefix, int from) {
+            int low = from;
+            int high = symbols.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (symbols.get(mid).name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package org.msaraiva.pytcss.constants;
 
+import org.msaraiva.pytcss.util.SuggestionIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Central registry for TCSS validation constants, mirroring Textual's constants.py.
@@ -230,7 +234,12 @@ public final class TcssConstants {
 
     // ===== FUZZY MATCHING UTILITY =====
 
-    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final int MAX_EDIT_DISTANCE = SuggestionIndex.MAX_EDIT_DISTANCE;
+
+    // Precompiled suggestions; sets are sorted so ties resolve the same way on every run
+    private static final SuggestionIndex PSEUDO_CLASS_SUGGESTIONS =
+            SuggestionIndex.of(new TreeSet<>(VALID_PSEUDO_CLASSES));
+    private static final Map<String, SuggestionIndex> ENUM_SUGGESTIONS = buildEnumSuggestions();
 
     private TcssConstants() {
         // Utility class - prevent instantiation
@@ -248,10 +257,33 @@ public final class TcssConstants {
     }
 
     /**
-     * Find closest matching suggestion from a collection of valid values using Levenshtein distance.
+     * Find the closest valid pseudo-class for a typo.
+     *
+     * @param pseudoClass Unknown pseudo-class name (without ':')
+     * @return Closest pseudo-class within two edits, or null
+     */
+    @Nullable
+    public static String getPseudoClassSuggestion(@NotNull String pseudoClass) {
+        return PSEUDO_CLASS_SUGGESTIONS.suggest(pseudoClass);
+    }
+
+    /**
+     * Find the closest valid enum value of a property for a typo.
      *
-     * <p>Returns a suggestion only if the edit distance is <= 2, which catches common typos
-     * like transposed letters, missing letters, or single character substitutions.
+     * @param propertyName The property name (case-insensitive)
+     * @param value        Unknown value
+     * @return Closest valid value within two edits, or null (also if the property has no enum values)
+     */
+    @Nullable
+    public static String getEnumValueSuggestion(@NotNull String propertyName, @NotNull String value) {
+        SuggestionIndex index = ENUM_SUGGESTIONS.get(propertyName.toLowerCase(Locale.US));
+        return index != null ? index.suggest(value) : null;
+    }
+
+    /**
+     * Find closest matching suggestion from a collection of valid values using Levenshtein distance.
+     * <p>For fixed sets, prefer the precompiled lookups ({@link #getPseudoClassSuggestion},
+     * {@link #getEnumValueSuggestion}, {@link SuggestionIndex}); this scans every value.
      *
      * @param input        The input string to match
      * @param validValues  Collection of valid values
@@ -261,63 +293,32 @@ public final class TcssConstants {
     public static String getSuggestion(@NotNull String input, @NotNull Collection<String> validValues) {
         String normalizedInput = input.toLowerCase(Locale.US);
         String bestMatch = null;
-        int bestDistance = Integer.MAX_VALUE;
+        int bestDistance = MAX_EDIT_DISTANCE + 1;
 
         for (String valid : validValues) {
-            String normalizedValid = valid.toLowerCase(Locale.US);
-            int distance = levenshteinDistance(normalizedInput, normalizedValid);
-
+            // Only distances strictly better than the best so far matter
+            int distance = SuggestionIndex.distance(normalizedInput, valid.toLowerCase(Locale.US), bestDistance - 1);
             if (distance < bestDistance) {
                 bestDistance = distance;
                 bestMatch = valid;
+                if (distance == 0) {
+                    break;
+                }
             }
         }
 
-        return (bestDistance <= MAX_EDIT_DISTANCE) ? bestMatch : null;
+        return bestMatch;
     }
 
-    /**
-     * Calculate Levenshtein distance between two strings.
-     * <p>Simple implementation without external dependencies.
-     *
-     * @param s1 First string
-     * @param s2 Second string
-     * @return Edit distance (minimum number of single-character edits to transform s1 into s2)
-     */
-    private static int levenshteinDistance(@NotNull String s1, @NotNull String s2) {
-        int len1 = s1.length();
-        int len2 = s2.length();
-
-        // Early exit for identical strings
-        if (s1.equals(s2)) return 0;
-
-        // Handle empty strings
-        if (len1 == 0) return len2;
-        if (len2 == 0) return len1;
-
-        // Dynamic programming matrix
-        int[][] dp = new int[len1 + 1][len2 + 1];
-
-        // Initialize first row and column
-        for (int i = 0; i <= len1; i++) {
-            dp[i][0] = i;
+    @NotNull
+    private static Map<String, SuggestionIndex> buildEnumSuggestions() {
+        // Properties sharing a value set share its index
+        Map<Set<String>, SuggestionIndex> bySet = new IdentityHashMap<>();
+        Map<String, SuggestionIndex> result = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : PROPERTY_ENUMS.entrySet()) {
+            result.put(entry.getKey(),
+                    bySet.computeIfAbsent(entry.getValue(), values -> SuggestionIndex.of(new TreeSet<>(values))));
         }
-        for (int j = 0; j <= len2; j++) {
-            dp[0][j] = j;
-        }
-
-        // Fill the matrix
-        for (int i = 1; i <= len1; i++) {
-            for (int j = 1; j <= len2; j++) {
-                int cost = (s1.charAt(i - 1) == s2.charAt(j - 1)) ? 0 : 1;
-                dp[i][j] = Math.min(
-                    Math.min(dp[i - 1][j] + 1,      // deletion
-                             dp[i][j - 1] + 1),      // insertion
-                    dp[i - 1][j - 1] + cost          // substitution
-                );
-            }
-        }
-
-        return dp[len1][len2];
+        return Map.copyOf(result);
     }
 }
@@ -0,0 +1,185 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.python.PythonFileType;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+import org.msaraiva.pytcss.python.PythonCssStrings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * File-based index of the selectors in TCSS injected into Python {@code CSS}/{@code DEFAULT_CSS} strings.
+ * The Python counterpart of {@link TcssSelectorStubIndex}, which only sees {@code .tcss} files.
+ *
+ * <p>Index semantics:
+ * <ul>
+ *   <li>Maps selector name as written (e.g. "Button", ".panel", "#main") → sorted offsets in the Python file</li>
+ *   <li>Each offset is the selector token's position in the Python file</li>
+ *   <li>The strings are found by {@link PythonCssStrings} and lexed, so no PSI is built</li>
+ * </ul>
+ */
+public class TcssPythonSelectorIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> INDEX_ID = ID.create("TcssPythonSelectorIndex");
+    private static final int VERSION = 1;
+
+    private static final DataExternalizer<int[]> OFFSETS_EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, int[] offsets) throws IOException {
+            DataInputOutputUtil.writeINT(out, offsets.length);
+            int previous = 0;
+            for (int offset : offsets) {
+                DataInputOutputUtil.writeINT(out, offset - previous);
+                previous = offset;
+            }
+        }
+
+        @Override
+        public int[] read(@NotNull DataInput in) throws IOException {
+            int[] offsets = new int[DataInputOutputUtil.readINT(in)];
+            int previous = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                previous += DataInputOutputUtil.readINT(in);
+                offsets[i] = previous;
+            }
+            return offsets;
+        }
+    };
+
+    @NotNull
+    @Override
+    public ID<String, int[]> getName() {
+        return INDEX_ID;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, int[], FileContent> getIndexer() {
+        return fileContent -> indexText(fileContent.getContentAsText());
+    }
+
+    /**
+     * Build index data for Python text: the host offsets of every selector, per name.
+     *
+     * @param text Python file text
+     * @return Map of selector name → offsets in the Python file
+     */
+    @NotNull
+    public static Map<String, int[]> indexText(@NotNull CharSequence text) {
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        for (PythonCssStrings.Literal literal : PythonCssStrings.find(text)) {
+            TcssVariableScanner.scanSelectors(literal.getText(), (name, offset) ->
+                    offsets.computeIfAbsent(name, k -> new ArrayList<>()).add(literal.toHostOffset(offset)));
+        }
+        Map<String, int[]> result = new HashMap<>(offsets.size());
+        for (Map.Entry<String, List<Integer>> entry : offsets.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return result;
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<int[]> getValueExternalizer() {
+        return OFFSETS_EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(PythonFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    // ========== Public API for Index Queries ==========
+
+    /**
+     * Process the selector names used in Python strings.
+     *
+     * @param processor Receives each name; return false to stop
+     * @param scope     Search scope
+     * @param filter    Optional file id filter
+     * @return false if the processor stopped
+     */
+    public static boolean processNames(@NotNull Processor<? super String> processor,
+                                       @NotNull GlobalSearchScope scope,
+                                       @Nullable IdFilter filter) {
+        return FileBasedIndex.getInstance().processAllKeys(INDEX_ID, processor, scope, filter);
+    }
+
+    /**
+     * Process the injected rule sets using a selector. Only the Python files the index lists are loaded.
+     *
+     * @param name      Selector as written
+     * @param project   Current project
+     * @param scope     Search scope
+     * @param processor Receives each rule set once; return false to stop
+     * @return false if the processor stopped
+     */
+    public static boolean processRuleSets(@NotNull String name,
+                                          @NotNull Project project,
+                                          @NotNull GlobalSearchScope scope,
+                                          @NotNull Processor<? super TcssRuleSet> processor) {
+        Map<VirtualFile, int[]> usages = new LinkedHashMap<>();
+        FileBasedIndex.getInstance().processValues(INDEX_ID, name, null, (file, offsets) -> {
+            usages.put(file, offsets);
+            return true;
+        }, scope);
+
+        PsiManager psiManager = PsiManager.getInstance(project);
+        InjectedLanguageManager injectedManager = InjectedLanguageManager.getInstance(project);
+        Set<TcssRuleSet> visited = new HashSet<>();
+        for (Map.Entry<VirtualFile, int[]> usage : usages.entrySet()) {
+            PsiFile psiFile = psiManager.findFile(usage.getKey());
+            if (psiFile == null) {
+                continue;
+            }
+            for (int offset : usage.getValue()) {
+                PsiElement leaf = injectedManager.findInjectedElementAt(psiFile, offset);
+                TcssRuleSet ruleSet = PsiTreeUtil.getParentOfType(leaf, TcssRuleSet.class, false);
+                if (ruleSet != null && visited.add(ruleSet) && !processor.process(ruleSet)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
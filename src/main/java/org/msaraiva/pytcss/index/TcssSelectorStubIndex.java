@@ -0,0 +1,20 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stub index mapping selector name as written (e.g. "Button", ".panel", "#main") → rule sets using it.
+ */
+public class TcssSelectorStubIndex extends StringStubIndexExtension<TcssRuleSet> {
+    public static final StubIndexKey<String, TcssRuleSet> KEY =
+            StubIndexKey.createIndexKey("tcss.selector");
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, TcssRuleSet> getKey() {
+        return KEY;
+    }
+}
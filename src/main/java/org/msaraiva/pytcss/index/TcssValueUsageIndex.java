@@ -0,0 +1,141 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.python.PythonFileType;
+import org.msaraiva.pytcss.TcssFileType;
+import org.msaraiva.pytcss.TcssLexer;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.msaraiva.pytcss.python.PythonCssStrings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * File-based index of how often each value token is used, for completion ranking.
+ *
+ * <p>Index semantics:
+ * <ul>
+ *   <li>Maps a value word → number of occurrences in the file</li>
+ *   <li>Words in values (enum values, named colors, {@code auto}, {@code initial}) are keyed lower-case</li>
+ *   <li>Variable references are not counted here; {@link TcssVariableUsageIndex} already lists them</li>
+ *   <li>Python files contribute the TCSS injected into {@code CSS}/{@code DEFAULT_CSS} strings</li>
+ * </ul>
+ *
+ * <p>Like {@link TcssVariableUsageIndex}, TCSS text is only lexed and Python strings are found by
+ * {@link PythonCssStrings}. Totals are summed by {@link org.msaraiva.pytcss.util.TcssUsageStatistics}.
+ */
+public class TcssValueUsageIndex extends FileBasedIndexExtension<String, Integer> {
+    public static final ID<String, Integer> INDEX_ID = ID.create("TcssValueUsageIndex");
+    private static final int VERSION = 2;
+
+    @NotNull
+    @Override
+    public ID<String, Integer> getName() {
+        return INDEX_ID;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Integer, FileContent> getIndexer() {
+        return fileContent -> {
+            if (fileContent.getFileType() == TcssFileType.INSTANCE) {
+                return indexText(fileContent.getContentAsText());
+            }
+            return indexPythonFile(fileContent);
+        };
+    }
+
+    /**
+     * Count the value words of TCSS text.
+     *
+     * @param text TCSS text
+     * @return Map of lower-case word → occurrences
+     */
+    @NotNull
+    public static Map<String, Integer> indexText(@NotNull CharSequence text) {
+        Map<String, Integer> counts = new HashMap<>();
+        count(text, counts);
+        return counts;
+    }
+
+    private static void count(@NotNull CharSequence text, @NotNull Map<String, Integer> counts) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, 0, text.length(), 0);
+        while (lexer.getTokenType() != null) {
+            // getState() is the state at the token start, so property names are outside value context
+            if ((lexer.getState() & TcssLexer.STATE_IN_PROPERTY_VALUE) != 0 && isWord(lexer.getTokenType())) {
+                String key = text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString().toLowerCase(Locale.US);
+                counts.merge(key, 1, Integer::sum);
+            }
+            lexer.advance();
+        }
+    }
+
+    /**
+     * Count the value words in the TCSS strings of a Python file, found by {@link PythonCssStrings}.
+     */
+    @NotNull
+    private static Map<String, Integer> indexPythonFile(@NotNull FileContent fileContent) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (PythonCssStrings.Literal literal : PythonCssStrings.find(fileContent.getContentAsText())) {
+            count(literal.getText(), counts);
+        }
+        return counts;
+    }
+
+    private static boolean isWord(@NotNull IElementType type) {
+        return type == TcssTokenTypes.IDENTIFIER || type == TcssTokenTypes.COLOR_KEYWORD
+                || type == TcssTokenTypes.INITIAL_KEYWORD;
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(TcssFileType.INSTANCE, PythonFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    // ========== Public API for Index Queries ==========
+
+    /**
+     * Get the word counts of a single file.
+     *
+     * @param file    TCSS or Python file
+     * @param project Current project
+     * @return Map of lower-case word → occurrences in the file
+     */
+    @NotNull
+    public static Map<String, Integer> getFileCounts(@NotNull VirtualFile file, @NotNull Project project) {
+        return FileBasedIndex.getInstance().getFileData(INDEX_ID, file, project);
+    }
+}
@@ -0,0 +1,245 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.msaraiva.pytcss.TcssLexer;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.msaraiva.pytcss.color.ColorParser;
+import org.msaraiva.pytcss.color.NamedColors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Indexed data for the effective (last) declaration of a variable in one file.
+ *
+ * <p>Besides the raw value text, the entry carries a classification of the value and, when the
+ * first color value in it is a literal, the packed ARGB color. Color resolution, completion icons
+ * and validation can then be answered from the index without loading PSI.
+ *
+ * <p>Classification mirrors how {@link org.msaraiva.pytcss.TcssParser} builds color values:
+ * the first hex color, color function, color keyword or variable reference is the declaration's
+ * color value, and a following percentage sets its opacity.
+ */
+public final class TcssVariableEntry {
+    /**
+     * Coarse classification of a variable value by its first token.
+     */
+    public enum Kind {
+        COLOR,
+        LENGTH,
+        NUMBER,
+        REFERENCE,
+        OTHER
+    }
+
+    public static final DataExternalizer<TcssVariableEntry> EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, TcssVariableEntry value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.offset);
+            IOUtil.writeUTF(out, value.valueText);
+            out.writeByte(value.kind.ordinal());
+            out.writeBoolean(value.hasColor);
+            if (value.hasColor) {
+                out.writeInt(value.argb);
+            }
+            out.writeBoolean(value.colorReference != null);
+            if (value.colorReference != null) {
+                IOUtil.writeUTF(out, value.colorReference);
+            }
+        }
+
+        @Override
+        public TcssVariableEntry read(@NotNull DataInput in) throws IOException {
+            int offset = DataInputOutputUtil.readINT(in);
+            String valueText = IOUtil.readUTF(in);
+            Kind kind = Kind.values()[in.readByte()];
+            boolean hasColor = in.readBoolean();
+            int argb = hasColor ? in.readInt() : 0;
+            String colorReference = in.readBoolean() ? IOUtil.readUTF(in) : null;
+            return new TcssVariableEntry(offset, valueText, kind, hasColor, argb, colorReference);
+        }
+    };
+
+    private final int offset;
+    private final String valueText;
+    private final Kind kind;
+    private final boolean hasColor;
+    private final int argb;
+    private final String colorReference;
+
+    private TcssVariableEntry(int offset, @NotNull String valueText, @NotNull Kind kind,
+                              boolean hasColor, int argb, @Nullable String colorReference) {
+        this.offset = offset;
+        this.valueText = valueText;
+        this.kind = kind;
+        this.hasColor = hasColor;
+        this.argb = argb;
+        this.colorReference = colorReference;
+    }
+
+    /**
+     * Classify a declaration's value text and build its index entry.
+     *
+     * @param offset    Offset of the declaration in its file
+     * @param valueText Value text, e.g. "#0066cc", "$primary 50%", "1fr"
+     * @return Index entry
+     */
+    @NotNull
+    public static TcssVariableEntry create(int offset, @NotNull String valueText) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(valueText, 0, valueText.length(), TcssLexer.STATE_IN_PROPERTY_VALUE);
+
+        Kind kind = null;
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (type == TcssTokenTypes.WHITE_SPACE || type == TcssTokenTypes.COMMENT) {
+                lexer.advance();
+                continue;
+            }
+            if (kind == null) {
+                kind = classify(type, valueText, lexer.getTokenEnd());
+            }
+
+            if (type == TcssTokenTypes.VARIABLE) {
+                String name = valueText.substring(lexer.getTokenStart() + 1, lexer.getTokenEnd());
+                return new TcssVariableEntry(offset, valueText, kind, false, 0, name.isEmpty() ? null : name);
+            }
+            if (type == TcssTokenTypes.HEX_COLOR || type == TcssTokenTypes.COLOR_KEYWORD
+                    || type == TcssTokenTypes.COLOR_FUNCTION_NAME) {
+                long argb = parseColorAt(lexer, valueText);
+                if (argb != ColorParser.NONE) {
+                    argb = applyOpacitySuffix(lexer, valueText, argb);
+                }
+                boolean hasColor = argb != ColorParser.NONE;
+                return new TcssVariableEntry(offset, valueText, kind, hasColor, hasColor ? (int) argb : 0, null);
+            }
+            lexer.advance();
+        }
+
+        return new TcssVariableEntry(offset, valueText, kind != null ? kind : Kind.OTHER, false, 0, null);
+    }
+
+    @NotNull
+    private static Kind classify(@NotNull IElementType type, @NotNull String text, int end) {
+        if (type == TcssTokenTypes.HEX_COLOR || type == TcssTokenTypes.COLOR_KEYWORD
+                || type == TcssTokenTypes.COLOR_FUNCTION_NAME) {
+            return Kind.COLOR;
+        }
+        if (type == TcssTokenTypes.VARIABLE) {
+            return Kind.REFERENCE;
+        }
+        if (type == TcssTokenTypes.NUMBER) {
+            char last = text.charAt(end - 1);
+            return (last >= '0' && last <= '9') || last == '.' ? Kind.NUMBER : Kind.LENGTH;
+        }
+        return Kind.OTHER;
+    }
+
+    /**
+     * Parse the color starting at the lexer's current token, leaving the lexer on its last token.
+     */
+    private static long parseColorAt(@NotNull TcssLexer lexer, @NotNull String text) {
+        IElementType type = lexer.getTokenType();
+        if (type == TcssTokenTypes.HEX_COLOR) {
+            return ColorParser.parseHex(text, lexer.getTokenStart(), lexer.getTokenEnd());
+        }
+        if (type == TcssTokenTypes.COLOR_KEYWORD) {
+            return NamedColors.getArgb(text, lexer.getTokenStart(), lexer.getTokenEnd());  // NONE for "auto"
+        }
+
+        // Color function: name through the closing parenthesis
+        int start = lexer.getTokenStart();
+        while (lexer.getTokenType() != null && lexer.getTokenType() != TcssTokenTypes.RPAREN) {
+            lexer.advance();
+        }
+        int end = lexer.getTokenType() != null ? lexer.getTokenEnd() : text.length();
+        return ColorParser.parseFunction(text, start, end);
+    }
+
+    /**
+     * Apply a percentage that directly follows a literal color (e.g. "red 50%").
+     */
+    private static long applyOpacitySuffix(@NotNull TcssLexer lexer, @NotNull String text, long argb) {
+        lexer.advance();
+        while (lexer.getTokenType() == TcssTokenTypes.WHITE_SPACE) {
+            lexer.advance();
+        }
+        if (lexer.getTokenType() != TcssTokenTypes.NUMBER) {
+            return argb;
+        }
+        int alpha = ColorParser.parseOpacity(text, lexer.getTokenStart(), lexer.getTokenEnd());
+        return alpha >= 0 ? ColorParser.withAlpha(argb, alpha) : argb;
+    }
+
+    /**
+     * @return Offset of the declaration in its file
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    @NotNull
+    public String getValueText() {
+        return valueText;
+    }
+
+    @NotNull
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return true if the first color value is a literal color that resolves
+     */
+    public boolean hasColor() {
+        return hasColor;
+    }
+
+    /**
+     * @return Packed ARGB color; only meaningful when {@link #hasColor()} is true
+     */
+    public int getArgb() {
+        return argb;
+    }
+
+    /**
+     * @return Variable name (without $) when the first color value is a reference, otherwise null
+     */
+    @Nullable
+    public String getColorReference() {
+        return colorReference;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TcssVariableEntry)) {
+            return false;
+        }
+        TcssVariableEntry that = (TcssVariableEntry) o;
+        return offset == that.offset && hasColor == that.hasColor && argb == that.argb
+                && valueText.equals(that.valueText) && kind == that.kind
+                && Objects.equals(colorReference, that.colorReference);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, valueText, kind, hasColor, argb, colorReference);
+    }
+
+    @Override
+    public String toString() {
+        return "TcssVariableEntry{offset=" + offset + ", value='" + valueText + "', kind=" + kind
+                + (hasColor ? ", argb=#" + Integer.toHexString(argb) : "")
+                + (colorReference != null ? ", ref=$" + colorReference : "") + "}";
+    }
+}
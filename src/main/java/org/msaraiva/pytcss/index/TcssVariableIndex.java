@@ -1,72 +1,108 @@
 package org.msaraiva.pytcss.index;
 
+import com.intellij.lang.injection.InjectedLanguageManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
+import com.intellij.psi.impl.cache.CacheManager;
+import com.intellij.psi.search.FileTypeIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.stubs.StubIndex;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.python.PythonFileType;
 import org.msaraiva.pytcss.TcssFileType;
 import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
-import org.msaraiva.pytcss.util.VariableResolver;
+import org.msaraiva.pytcss.python.PythonCssStrings;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * File-based index for TCSS variable declarations.
- * Enables fast cross-file variable lookups by indexing variable names.
+ * Enables fast cross-file variable lookups and color resolution without loading PSI.
  *
  * <p>Index semantics:
  * <ul>
- *   <li>Maps variable name → files containing that declaration</li>
+ *   <li>Maps variable name → {@link TcssVariableEntry} for the last declaration in each file</li>
+ *   <li>Entries carry the declaration offset, value text, value kind and literal ARGB color</li>
  *   <li>Only indexes top-level variable declarations</li>
+ *   <li>Python files contribute the declarations in their {@code CSS}/{@code DEFAULT_CSS} strings,
+ *       with offsets in the Python file; the strings are found by a text scan, without PSI</li>
  *   <li>Filters empty variable names</li>
  *   <li>Automatically invalidates on file changes</li>
  * </ul>
  */
-public class TcssVariableIndex extends ScalarIndexExtension<String> {
-    public static final ID<String, Void> INDEX_ID = ID.create("TcssVariableIndex");
-    private static final int VERSION = 2;
+public class TcssVariableIndex extends FileBasedIndexExtension<String, TcssVariableEntry> {
+    public static final ID<String, TcssVariableEntry> INDEX_ID = ID.create("TcssVariableIndex");
+    private static final int VERSION = 6;
+    private static final String[] PYTHON_CSS_TARGETS = {"CSS", "DEFAULT_CSS"};
 
     @NotNull
     @Override
-    public ID<String, Void> getName() {
+    public ID<String, TcssVariableEntry> getName() {
         return INDEX_ID;
     }
 
     @NotNull
     @Override
-    public DataIndexer<String, Void, FileContent> getIndexer() {
+    public DataIndexer<String, TcssVariableEntry, FileContent> getIndexer() {
+        // Lexer only: building PSI for every file would dominate indexing time
         return fileContent -> {
-            Map<String, Void> result = new HashMap<>();
-            PsiFile psiFile = fileContent.getPsiFile();
-
-            // Only index TCSS files
-            if (psiFile == null) {
-                return result;
+            if (fileContent.getFileType() == TcssFileType.INSTANCE) {
+                return indexText(fileContent.getContentAsText());
             }
+            return indexPythonFile(fileContent);
+        };
+    }
 
-            // Extract all variable declarations
-            Collection<TcssVariableDeclaration> declarations =
-                PsiTreeUtil.findChildrenOfType(psiFile, TcssVariableDeclaration.class);
+    /**
+     * Build index data for TCSS text: the last top-level declaration of each variable.
+     *
+     * @param text TCSS file text
+     * @return Map of variable name → entry
+     */
+    @NotNull
+    public static Map<String, TcssVariableEntry> indexText(@NotNull CharSequence text) {
+        Map<String, TcssVariableEntry> result = new HashMap<>();
+        TcssVariableScanner.scan(text, (name, offset, valueText) ->
+                result.put(name, TcssVariableEntry.create(offset, valueText)));  // Last declaration wins
+        return result;
+    }
 
-            // Index variable names (filter empty names)
-            for (TcssVariableDeclaration decl : declarations) {
-                String name = decl.getVariableName();
-                if (!name.isEmpty()) {
-                    result.put(name, null); // ScalarIndexExtension uses null values
-                }
-            }
+    /**
+     * Index the TCSS strings of a Python file. The strings are found by {@link PythonCssStrings}'
+     * text scan and their decoded text is lexed, so neither Python nor injected PSI is built.
+     */
+    @NotNull
+    private static Map<String, TcssVariableEntry> indexPythonFile(@NotNull FileContent fileContent) {
+        CharSequence text = fileContent.getContentAsText();
+        if (StringUtil.indexOf(text, '$') < 0) {
+            return Map.of();
+        }
 
-            return result;
-        };
+        Map<String, TcssVariableEntry> result = new HashMap<>();
+        for (PythonCssStrings.Literal literal : PythonCssStrings.find(text)) {
+            TcssVariableScanner.scan(literal.getText(), (name, offset, valueText) ->
+                    result.put(name, TcssVariableEntry.create(literal.toHostOffset(offset), valueText)));
+        }
+        return result;
     }
 
     @NotNull
@@ -75,10 +111,16 @@ public class TcssVariableIndex extends ScalarIndexExtension<String> {
         return EnumeratorStringDescriptor.INSTANCE;
     }
 
+    @NotNull
+    @Override
+    public DataExternalizer<TcssVariableEntry> getValueExternalizer() {
+        return TcssVariableEntry.EXTERNALIZER;
+    }
+
     @NotNull
     @Override
     public FileBasedIndex.InputFilter getInputFilter() {
-        return new DefaultFileTypeSpecificInputFilter(TcssFileType.INSTANCE);
+        return new DefaultFileTypeSpecificInputFilter(TcssFileType.INSTANCE, PythonFileType.INSTANCE);
     }
 
     @Override
@@ -93,6 +135,76 @@ public class TcssVariableIndex extends ScalarIndexExtension<String> {
 
     // ========== Public API for Index Queries ==========
 
+    /**
+     * Get the indexed entries for a variable name, one per declaring file.
+     * Files are ordered by path so callers see a deterministic order.
+     *
+     * @param variableName Variable name (without $)
+     * @param scope Search scope
+     * @return Map of declaring file → entry for its last declaration
+     */
+    @NotNull
+    public static Map<VirtualFile, TcssVariableEntry> getEntries(
+            @NotNull String variableName,
+            @NotNull GlobalSearchScope scope) {
+        Map<VirtualFile, TcssVariableEntry> result = new TreeMap<>(Comparator.comparing(VirtualFile::getPath));
+        if (variableName.isEmpty()) {
+            return result;
+        }
+
+        FileBasedIndex.getInstance().processValues(INDEX_ID, variableName, null, (file, entry) -> {
+            result.put(file, entry);
+            return true;
+        }, scope);
+        return result;
+    }
+
+    /**
+     * Get the files that can contribute declarations or references: TCSS files, and the Python files
+     * whose code mentions {@code CSS} or {@code DEFAULT_CSS}, found through the platform's word index.
+     *
+     * @param project Current project
+     * @return TCSS files and candidate Python files in the project
+     */
+    @NotNull
+    public static Collection<VirtualFile> getCandidateFiles(@NotNull Project project) {
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Set<VirtualFile> files = new LinkedHashSet<>(FileTypeIndex.getFiles(TcssFileType.INSTANCE, scope));
+        GlobalSearchScope pythonScope = GlobalSearchScope.getScopeRestrictedByFileTypes(scope, PythonFileType.INSTANCE);
+        CacheManager cacheManager = CacheManager.getInstance(project);
+        for (String word : PYTHON_CSS_TARGETS) {
+            files.addAll(Arrays.asList(cacheManager.getVirtualFilesWithWord(word, UsageSearchContext.IN_CODE, pythonScope, true)));
+        }
+        return files;
+    }
+
+    /**
+     * Get all indexed entries of a single file.
+     *
+     * @param file TCSS or Python file
+     * @param project Current project
+     * @return Map of variable name → entry for its last declaration in the file
+     */
+    @NotNull
+    public static Map<String, TcssVariableEntry> getFileEntries(@NotNull VirtualFile file, @NotNull Project project) {
+        return FileBasedIndex.getInstance().getFileData(INDEX_ID, file, project);
+    }
+
+    /**
+     * Check whether any file in scope declares the variable.
+     * Stops at the first declaring file.
+     *
+     * @param variableName Variable name (without $)
+     * @param scope Search scope
+     * @return true if the variable is declared in scope
+     */
+    public static boolean isDeclared(@NotNull String variableName, @NotNull GlobalSearchScope scope) {
+        if (variableName.isEmpty()) {
+            return false;
+        }
+        return !FileBasedIndex.getInstance().processValues(INDEX_ID, variableName, null, (file, entry) -> false, scope);
+    }
+
     /**
      * Get all files containing a declaration for the given variable name.
      *
@@ -113,7 +225,7 @@ public class TcssVariableIndex extends ScalarIndexExtension<String> {
      * Useful for completion and validation.
      *
      * @param project Current project
-     * @return Collection of all variable names across all TCSS files
+     * @return Collection of all variable names across all TCSS files and Python CSS strings
      */
     @NotNull
     public static Collection<String> getAllVariableNames(@NotNull Project project) {
@@ -123,7 +235,11 @@ public class TcssVariableIndex extends ScalarIndexExtension<String> {
 
     /**
      * Find all declarations for a variable name across files in the given scope.
-     * This resolves the index results to actual PSI elements.
+     * Returns one declaration per file: the last one, matching "last declaration wins" within a file.
+     *
+     * <p>TCSS declarations are served from {@link TcssVariableStubIndex}, so declaring files are not parsed.
+     * Declarations in Python CSS strings have no stubs: their host offsets are read from this index and
+     * mapped to the injected declarations, so only the Python files declaring the variable are loaded.
      *
      * @param variableName Variable name (without $)
      * @param project Current project
@@ -139,22 +255,58 @@ public class TcssVariableIndex extends ScalarIndexExtension<String> {
             return new ArrayList<>();
         }
 
-        Collection<VirtualFile> files = getFilesDeclaringVariable(variableName, scope);
-        Collection<TcssVariableDeclaration> result = new ArrayList<>();
-        PsiManager psiManager = PsiManager.getInstance(project);
+        Collection<TcssVariableDeclaration> declarations = StubIndex.getElements(
+                TcssVariableStubIndex.KEY, variableName, project, scope, TcssVariableDeclaration.class);
+
+        // Stub index results are in stub (source) order within each file, so the last one per file wins
+        Map<VirtualFile, TcssVariableDeclaration> lastPerFile = new LinkedHashMap<>();
+        for (TcssVariableDeclaration decl : declarations) {
+            PsiFile psiFile = decl.getContainingFile();
+            VirtualFile file = psiFile != null ? psiFile.getVirtualFile() : null;
+            if (file != null) {
+                lastPerFile.put(file, decl);
+            }
+        }
+
+        lastPerFile.putAll(findPythonDeclarations(variableName, project, scope));
+        return new ArrayList<>(lastPerFile.values());
+    }
 
-        for (VirtualFile file : files) {
-            PsiFile psiFile = psiManager.findFile(file);
-            if (psiFile != null) {
-                // Use existing VariableResolver to find declaration in each file
-                // This handles "last declaration wins" within each file
-                TcssVariableDeclaration decl = VariableResolver.findDeclaration(variableName, psiFile);
-                if (decl != null) {
-                    result.add(decl);
-                }
+    /**
+     * Map the Python entries of a variable to their injected declarations.
+     *
+     * @return Map of Python file → last declaration in its CSS strings
+     */
+    @NotNull
+    private static Map<VirtualFile, TcssVariableDeclaration> findPythonDeclarations(
+            @NotNull String variableName,
+            @NotNull Project project,
+            @NotNull GlobalSearchScope scope) {
+        Map<VirtualFile, Integer> offsets = new LinkedHashMap<>();
+        FileBasedIndex.getInstance().processValues(INDEX_ID, variableName, null, (file, entry) -> {
+            if (file.getFileType() == PythonFileType.INSTANCE) {
+                offsets.put(file, entry.getOffset());
             }
+            return true;
+        }, scope);
+        if (offsets.isEmpty()) {
+            return Map.of();
         }
 
+        PsiManager psiManager = PsiManager.getInstance(project);
+        InjectedLanguageManager injectedManager = InjectedLanguageManager.getInstance(project);
+        Map<VirtualFile, TcssVariableDeclaration> result = new LinkedHashMap<>();
+        for (Map.Entry<VirtualFile, Integer> offset : offsets.entrySet()) {
+            PsiFile psiFile = psiManager.findFile(offset.getKey());
+            if (psiFile == null) {
+                continue;
+            }
+            PsiElement leaf = injectedManager.findInjectedElementAt(psiFile, offset.getValue());
+            TcssVariableDeclaration decl = PsiTreeUtil.getParentOfType(leaf, TcssVariableDeclaration.class, false);
+            if (decl != null && variableName.equals(decl.getVariableName())) {
+                result.put(offset.getKey(), decl);
+            }
+        }
         return result;
     }
 }
@@ -0,0 +1,248 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.psi.tree.IElementType;
+import org.msaraiva.pytcss.TcssLexer;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds top-level variable declarations in TCSS text using only the lexer.
+ *
+ * <p>Follows the same token rules as {@link org.msaraiva.pytcss.TcssParser}: a top-level
+ * {@code VARIABLE} starts a declaration whose value runs to the next {@code ;}, {@code }} or
+ * {@code !} (color function arguments run to their closing parenthesis), and rule set bodies are
+ * skipped by brace counting. References and selector names are found the same way. Used by indexers,
+ * which must not build PSI for every file.
+ */
+public final class TcssVariableScanner {
+    /**
+     * Receives declarations in source order.
+     */
+    @FunctionalInterface
+    public interface DeclarationConsumer {
+        /**
+         * @param name      Variable name (without $), never empty
+         * @param offset    Offset of the declaration (its $ token)
+         * @param valueText Trimmed value text, empty if the declaration has no value
+         */
+        void declaration(@NotNull String name, int offset, @NotNull String valueText);
+    }
+
+    /**
+     * Receives variable references in source order.
+     */
+    @FunctionalInterface
+    public interface ReferenceConsumer {
+        /**
+         * @param name   Referenced variable name (without $), never empty
+         * @param offset Offset of the reference (its $ token)
+         */
+        void reference(@NotNull String name, int offset);
+    }
+
+    /**
+     * Receives selector names in source order.
+     */
+    @FunctionalInterface
+    public interface SelectorConsumer {
+        /**
+         * @param name   Selector as written, e.g. "Button", ".panel", "#main" or ":hover"
+         * @param offset Offset of the selector token
+         */
+        void selector(@NotNull String name, int offset);
+    }
+
+    private TcssVariableScanner() {
+    }
+
+    /**
+     * Scan text for top-level variable declarations.
+     *
+     * @param text     TCSS file text
+     * @param consumer Receives each declaration in source order
+     */
+    public static void scan(@NotNull CharSequence text, @NotNull DeclarationConsumer consumer) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, 0, text.length(), 0);
+
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (type == TcssTokenTypes.VARIABLE) {
+                scanDeclaration(lexer, text, consumer);
+            } else if (isSelector(type)) {
+                skipRuleSet(lexer);
+            } else {
+                lexer.advance();
+            }
+        }
+    }
+
+    /**
+     * Scan text for variable references: {@code VARIABLE} tokens inside property or variable values.
+     * Top-level declaration names are not references.
+     *
+     * @param text     TCSS text
+     * @param consumer Receives each reference in source order
+     */
+    public static void scanReferences(@NotNull CharSequence text, @NotNull ReferenceConsumer consumer) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, 0, text.length(), 0);
+        while (lexer.getTokenType() != null) {
+            // getState() is the state at the token start, so declaration names are outside value context
+            if (lexer.getTokenType() == TcssTokenTypes.VARIABLE
+                    && (lexer.getState() & TcssLexer.STATE_IN_PROPERTY_VALUE) != 0
+                    && lexer.getTokenEnd() - lexer.getTokenStart() > 1) {
+                consumer.reference(text.subSequence(lexer.getTokenStart() + 1, lexer.getTokenEnd()).toString(),
+                        lexer.getTokenStart());
+            }
+            lexer.advance();
+        }
+    }
+
+    /**
+     * Scan text for the type, class, ID and pseudo-class selectors of rule sets, nested ones included,
+     * matching {@link org.msaraiva.pytcss.psi.TcssRuleSet#getSelectorNames()}. Selector-like tokens
+     * inside values (e.g. {@code #12345}) are skipped.
+     *
+     * @param text     TCSS text
+     * @param consumer Receives each selector in source order
+     */
+    public static void scanSelectors(@NotNull CharSequence text, @NotNull SelectorConsumer consumer) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, 0, text.length(), 0);
+        while (lexer.getTokenType() != null) {
+            if (isNamedSelector(lexer.getTokenType()) && (lexer.getState() & TcssLexer.STATE_IN_PROPERTY_VALUE) == 0) {
+                consumer.selector(text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString(),
+                        lexer.getTokenStart());
+            }
+            lexer.advance();
+        }
+    }
+
+    /**
+     * Collect the names of all variables referenced in a value, in order.
+     *
+     * @param valueText Value text, e.g. "$primary 50%"
+     * @return Referenced variable names (without $), possibly with repeats
+     */
+    @NotNull
+    public static List<String> collectReferences(@NotNull CharSequence valueText) {
+        List<String> references = new ArrayList<>();
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(valueText, 0, valueText.length(), TcssLexer.STATE_IN_PROPERTY_VALUE);
+        while (lexer.getTokenType() != null) {
+            if (lexer.getTokenType() == TcssTokenTypes.VARIABLE && lexer.getTokenEnd() - lexer.getTokenStart() > 1) {
+                references.add(valueText.subSequence(lexer.getTokenStart() + 1, lexer.getTokenEnd()).toString());
+            }
+            lexer.advance();
+        }
+        return references;
+    }
+
+    private static void scanDeclaration(@NotNull TcssLexer lexer, @NotNull CharSequence text,
+                                        @NotNull DeclarationConsumer consumer) {
+        int offset = lexer.getTokenStart();
+        String name = text.subSequence(offset + 1, lexer.getTokenEnd()).toString();
+        lexer.advance();
+
+        skipWhitespaceAndComments(lexer);
+        if (lexer.getTokenType() == TcssTokenTypes.COLON) {
+            lexer.advance();
+        }
+
+        // Value: significant tokens up to the terminator; comments in between stay part of the text
+        int valueStart = -1;
+        int valueEnd = -1;
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (type == TcssTokenTypes.SEMICOLON || type == TcssTokenTypes.RBRACE || type == TcssTokenTypes.EXCLAMATION) {
+                break;
+            }
+            if (type == TcssTokenTypes.WHITE_SPACE || type == TcssTokenTypes.COMMENT) {
+                lexer.advance();
+                continue;
+            }
+            if (valueStart < 0) {
+                valueStart = lexer.getTokenStart();
+            }
+            if (type == TcssTokenTypes.COLOR_FUNCTION_NAME) {
+                // Arguments run to the closing parenthesis, as in the parser
+                while (lexer.getTokenType() != null && lexer.getTokenType() != TcssTokenTypes.RPAREN) {
+                    valueEnd = lexer.getTokenEnd();
+                    lexer.advance();
+                }
+                if (lexer.getTokenType() == null) {
+                    break;
+                }
+            }
+            valueEnd = lexer.getTokenEnd();
+            lexer.advance();
+        }
+
+        skipWhitespaceAndComments(lexer);
+        if (lexer.getTokenType() == TcssTokenTypes.SEMICOLON) {
+            lexer.advance();
+        }
+
+        if (!name.isEmpty()) {
+            String valueText = valueStart >= 0 ? text.subSequence(valueStart, valueEnd).toString().trim() : "";
+            consumer.declaration(name, offset, valueText);
+        }
+    }
+
+    /**
+     * Skip selectors and the rule set body. Bodies with or without the opening brace are skipped
+     * by counting braces, the same way the parser collapses rule blocks.
+     */
+    private static void skipRuleSet(@NotNull TcssLexer lexer) {
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (isSelector(type) || type == TcssTokenTypes.WHITE_SPACE || type == TcssTokenTypes.COMMA
+                    || type == TcssTokenTypes.COMMENT) {
+                lexer.advance();
+            } else {
+                break;
+            }
+        }
+
+        int depth = 1;
+        if (lexer.getTokenType() == TcssTokenTypes.LBRACE) {
+            lexer.advance();
+        }
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            lexer.advance();
+            if (type == TcssTokenTypes.LBRACE) {
+                depth++;
+            } else if (type == TcssTokenTypes.RBRACE && --depth == 0) {
+                return;
+            }
+        }
+    }
+
+    private static void skipWhitespaceAndComments(@NotNull TcssLexer lexer) {
+        while (lexer.getTokenType() == TcssTokenTypes.WHITE_SPACE || lexer.getTokenType() == TcssTokenTypes.COMMENT) {
+            lexer.advance();
+        }
+    }
+
+    private static boolean isNamedSelector(@NotNull IElementType type) {
+        return type == TcssTokenTypes.TYPE_SELECTOR ||
+               type == TcssTokenTypes.CLASS_SELECTOR ||
+               type == TcssTokenTypes.ID_SELECTOR ||
+               type == TcssTokenTypes.PSEUDO_CLASS;
+    }
+
+    private static boolean isSelector(@NotNull IElementType type) {
+        return type == TcssTokenTypes.TYPE_SELECTOR ||
+               type == TcssTokenTypes.CLASS_SELECTOR ||
+               type == TcssTokenTypes.ID_SELECTOR ||
+               type == TcssTokenTypes.PSEUDO_CLASS ||
+               type == TcssTokenTypes.NESTING_SELECTOR ||
+               type == TcssTokenTypes.UNIVERSAL_SELECTOR ||
+               type == TcssTokenTypes.COMBINATOR;
+    }
+}
@@ -0,0 +1,22 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stub index mapping variable name (without $) → variable declarations.
+ *
+ * <p>Backed by the TCSS stub tree, so lookups return stub-based PSI without parsing the declaring files.
+ */
+public class TcssVariableStubIndex extends StringStubIndexExtension<TcssVariableDeclaration> {
+    public static final StubIndexKey<String, TcssVariableDeclaration> KEY =
+            StubIndexKey.createIndexKey("tcss.variable.declaration");
+
+    @NotNull
+    @Override
+    public StubIndexKey<String, TcssVariableDeclaration> getKey() {
+        return KEY;
+    }
+}
@@ -0,0 +1,258 @@
+package org.msaraiva.pytcss.index;
+
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiLanguageInjectionHost;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jetbrains.python.PythonFileType;
+import org.msaraiva.pytcss.TcssFileType;
+import org.msaraiva.pytcss.psi.TcssVariableReference;
+import org.msaraiva.pytcss.python.PythonCssStrings;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * File-based index of TCSS variable references.
+ * Lets usages, rename and unused-variable checks visit only the files that use a variable.
+ *
+ * <p>Index semantics:
+ * <ul>
+ *   <li>Maps referenced variable name → sorted offsets in the file</li>
+ *   <li>In {@code .tcss} files, each offset is a reference's $ token</li>
+ *   <li>In Python files, each offset is the start of a {@code CSS}/{@code DEFAULT_CSS} string literal
+ *       whose injected TCSS references the variable, repeated once per reference so that the number of
+ *       offsets is the number of references</li>
+ *   <li>Declaration names are not references</li>
+ * </ul>
+ */
+public class TcssVariableUsageIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> INDEX_ID = ID.create("TcssVariableUsageIndex");
+    private static final int VERSION = 3;
+
+    private static final DataExternalizer<int[]> OFFSETS_EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, int[] offsets) throws IOException {
+            // Offsets are sorted, so deltas keep most values to one byte
+            DataInputOutputUtil.writeINT(out, offsets.length);
+            int previous = 0;
+            for (int offset : offsets) {
+                DataInputOutputUtil.writeINT(out, offset - previous);
+                previous = offset;
+            }
+        }
+
+        @Override
+        public int[] read(@NotNull DataInput in) throws IOException {
+            int[] offsets = new int[DataInputOutputUtil.readINT(in)];
+            int previous = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                previous += DataInputOutputUtil.readINT(in);
+                offsets[i] = previous;
+            }
+            return offsets;
+        }
+    };
+
+    @NotNull
+    @Override
+    public ID<String, int[]> getName() {
+        return INDEX_ID;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, int[], FileContent> getIndexer() {
+        return fileContent -> {
+            if (fileContent.getFileType() == TcssFileType.INSTANCE) {
+                // Lexer only, like TcssVariableIndex
+                return indexText(fileContent.getContentAsText());
+            }
+            return indexPythonFile(fileContent);
+        };
+    }
+
+    /**
+     * Build index data for TCSS text: the offsets of every reference, per name.
+     *
+     * @param text TCSS file text
+     * @return Map of variable name → reference offsets
+     */
+    @NotNull
+    public static Map<String, int[]> indexText(@NotNull CharSequence text) {
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        TcssVariableScanner.scanReferences(text, (name, offset) ->
+                offsets.computeIfAbsent(name, k -> new ArrayList<>()).add(offset));
+        return toArrays(offsets);
+    }
+
+    /**
+     * Index the TCSS strings of a Python file, found by {@link PythonCssStrings} without building PSI.
+     */
+    @NotNull
+    private static Map<String, int[]> indexPythonFile(@NotNull FileContent fileContent) {
+        CharSequence text = fileContent.getContentAsText();
+        if (StringUtil.indexOf(text, '$') < 0) {
+            return Map.of();
+        }
+
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        for (PythonCssStrings.Literal literal : PythonCssStrings.find(text)) {
+            int hostOffset = literal.getStartOffset();
+            TcssVariableScanner.scanReferences(literal.getText(), (name, offset) ->
+                    offsets.computeIfAbsent(name, k -> new ArrayList<>()).add(hostOffset));
+        }
+        return toArrays(offsets);
+    }
+
+    @NotNull
+    private static Map<String, int[]> toArrays(@NotNull Map<String, List<Integer>> offsets) {
+        Map<String, int[]> result = new HashMap<>(offsets.size());
+        for (Map.Entry<String, List<Integer>> entry : offsets.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return result;
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<int[]> getValueExternalizer() {
+        return OFFSETS_EXTERNALIZER;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(TcssFileType.INSTANCE, PythonFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    // ========== Public API for Index Queries ==========
+
+    /**
+     * Get all files referencing a variable.
+     *
+     * @param variableName Variable name (without $)
+     * @param scope Search scope
+     * @return TCSS and Python files with at least one reference
+     */
+    @NotNull
+    public static Collection<VirtualFile> getFilesReferencing(@NotNull String variableName,
+                                                              @NotNull GlobalSearchScope scope) {
+        if (variableName.isEmpty()) {
+            return List.of();
+        }
+        return FileBasedIndex.getInstance().getContainingFiles(INDEX_ID, variableName, scope);
+    }
+
+    /**
+     * Check whether any file in scope references the variable.
+     * Stops at the first referencing file.
+     *
+     * @param variableName Variable name (without $)
+     * @param scope Search scope
+     * @return true if the variable is used in scope
+     */
+    public static boolean isReferenced(@NotNull String variableName, @NotNull GlobalSearchScope scope) {
+        if (variableName.isEmpty()) {
+            return false;
+        }
+        return !FileBasedIndex.getInstance().processValues(INDEX_ID, variableName, null, (file, offsets) -> false, scope);
+    }
+
+    /**
+     * Find the reference elements for a variable name, visiting only files the index lists.
+     * References inside Python strings are returned from the injected TCSS.
+     *
+     * @param variableName Variable name (without $)
+     * @param project Current project
+     * @param scope Search scope
+     * @return References named {@code variableName}, ordered by file path and offset
+     */
+    @NotNull
+    public static List<TcssVariableReference> findReferences(@NotNull String variableName,
+                                                             @NotNull Project project,
+                                                             @NotNull GlobalSearchScope scope) {
+        List<TcssVariableReference> result = new ArrayList<>();
+        if (variableName.isEmpty()) {
+            return result;
+        }
+
+        Map<VirtualFile, int[]> usages = new TreeMap<>(Comparator.comparing(VirtualFile::getPath));
+        FileBasedIndex.getInstance().processValues(INDEX_ID, variableName, null, (file, offsets) -> {
+            usages.put(file, offsets);
+            return true;
+        }, scope);
+
+        PsiManager psiManager = PsiManager.getInstance(project);
+        InjectedLanguageManager injectedManager = InjectedLanguageManager.getInstance(project);
+        Set<PsiLanguageInjectionHost> visitedHosts = new HashSet<>();
+        for (Map.Entry<VirtualFile, int[]> usage : usages.entrySet()) {
+            PsiFile psiFile = psiManager.findFile(usage.getKey());
+            if (psiFile == null) {
+                continue;
+            }
+            boolean tcss = usage.getKey().getFileType() == TcssFileType.INSTANCE;
+            for (int offset : usage.getValue()) {
+                PsiElement leaf = psiFile.findElementAt(offset);
+                if (tcss) {
+                    TcssVariableReference reference = PsiTreeUtil.getParentOfType(leaf, TcssVariableReference.class, false);
+                    if (reference != null && variableName.equals(reference.getVariableName())) {
+                        result.add(reference);
+                    }
+                    continue;
+                }
+
+                PsiLanguageInjectionHost host = PsiTreeUtil.getParentOfType(leaf, PsiLanguageInjectionHost.class, false);
+                if (host != null && visitedHosts.add(host)) {  // A literal is listed once per reference
+                    injectedManager.enumerate(host, (injectedPsi, places) -> {
+                        for (TcssVariableReference reference :
+                                PsiTreeUtil.findChildrenOfType(injectedPsi, TcssVariableReference.class)) {
+                            if (variableName.equals(reference.getVariableName())) {
+                                result.add(reference);
+                            }
+                        }
+                    });
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -1,18 +1,12 @@
 package org.msaraiva.pytcss.inspection;
 
 import com.intellij.codeInspection.*;
-import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.PsiFile;
 import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
-import org.msaraiva.pytcss.util.VariableResolver;
+import org.msaraiva.pytcss.util.TcssVariableGraph;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Inspection that warns when a variable is declared in multiple files.
  * Helps prevent naming conflicts in project-wide variable resolution.
@@ -39,26 +33,17 @@ public class TcssDuplicateVariableInspection extends LocalInspectionTool {
             return;
         }
 
-        Project project = decl.getProject();
-        Collection<TcssVariableDeclaration> allDecls =
-                VariableResolver.findDeclarationsCrossFile(varName, project);
+        // Declaring files come from the dependency graph, so other files' PSI is not loaded
+        int fileCount = TcssVariableGraph.getInstance(decl.getProject()).getDeclaringFiles(varName).size();
 
         // Only warn if variable is declared in multiple different files
-        Set<PsiFile> distinctFiles = new HashSet<>();
-        for (TcssVariableDeclaration declaration : allDecls) {
-            PsiFile file = declaration.getContainingFile();
-            if (file != null) {
-                distinctFiles.add(file);
-            }
-        }
-
-        if (distinctFiles.size() > 1) {
+        if (fileCount > 1) {
             PsiElement nameIdentifier = decl.getNameIdentifier();
             if (nameIdentifier != null) {
                 String message = String.format(
                         "Variable '$%s' is declared in %d files",
                         varName,
-                        distinctFiles.size()
+                        fileCount
                 );
                 holder.registerProblem(
                         nameIdentifier,
@@ -2,6 +2,7 @@ package org.msaraiva.pytcss.metadata;
 
 import org.msaraiva.pytcss.metadata.generated.TcssAvailableProperties;
 import org.msaraiva.pytcss.metadata.generated.TcssCssTypeUrls;
+import org.msaraiva.pytcss.util.SuggestionIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -18,6 +19,7 @@ import java.util.Map;
  */
 public final class TcssPropertyCatalog {
     private static final Map<String, TcssPropertyInfo> PROPERTIES;
+    private static final SuggestionIndex NAME_SUGGESTIONS;
 
     static {
         Map<String, TcssPropertyInfo> map = new LinkedHashMap<>();
@@ -136,6 +138,7 @@ public final class TcssPropertyCatalog {
         register(map, "transitions", "CSS transition definitions for animating properties.", TcssPropertyInfo.ValueType.STRING);
 
         PROPERTIES = Collections.unmodifiableMap(map);
+        NAME_SUGGESTIONS = SuggestionIndex.of(map.keySet());
     }
 
     private TcssPropertyCatalog() {
@@ -164,6 +167,17 @@ public final class TcssPropertyCatalog {
         return PROPERTIES.get(name.toLowerCase(Locale.US));
     }
 
+    /**
+     * Find the closest known property name for a typo.
+     *
+     * @param name Unknown property name
+     * @return Closest property name within two edits, or null
+     */
+    @Nullable
+    public static String getSuggestion(@NotNull String name) {
+        return NAME_SUGGESTIONS.suggest(name);
+    }
+
     @NotNull
     public static Collection<TcssPropertyInfo> getAll() {
         return PROPERTIES.values();
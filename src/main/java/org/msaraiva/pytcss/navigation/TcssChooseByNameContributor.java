@@ -0,0 +1,50 @@
+package org.msaraiva.pytcss.navigation;
+
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
+import org.msaraiva.pytcss.index.TcssPythonSelectorIndex;
+import org.msaraiva.pytcss.index.TcssSelectorStubIndex;
+import org.msaraiva.pytcss.index.TcssVariableStubIndex;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Go to Symbol support for TCSS variables (by name, without $) and selectors (as written,
+ * e.g. "Button", ".panel", "#main"). Names and elements come from the stub indexes, so
+ * unopened files are never parsed; selectors in Python CSS strings come from
+ * {@link TcssPythonSelectorIndex}, which loads only the files using the chosen name.
+ */
+public class TcssChooseByNameContributor implements ChooseByNameContributorEx {
+    @Override
+    public void processNames(@NotNull Processor<? super String> processor,
+                             @NotNull GlobalSearchScope scope,
+                             @Nullable IdFilter filter) {
+        StubIndex index = StubIndex.getInstance();
+        if (index.processAllKeys(TcssVariableStubIndex.KEY, processor, scope, filter)
+                && index.processAllKeys(TcssSelectorStubIndex.KEY, processor, scope, filter)) {
+            TcssPythonSelectorIndex.processNames(processor, scope, filter);
+        }
+    }
+
+    @Override
+    public void processElementsWithName(@NotNull String name,
+                                        @NotNull Processor<? super NavigationItem> processor,
+                                        @NotNull FindSymbolParameters parameters) {
+        StubIndex index = StubIndex.getInstance();
+        boolean proceed = index.processElements(TcssVariableStubIndex.KEY, name, parameters.getProject(),
+                parameters.getSearchScope(), parameters.getIdFilter(), TcssVariableDeclaration.class, processor::process);
+        proceed = proceed && index.processElements(TcssSelectorStubIndex.KEY, name, parameters.getProject(),
+                parameters.getSearchScope(), parameters.getIdFilter(), TcssRuleSet.class, processor::process);
+        if (proceed) {
+            TcssPythonSelectorIndex.processRuleSets(name, parameters.getProject(), parameters.getSearchScope(),
+                    processor::process);
+        }
+    }
+}
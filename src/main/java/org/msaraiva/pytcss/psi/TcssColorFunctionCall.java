@@ -3,7 +3,7 @@ package org.msaraiva.pytcss.psi;
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
 import org.msaraiva.pytcss.color.ColorFormat;
-import org.msaraiva.pytcss.color.ColorUtil;
+import org.msaraiva.pytcss.color.ColorParser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -20,8 +20,13 @@ public class TcssColorFunctionCall extends ASTWrapperPsiElement implements TcssC
     @Override
     @Nullable
     public Color resolveColor() {
-        String text = getText();
-        return ColorUtil.parse(text);
+        return ColorParser.toColor(resolveArgb());
+    }
+
+    @Override
+    public long resolveArgb() {
+        CharSequence text = getNode().getChars();
+        return ColorParser.parseFunction(text, 0, text.length());
     }
 
     @Override
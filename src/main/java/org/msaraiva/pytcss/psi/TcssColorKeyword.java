@@ -3,6 +3,7 @@ package org.msaraiva.pytcss.psi;
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
 import org.msaraiva.pytcss.color.ColorFormat;
+import org.msaraiva.pytcss.color.ColorParser;
 import org.msaraiva.pytcss.color.NamedColors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,14 +22,15 @@ public class TcssColorKeyword extends ASTWrapperPsiElement implements TcssColorV
     @Override
     @Nullable
     public Color resolveColor() {
-        String text = getText();
-
-        // Special case: "auto" is not a color
-        if ("auto".equalsIgnoreCase(text)) {
-            return null;
-        }
+        return ColorParser.toColor(resolveArgb());
+    }
 
-        return NamedColors.getColorByName(text);
+    @Override
+    public long resolveArgb() {
+        // "auto" is not a named color, so it resolves to NONE
+        ASTNode token = getNode().getFirstChildNode();
+        CharSequence text = token != null ? token.getChars() : getNode().getChars();
+        return NamedColors.getArgb(text, 0, text.length());
     }
 
     @Override
@@ -2,6 +2,7 @@ package org.msaraiva.pytcss.psi;
 
 import com.intellij.psi.PsiElement;
 import org.msaraiva.pytcss.color.ColorFormat;
+import org.msaraiva.pytcss.color.ColorParser;
 import org.jetbrains.annotations.Nullable;
 
 import java.awt.Color;
@@ -19,6 +20,17 @@ public interface TcssColorValue extends PsiElement {
     @Nullable
     Color resolveColor();
 
+    /**
+     * Resolve this color value to a packed ARGB int, without creating a {@link Color}.
+     * Literal colors override this to parse straight from their text.
+     *
+     * @return Packed ARGB, or {@link ColorParser#NONE} if the color cannot be resolved
+     */
+    default long resolveArgb() {
+        Color color = resolveColor();
+        return color != null ? ColorParser.fromColor(color) : ColorParser.NONE;
+    }
+
     /**
      * Get the format of this color value.
      *
@@ -6,6 +6,7 @@ import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
 import org.msaraiva.pytcss.TcssTokenTypes;
 import org.msaraiva.pytcss.color.ColorFormat;
+import org.msaraiva.pytcss.color.ColorParser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -78,24 +79,25 @@ public class TcssColorWithOpacityValue extends ASTWrapperPsiElement implements T
     @Override
     @Nullable
     public Color resolveColor() {
+        return ColorParser.toColor(resolveArgb());
+    }
+
+    @Override
+    public long resolveArgb() {
         TcssColorValue baseColor = getBaseColor();
         if (baseColor == null) {
-            return null;
-        }
-
-        Color base = baseColor.resolveColor();
-        if (base == null) {
-            return null;
+            return ColorParser.NONE;
         }
 
-        Float opacity = parseOpacityFraction();
-        if (opacity == null) {
+        long base = baseColor.resolveArgb();
+        PsiElement opacity = getOpacityToken();
+        if (base == ColorParser.NONE || opacity == null) {
             return base;
         }
 
-        float clamped = Math.max(0f, Math.min(1f, opacity));
-        int alpha = Math.round(clamped * 255f);
-        return new Color(base.getRed(), base.getGreen(), base.getBlue(), alpha);
+        CharSequence text = opacity.getNode().getChars();
+        int alpha = ColorParser.parseOpacity(text, 0, text.length());
+        return alpha >= 0 ? ColorParser.withAlpha(base, alpha) : base;
     }
 
     @Override
@@ -105,36 +107,6 @@ public class TcssColorWithOpacityValue extends ASTWrapperPsiElement implements T
         return base != null ? base.getColorFormat() : null;
     }
 
-    @Nullable
-    private Float parseOpacityFraction() {
-        PsiElement opacity = getOpacityToken();
-        if (opacity == null) {
-            return null;
-        }
-
-        String text = opacity.getText();
-        if (text == null) {
-            return null;
-        }
-
-        text = text.trim();
-        if (!text.endsWith("%")) {
-            return null;
-        }
-
-        String numeric = text.substring(0, text.length() - 1).trim();
-        if (numeric.isEmpty()) {
-            return null;
-        }
-
-        try {
-            float value = Float.parseFloat(numeric);
-            return value / 100f;
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
     /**
      * Formatting context extracted from the original opacity suffix.
      */
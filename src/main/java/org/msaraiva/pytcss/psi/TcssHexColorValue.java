@@ -3,7 +3,7 @@ package org.msaraiva.pytcss.psi;
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
 import org.msaraiva.pytcss.color.ColorFormat;
-import org.msaraiva.pytcss.color.ColorUtil;
+import org.msaraiva.pytcss.color.ColorParser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -20,12 +20,15 @@ public class TcssHexColorValue extends ASTWrapperPsiElement implements TcssColor
     @Override
     @Nullable
     public Color resolveColor() {
-        String text = getText();
-        try {
-            return ColorUtil.parseHex(text);
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+        return ColorParser.toColor(resolveArgb());
+    }
+
+    @Override
+    public long resolveArgb() {
+        // The HEX_COLOR leaf holds its text, so this reads it without copying
+        ASTNode token = getNode().getFirstChildNode();
+        CharSequence text = token != null ? token.getChars() : getNode().getChars();
+        return ColorParser.parseHex(text, 0, text.length());
     }
 
     @Override
@@ -2,10 +2,10 @@ package org.msaraiva.pytcss.psi;
 
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
-import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,6 +17,18 @@ public class TcssPropertyValue extends ASTWrapperPsiElement {
         super(node);
     }
 
+    /**
+     * Get the kinds, numbers and colors this value is made of.
+     * Computed in one pass on first use and cached until the file changes.
+     *
+     * @return Value summary
+     */
+    @NotNull
+    public TcssValueSummary getSummary() {
+        return CachedValuesManager.getCachedValue(this, () ->
+                CachedValueProvider.Result.create(TcssValueSummary.compute(this), this));
+    }
+
     /**
      * Get all color values in this property value.
      * Includes hex colors, color functions, color keywords, and variable references.
@@ -25,17 +37,7 @@ public class TcssPropertyValue extends ASTWrapperPsiElement {
      */
     @NotNull
     public List<TcssColorValue> getColorValues() {
-        List<TcssColorValue> colors = new ArrayList<>();
-
-        PsiElement child = getFirstChild();
-        while (child != null) {
-            if (child instanceof TcssColorValue) {
-                colors.add((TcssColorValue) child);
-            }
-            child = child.getNextSibling();
-        }
-
-        return colors;
+        return getSummary().getColors();
     }
 
     /**
@@ -44,6 +46,6 @@ public class TcssPropertyValue extends ASTWrapperPsiElement {
      * @return true if contains at least one color value
      */
     public boolean hasColorValues() {
-        return !getColorValues().isEmpty();
+        return !getSummary().getColors().isEmpty();
     }
 }
@@ -0,0 +1,40 @@
+package org.msaraiva.pytcss.psi;
+
+import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * PSI element for the braced body of a rule set: { declarations and nested rule sets }.
+ *
+ * <p>The body is parsed lazily and reparsed on its own after edits inside it
+ * (see {@link org.msaraiva.pytcss.TcssRuleBlockElementType}).
+ */
+public class TcssRuleBlock extends ASTWrapperPsiElement {
+    public TcssRuleBlock(@NotNull ASTNode node) {
+        super(node);
+    }
+
+    /**
+     * Get property declarations directly inside this block.
+     *
+     * @return List of property declarations
+     */
+    @NotNull
+    public List<TcssPropertyDeclaration> getPropertyDeclarations() {
+        return PsiTreeUtil.getChildrenOfTypeAsList(this, TcssPropertyDeclaration.class);
+    }
+
+    /**
+     * Get rule sets nested directly inside this block.
+     *
+     * @return List of nested rule sets
+     */
+    @NotNull
+    public List<TcssRuleSet> getNestedRuleSets() {
+        return PsiTreeUtil.getChildrenOfTypeAsList(this, TcssRuleSet.class);
+    }
+}
@@ -1,24 +1,55 @@
 package org.msaraiva.pytcss.psi;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.PresentationData;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.msaraiva.pytcss.TcssElementTypes;
+import org.msaraiva.pytcss.TcssFileType;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.msaraiva.pytcss.psi.stubs.TcssRuleSetStub;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * PSI element for rule sets: selector { declarations }
+ *
+ * Stub-based: selector names and display text are available without parsing the file.
  */
-public class TcssRuleSet extends ASTWrapperPsiElement {
+public class TcssRuleSet extends StubBasedPsiElementBase<TcssRuleSetStub> {
+    private static final TokenSet NAMED_SELECTORS = TokenSet.create(
+            TcssTokenTypes.TYPE_SELECTOR,
+            TcssTokenTypes.CLASS_SELECTOR,
+            TcssTokenTypes.ID_SELECTOR,
+            TcssTokenTypes.PSEUDO_CLASS);
+
     public TcssRuleSet(@NotNull ASTNode node) {
         super(node);
     }
 
+    public TcssRuleSet(@NotNull TcssRuleSetStub stub, @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
+    /**
+     * Get the braced body of this rule set.
+     *
+     * @return Rule block, or null if the opening brace is missing
+     */
+    @Nullable
+    public TcssRuleBlock getBlock() {
+        return PsiTreeUtil.getChildOfType(this, TcssRuleBlock.class);
+    }
+
     /**
      * Get all property declarations in this rule set.
      *
@@ -26,7 +57,24 @@ public class TcssRuleSet extends ASTWrapperPsiElement {
      */
     @NotNull
     public List<TcssPropertyDeclaration> getPropertyDeclarations() {
-        return PsiTreeUtil.getChildrenOfTypeAsList(this, TcssPropertyDeclaration.class);
+        TcssRuleBlock block = getBlock();
+        // Without a block (missing '{'), declarations are parsed directly into the rule set
+        return block != null
+                ? block.getPropertyDeclarations()
+                : PsiTreeUtil.getChildrenOfTypeAsList(this, TcssPropertyDeclaration.class);
+    }
+
+    /**
+     * Get rule sets nested directly inside this rule set.
+     *
+     * @return List of nested rule sets
+     */
+    @NotNull
+    public List<TcssRuleSet> getNestedRuleSets() {
+        TcssRuleBlock block = getBlock();
+        return block != null
+                ? block.getNestedRuleSets()
+                : PsiTreeUtil.getChildrenOfTypeAsList(this, TcssRuleSet.class);
     }
 
     /**
@@ -47,6 +95,29 @@ public class TcssRuleSet extends ASTWrapperPsiElement {
         return selectors;
     }
 
+    /**
+     * Get the type, class, ID and pseudo-class selectors of this rule set as written
+     * (e.g. "Button", ".panel", "#main", ":hover"). Combinators, '&' and '*' are skipped.
+     *
+     * @return Selector names in source order
+     */
+    @NotNull
+    public List<String> getSelectorNames() {
+        TcssRuleSetStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getSelectorNames();
+        }
+        List<String> names = new ArrayList<>();
+        for (PsiElement selector : getSelectors()) {
+            ASTNode token = selector.getNode().getFirstChildNode();
+            IElementType type = token != null ? token.getElementType() : null;
+            if (type != null && NAMED_SELECTORS.contains(type)) {
+                names.add(token.getText());
+            }
+        }
+        return names;
+    }
+
     /**
      * Convenience helper to return selector text (used by structure view).
      */
@@ -76,10 +147,21 @@ public class TcssRuleSet extends ASTWrapperPsiElement {
 
     @NotNull
     public String getSelectorDisplayName() {
+        TcssRuleSetStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getDisplayName();
+        }
         List<String> selectors = getSelectorTexts();
         if (selectors.isEmpty()) {
             return "<rule>";
         }
         return String.join(", ", selectors);
     }
+
+    @Override
+    public ItemPresentation getPresentation() {
+        PsiFile file = getContainingFile();
+        return new PresentationData(getSelectorDisplayName(), file != null ? file.getName() : null,
+                TcssFileType.INSTANCE.getIcon(), null);
+    }
 }
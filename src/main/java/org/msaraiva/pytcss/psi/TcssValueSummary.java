@@ -0,0 +1,209 @@
+package org.msaraiva.pytcss.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.msaraiva.pytcss.TcssElementTypes;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a property value is made of, collected in one pass over its children.
+ *
+ * <p>Obtained from {@link TcssPropertyValue#getSummary()}, which caches it until the file changes, so
+ * callers can ask "does this value contain a variable / number / string?" without walking the tree.
+ * Numbers are only parsed into {@link Scalar}s when {@link #getScalars()} is first called.
+ */
+public final class TcssValueSummary {
+    // Kind bits
+    public static final int NUMBER = 1;
+    public static final int STRING = 1 << 1;
+    public static final int IDENTIFIER = 1 << 2;
+    public static final int COMMA = 1 << 3;
+    public static final int COLOR = 1 << 4;        // Hex, function, keyword or color with opacity
+    public static final int VARIABLE = 1 << 5;
+    public static final int INITIAL = 1 << 6;
+    public static final int ERROR = 1 << 7;        // Parser error or unexpected token
+
+    static final TcssValueSummary EMPTY = new TcssValueSummary(null, 0, 0, List.of());
+
+    private final TcssPropertyValue value;
+    private final int kinds;
+    private final int atomCount;
+    private final List<TcssColorValue> colors;
+    private volatile List<Scalar> scalars;  // Parsed on first use
+
+    private TcssValueSummary(@Nullable TcssPropertyValue value, int kinds, int atomCount,
+                             @NotNull List<TcssColorValue> colors) {
+        this.value = value;
+        this.kinds = kinds;
+        this.atomCount = atomCount;
+        this.colors = colors;
+    }
+
+    /**
+     * A number with its unit, e.g. {@code 50%} or {@code 1fr}.
+     */
+    public static final class Scalar {
+        private final double value;
+        private final String unit;
+        private final PsiElement element;
+
+        private Scalar(double value, @NotNull String unit, @NotNull PsiElement element) {
+            this.value = value;
+            this.unit = unit;
+            this.element = element;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * @return Unit suffix ({@code fr}, {@code %}, {@code w}, {@code h}, {@code vw}, {@code vh}), or "" for a plain number
+         */
+        @NotNull
+        public String getUnit() {
+            return unit;
+        }
+
+        @NotNull
+        public PsiElement getElement() {
+            return element;
+        }
+    }
+
+    /**
+     * Walk the value's children once.
+     */
+    @NotNull
+    static TcssValueSummary compute(@NotNull TcssPropertyValue value) {
+        int kinds = 0;
+        int atomCount = 0;
+        List<TcssColorValue> colors = null;
+
+        for (ASTNode child = value.getNode().getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (type == TcssTokenTypes.WHITE_SPACE || type == TcssTokenTypes.COMMENT) {
+                continue;
+            }
+            atomCount++;
+
+            if (type == TcssTokenTypes.NUMBER) {
+                kinds |= NUMBER;
+            } else if (type == TcssTokenTypes.STRING) {
+                kinds |= STRING;
+            } else if (type == TcssTokenTypes.IDENTIFIER) {
+                kinds |= IDENTIFIER;
+            } else if (type == TcssTokenTypes.COMMA) {
+                kinds |= COMMA;
+            } else if (type == TcssElementTypes.INITIAL_KEYWORD_VALUE) {
+                kinds |= INITIAL;
+            } else if (type == TokenType.ERROR_ELEMENT) {
+                kinds |= ERROR;
+                atomCount--;  // The offending token follows as its own child
+            } else {
+                PsiElement psi = child.getPsi();
+                if (psi instanceof TcssColorValue) {
+                    kinds |= psi instanceof TcssVariableReference ? VARIABLE : COLOR;
+                    if (colors == null) {
+                        colors = new ArrayList<>(2);
+                    }
+                    colors.add((TcssColorValue) psi);
+                } else {
+                    kinds |= ERROR;
+                }
+            }
+        }
+
+        if (kinds == 0) {
+            return EMPTY;
+        }
+        return new TcssValueSummary(value, kinds, atomCount,
+                colors != null ? Collections.unmodifiableList(colors) : List.of());
+    }
+
+    /**
+     * Parse the value's numbers; only done when {@link #getScalars()} is first called.
+     */
+    @NotNull
+    private static List<Scalar> parseScalars(@NotNull TcssPropertyValue value) {
+        List<Scalar> scalars = new ArrayList<>(4);
+        for (ASTNode child = value.getNode().getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            if (child.getElementType() == TcssTokenTypes.NUMBER) {
+                Scalar scalar = parseScalar(child);
+                if (scalar != null) {
+                    scalars.add(scalar);
+                }
+            }
+        }
+        return Collections.unmodifiableList(scalars);
+    }
+
+    @Nullable
+    private static Scalar parseScalar(@NotNull ASTNode number) {
+        CharSequence text = number.getChars();
+        int end = 0;
+        if (end < text.length() && (text.charAt(end) == '-' || text.charAt(end) == '+')) {
+            end++;
+        }
+        while (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+            end++;
+        }
+        try {
+            double value = Double.parseDouble(text.subSequence(0, end).toString());
+            return new Scalar(value, text.subSequence(end, text.length()).toString(), number.getPsi());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param mask One or more kind bits
+     * @return true if the value contains any of them
+     */
+    public boolean hasAny(int mask) {
+        return (kinds & mask) != 0;
+    }
+
+    /**
+     * @return Kind bits of everything in the value
+     */
+    public int getKinds() {
+        return kinds;
+    }
+
+    /**
+     * @return Number of value atoms (colors with their opacity count once), excluding whitespace and comments
+     */
+    public int getAtomCount() {
+        return atomCount;
+    }
+
+    /**
+     * @return Numbers in source order, parsed on the first call
+     */
+    @NotNull
+    public List<Scalar> getScalars() {
+        List<Scalar> result = scalars;
+        if (result == null) {
+            result = value != null && hasAny(NUMBER) ? parseScalars(value) : List.of();
+            scalars = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Colors and variable references in source order
+     */
+    @NotNull
+    public List<TcssColorValue> getColors() {
+        return colors;
+    }
+}
@@ -1,16 +1,30 @@
 package org.msaraiva.pytcss.psi;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.PresentationData;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
 import org.msaraiva.pytcss.TcssElementFactory;
+import org.msaraiva.pytcss.TcssFileType;
 import org.msaraiva.pytcss.TcssTokenTypes;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+import org.msaraiva.pytcss.index.TcssVariableUsageIndex;
+import org.msaraiva.pytcss.psi.stubs.TcssVariableDeclarationStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 /**
  * PSI element for variable declarations: $variable-name: value;
  *
@@ -18,12 +32,21 @@ import org.jetbrains.annotations.Nullable;
  *
  * This element represents top-level variable declarations in TCSS files.
  * Variables have file-level scope (TCSS does not have block-scoped variables).
+ *
+ * Stub-based: the name and raw value text are available without parsing the file.
  */
-public class TcssVariableDeclaration extends ASTWrapperPsiElement implements PsiNameIdentifierOwner {
+public class TcssVariableDeclaration extends StubBasedPsiElementBase<TcssVariableDeclarationStub>
+        implements PsiNameIdentifierOwner {
+    public static final TcssVariableDeclaration[] EMPTY_ARRAY = new TcssVariableDeclaration[0];
+
     public TcssVariableDeclaration(@NotNull ASTNode node) {
         super(node);
     }
 
+    public TcssVariableDeclaration(@NotNull TcssVariableDeclarationStub stub, @NotNull IStubElementType<?, ?> nodeType) {
+        super(stub, nodeType);
+    }
+
     /**
      * Get the variable name token (includes $).
      *
@@ -42,6 +65,10 @@ public class TcssVariableDeclaration extends ASTWrapperPsiElement implements Psi
      */
     @NotNull
     public String getVariableName() {
+        TcssVariableDeclarationStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getName();
+        }
         PsiElement token = getVariableToken();
         if (token == null) {
             return "";
@@ -96,10 +123,30 @@ public class TcssVariableDeclaration extends ASTWrapperPsiElement implements Psi
      */
     @NotNull
     public String getVariableNameWithPrefix() {
+        TcssVariableDeclarationStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getName().isEmpty() ? "" : "$" + stub.getName();
+        }
         PsiElement token = getVariableToken();
         return token != null ? token.getText() : "";
     }
 
+    /**
+     * Get the raw value text, e.g. "#0066cc" or "$primary 50%".
+     * Served from the stub when the file has not been parsed.
+     *
+     * @return Value text or empty string
+     */
+    @NotNull
+    public String getValueText() {
+        TcssVariableDeclarationStub stub = getGreenStub();
+        if (stub != null) {
+            return stub.getValueText();
+        }
+        TcssPropertyValue value = getPropertyValue();
+        return value != null ? value.getText().trim() : "";
+    }
+
     /**
      * Get the property value element.
      *
@@ -123,7 +170,26 @@ public class TcssVariableDeclaration extends ASTWrapperPsiElement implements Psi
      */
     @Nullable
     public TcssColorValue getColorValue() {
-        TcssPropertyValue propertyValue = getPropertyValue();
+        return getFirstColorValue(getPropertyValue());
+    }
+
+    /**
+     * Get the value's classification for color resolution when only the stub is available.
+     *
+     * The stored value text is lexed once and the result kept with the stub, so neither the declaring
+     * file's AST nor a detached value element is built.
+     *
+     * @return Value entry with its literal color or color reference, or null if the AST is loaded
+     *         (use {@link #getColorValue()} then)
+     */
+    @Nullable
+    public TcssVariableEntry getStubValueEntry() {
+        TcssVariableDeclarationStub stub = getStub();
+        return stub != null ? stub.getValueEntry() : null;
+    }
+
+    @Nullable
+    private static TcssColorValue getFirstColorValue(@Nullable TcssPropertyValue propertyValue) {
         if (propertyValue == null) {
             return null;
         }
@@ -135,4 +201,32 @@ public class TcssVariableDeclaration extends ASTWrapperPsiElement implements Psi
 
         return null;
     }
+
+    /**
+     * Usages can only be in the declaring file or in files the usage index lists for this name,
+     * so reference searches (including the platform's text-based ones) skip every other file.
+     */
+    @NotNull
+    @Override
+    public SearchScope getUseScope() {
+        SearchScope useScope = super.getUseScope();
+        PsiFile file = getContainingFile();
+        VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+        String name = getVariableName();
+        if (virtualFile == null || name.isEmpty() || !(useScope instanceof GlobalSearchScope)) {
+            return useScope;
+        }
+
+        Collection<VirtualFile> files = new ArrayList<>(
+                TcssVariableUsageIndex.getFilesReferencing(name, (GlobalSearchScope) useScope));
+        files.add(virtualFile);
+        return GlobalSearchScope.filesScope(getProject(), files);
+    }
+
+    @Override
+    public ItemPresentation getPresentation() {
+        PsiFile file = getContainingFile();
+        return new PresentationData(getVariableNameWithPrefix(), file != null ? file.getName() : null,
+                TcssFileType.INSTANCE.getIcon(), null);
+    }
 }
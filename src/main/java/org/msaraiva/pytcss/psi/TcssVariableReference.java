@@ -2,12 +2,17 @@ package org.msaraiva.pytcss.psi;
 
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
+import com.intellij.lang.injection.InjectedLanguageManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementResolveResult;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiPolyVariantReferenceBase;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.util.IncorrectOperationException;
 import org.msaraiva.pytcss.TcssElementFactory;
 import org.msaraiva.pytcss.color.ColorFormat;
@@ -16,7 +21,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.awt.Color;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * PSI element for variable references in property values: $variable-name
@@ -35,10 +42,15 @@ import java.util.Collection;
  *   <li>Handles max depth (returns null)</li>
  * </ul>
  *
+ * <p>The PSI reference is created once per element and is poly-variant: a variable declared in
+ * several files resolves to all of them. Results are held in {@link ResolveCache} until PSI changes.
+ *
  * <p>Note: This element will be revised once validation is implemented
  * to provide error markers for undefined variables and circular references.
  */
 public class TcssVariableReference extends ASTWrapperPsiElement implements TcssColorValue {
+    private final VariablePsiReference reference = new VariablePsiReference(this);
+
     public TcssVariableReference(@NotNull ASTNode node) {
         super(node);
     }
@@ -87,7 +99,7 @@ public class TcssVariableReference extends ASTWrapperPsiElement implements TcssC
 
     @Override
     public PsiReference getReference() {
-        return new VariablePsiReference(this);
+        return reference;
     }
 
     /**
@@ -114,46 +126,92 @@ public class TcssVariableReference extends ASTWrapperPsiElement implements TcssC
      * Checks local file first (shadowing), then searches project-wide.
      * Used by color picker to update the declaration instead of the reference.
      *
-     * @return Variable declaration or null if not found
+     * @return Variable declaration (the first by file path if several files declare it) or null if not found
      */
     @Nullable
     public TcssVariableDeclaration resolveDeclaration() {
-        PsiFile containingFile = getContainingFile();
-        if (containingFile == null) {
-            return null;
-        }
-
-        String variableName = getVariableName();
+        return (TcssVariableDeclaration) reference.resolve();
+    }
 
-        // Check local file first (shadowing)
-        TcssVariableDeclaration localDecl = VariableResolver.findDeclaration(variableName, containingFile);
-        if (localDecl != null) {
-            return localDecl;
+    /**
+     * Find every declaration this reference can resolve to.
+     *
+     * @return The local declaration if the file declares the variable, otherwise all project-wide
+     *         declarations ordered by file path
+     */
+    @NotNull
+    public List<TcssVariableDeclaration> resolveDeclarations() {
+        ResolveResult[] results = reference.multiResolve(false);
+        List<TcssVariableDeclaration> declarations = new ArrayList<>(results.length);
+        for (ResolveResult result : results) {
+            declarations.add((TcssVariableDeclaration) result.getElement());
         }
-
-        // Fall back to cross-file search
-        Collection<TcssVariableDeclaration> crossFileDecls =
-                VariableResolver.findDeclarationsCrossFile(variableName, getProject());
-        return crossFileDecls.isEmpty() ? null : crossFileDecls.iterator().next();
+        return declarations;
     }
 
-    private static class VariablePsiReference extends PsiReferenceBase<TcssVariableReference> {
+    private static class VariablePsiReference extends PsiPolyVariantReferenceBase<TcssVariableReference> {
+        private static final ResolveCache.PolyVariantResolver<VariablePsiReference> RESOLVER =
+                (ref, incompleteCode) -> ref.computeResults();
+
         private VariablePsiReference(@NotNull TcssVariableReference element) {
-            super(element, createRange(element));
+            super(element);
         }
 
-        private static TextRange createRange(@NotNull TcssVariableReference element) {
-            String text = element.getText();
-            if (text.startsWith("$") && text.length() > 1) {
-                return new TextRange(1, text.length());
-            }
-            return TextRange.from(0, Math.max(0, text.length()));
+        /**
+         * Computed on each call: the reference object outlives edits to the variable token.
+         */
+        @NotNull
+        @Override
+        public TextRange getRangeInElement() {
+            int length = myElement.getTextLength();
+            return length > 1 ? new TextRange(1, length) : TextRange.from(0, length);
         }
 
+        @Override
+        public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
+            return ResolveCache.getInstance(myElement.getProject())
+                    .resolveWithCaching(this, RESOLVER, false, incompleteCode);
+        }
+
+        /**
+         * The first candidate, so callers needing one declaration still get one when several files declare it.
+         */
         @Nullable
         @Override
         public PsiElement resolve() {
-            return myElement.resolveDeclaration();
+            ResolveResult[] results = multiResolve(false);
+            return results.length > 0 ? results[0].getElement() : null;
+        }
+
+        private ResolveResult @NotNull [] computeResults() {
+            PsiFile containingFile = myElement.getContainingFile();
+            String variableName = myElement.getVariableName();
+            if (containingFile == null || variableName.isEmpty()) {
+                return ResolveResult.EMPTY_ARRAY;
+            }
+
+            // Check local file first (shadowing)
+            TcssVariableDeclaration localDecl = VariableResolver.findDeclaration(variableName, containingFile);
+            if (localDecl != null) {
+                return new ResolveResult[]{new PsiElementResolveResult(localDecl)};
+            }
+
+            // Fall back to cross-file search, ordered by file path so the first result is stable
+            List<TcssVariableDeclaration> crossFileDecls = new ArrayList<>(
+                    VariableResolver.findDeclarationsCrossFile(variableName, myElement.getProject()));
+            crossFileDecls.sort(Comparator.comparing(VariablePsiReference::getPath));
+            return PsiElementResolveResult.createResults(crossFileDecls);
+        }
+
+        /**
+         * Path of the declaring file; for declarations in Python CSS strings, the Python file.
+         */
+        @NotNull
+        private static String getPath(@NotNull TcssVariableDeclaration declaration) {
+            PsiFile file = InjectedLanguageManager.getInstance(declaration.getProject())
+                    .getTopLevelFile(declaration);
+            VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+            return virtualFile != null ? virtualFile.getPath() : "";
         }
 
         @Override
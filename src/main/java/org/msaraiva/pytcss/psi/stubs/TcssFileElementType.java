@@ -0,0 +1,32 @@
+package org.msaraiva.pytcss.psi.stubs;
+
+import com.intellij.psi.stubs.PsiFileStub;
+import com.intellij.psi.tree.IStubFileElementType;
+import org.msaraiva.pytcss.TcssFile;
+import org.msaraiva.pytcss.TcssLanguage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * File element type for TCSS files. Makes the file stub-based, so variable declarations and
+ * rule-set selectors are available from the stub tree without building an AST.
+ *
+ * <p>Bump {@link #STUB_VERSION} whenever the parser or any stub format changes.
+ */
+public class TcssFileElementType extends IStubFileElementType<PsiFileStub<TcssFile>> {
+    private static final int STUB_VERSION = 1;
+
+    public TcssFileElementType() {
+        super("TCSS_FILE", TcssLanguage.INSTANCE);
+    }
+
+    @Override
+    public int getStubVersion() {
+        return STUB_VERSION;
+    }
+
+    @NotNull
+    @Override
+    public String getExternalId() {
+        return "tcss.FILE";
+    }
+}
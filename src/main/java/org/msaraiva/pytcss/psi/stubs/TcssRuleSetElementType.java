@@ -0,0 +1,82 @@
+package org.msaraiva.pytcss.psi.stubs;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import org.msaraiva.pytcss.TcssLanguage;
+import org.msaraiva.pytcss.index.TcssSelectorStubIndex;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stub element type for rule sets, including nested ones. Indexes each selector name in
+ * {@link TcssSelectorStubIndex}.
+ */
+public class TcssRuleSetElementType extends IStubElementType<TcssRuleSetStub, TcssRuleSet> {
+
+    public TcssRuleSetElementType(@NotNull @NonNls String debugName) {
+        super(debugName, TcssLanguage.INSTANCE);
+    }
+
+    @Override
+    public TcssRuleSet createPsi(@NotNull TcssRuleSetStub stub) {
+        return new TcssRuleSet(stub, this);
+    }
+
+    @NotNull
+    @Override
+    public TcssRuleSetStub createStub(@NotNull TcssRuleSet psi, StubElement<? extends PsiElement> parentStub) {
+        return new TcssRuleSetStub(parentStub, this, psi.getSelectorDisplayName(), psi.getSelectorNames());
+    }
+
+    @NotNull
+    @Override
+    public String getExternalId() {
+        return "tcss." + super.toString();
+    }
+
+    @Override
+    public void serialize(@NotNull TcssRuleSetStub stub, @NotNull StubOutputStream dataStream) throws IOException {
+        dataStream.writeName(stub.getDisplayName());
+        List<String> names = stub.getSelectorNames();
+        dataStream.writeVarInt(names.size());
+        for (String name : names) {
+            dataStream.writeName(name);
+        }
+    }
+
+    @NotNull
+    @Override
+    public TcssRuleSetStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
+        String displayName = dataStream.readNameString();
+        int count = dataStream.readVarInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = dataStream.readNameString();
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return new TcssRuleSetStub(parentStub, this, displayName != null ? displayName : "", names);
+    }
+
+    @Override
+    public void indexStub(@NotNull TcssRuleSetStub stub, @NotNull IndexSink sink) {
+        for (String name : stub.getSelectorNames()) {
+            sink.occurrence(TcssSelectorStubIndex.KEY, name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TcssElementType." + super.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package org.msaraiva.pytcss.psi.stubs;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Stub for a rule set: its selector display text and the individual selector names it uses.
+ */
+public class TcssRuleSetStub extends StubBase<TcssRuleSet> {
+    private final String displayName;
+    private final List<String> selectorNames;
+
+    public TcssRuleSetStub(StubElement<?> parent,
+                           @NotNull IStubElementType<?, ?> elementType,
+                           @NotNull String displayName,
+                           @NotNull List<String> selectorNames) {
+        super(parent, elementType);
+        this.displayName = displayName;
+        this.selectorNames = List.copyOf(selectorNames);
+    }
+
+    /**
+     * @return Selector list as displayed in the structure view, e.g. "Screen > .panel:hover, #main"
+     */
+    @NotNull
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return Type, class, ID and pseudo-class selectors as written, e.g. ["Screen", ".panel", ":hover", "#main"]
+     */
+    @NotNull
+    public List<String> getSelectorNames() {
+        return selectorNames;
+    }
+}
@@ -0,0 +1,74 @@
+package org.msaraiva.pytcss.psi.stubs;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import org.msaraiva.pytcss.TcssLanguage;
+import org.msaraiva.pytcss.index.TcssVariableStubIndex;
+import org.msaraiva.pytcss.psi.TcssPropertyValue;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Stub element type for variable declarations. Indexes each declaration by name in
+ * {@link TcssVariableStubIndex}.
+ */
+public class TcssVariableDeclarationElementType
+        extends IStubElementType<TcssVariableDeclarationStub, TcssVariableDeclaration> {
+
+    public TcssVariableDeclarationElementType(@NotNull @NonNls String debugName) {
+        super(debugName, TcssLanguage.INSTANCE);
+    }
+
+    @Override
+    public TcssVariableDeclaration createPsi(@NotNull TcssVariableDeclarationStub stub) {
+        return new TcssVariableDeclaration(stub, this);
+    }
+
+    @NotNull
+    @Override
+    public TcssVariableDeclarationStub createStub(@NotNull TcssVariableDeclaration psi,
+                                                  StubElement<? extends PsiElement> parentStub) {
+        TcssPropertyValue value = psi.getPropertyValue();
+        return new TcssVariableDeclarationStub(parentStub, this, psi.getVariableName(),
+                value != null ? value.getText().trim() : "");
+    }
+
+    @NotNull
+    @Override
+    public String getExternalId() {
+        return "tcss." + super.toString();
+    }
+
+    @Override
+    public void serialize(@NotNull TcssVariableDeclarationStub stub, @NotNull StubOutputStream dataStream) throws IOException {
+        dataStream.writeName(stub.getName());
+        dataStream.writeUTFFast(stub.getValueText());
+    }
+
+    @NotNull
+    @Override
+    public TcssVariableDeclarationStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
+        String name = dataStream.readNameString();
+        String valueText = dataStream.readUTFFast();
+        return new TcssVariableDeclarationStub(parentStub, this, name != null ? name : "", valueText);
+    }
+
+    @Override
+    public void indexStub(@NotNull TcssVariableDeclarationStub stub, @NotNull IndexSink sink) {
+        if (!stub.getName().isEmpty()) {
+            sink.occurrence(TcssVariableStubIndex.KEY, stub.getName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TcssElementType." + super.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.msaraiva.pytcss.psi.stubs;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stub for a variable declaration: the name (without $) and the raw value text.
+ */
+public class TcssVariableDeclarationStub extends StubBase<TcssVariableDeclaration> {
+    private final String name;
+    private final String valueText;
+    private volatile TcssVariableEntry valueEntry;  // Computed on first use
+
+    public TcssVariableDeclarationStub(StubElement<?> parent,
+                                       @NotNull IStubElementType<?, ?> elementType,
+                                       @NotNull String name,
+                                       @NotNull String valueText) {
+        super(parent, elementType);
+        this.name = name;
+        this.valueText = valueText;
+    }
+
+    /**
+     * @return Variable name without $, or empty string for an invalid declaration
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Value text as written, e.g. "#0066cc" or "$primary 50%"
+     */
+    @NotNull
+    public String getValueText() {
+        return valueText;
+    }
+
+    /**
+     * @return The value text classified by the lexer, with its literal color or color reference;
+     *         the offset is meaningless
+     */
+    @NotNull
+    public TcssVariableEntry getValueEntry() {
+        TcssVariableEntry entry = valueEntry;
+        if (entry == null) {
+            valueEntry = entry = TcssVariableEntry.create(0, valueText);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,484 @@
+package org.msaraiva.pytcss.python;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the TCSS strings of a Python file by scanning its text, without building Python PSI.
+ *
+ * <p>Recognizes the literals {@link PythonTcssLanguageInjector} injects into: a non-blank string, or
+ * implicitly concatenated strings, forming the whole value of an assignment to {@code CSS} or
+ * {@code DEFAULT_CSS} (annotated, chained or qualified targets included). Comments and other strings
+ * are skipped, so the names inside them never match. Escapes are decoded as Python does, each escape
+ * as a fragment of its own so decoded and host offsets line up within a fragment. F-strings are not
+ * TCSS.
+ *
+ * <p>Used by the indexers, where building Python PSI for every file mentioning CSS would dominate
+ * indexing time.
+ */
+public final class PythonCssStrings {
+    private PythonCssStrings() {
+    }
+
+    /**
+     * Find the TCSS strings of a Python file.
+     *
+     * @param text Python file text
+     * @return TCSS literals in file order; empty if the text does not mention CSS
+     */
+    @NotNull
+    public static List<Literal> find(@NotNull CharSequence text) {
+        if (!StringUtil.contains(text, "CSS")) {
+            return Collections.emptyList();
+        }
+
+        List<Literal> result = new ArrayList<>();
+        int n = text.length();
+        int depth = 0;
+        boolean statementStart = true;
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c == '#') {
+                i = skipComment(text, i);
+            } else if (c == '\n' || c == '\r') {
+                statementStart |= depth == 0;
+                i++;
+            } else if (c == ' ' || c == '\t' || c == '\f') {
+                i++;
+            } else if (c == '\\') {
+                i = skipLineContinuation(text, i);
+            } else if (stringStart(text, i) >= 0) {
+                i = skipString(text, i);
+                statementStart = false;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int next = statementStart && depth == 0 ? matchAssignment(text, i, result) : -1;
+                i = next >= 0 ? next : skipIdentifier(text, i);
+                statementStart = false;
+            } else {
+                if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if ((c == ')' || c == ']' || c == '}') && depth > 0) {
+                    depth--;
+                }
+                statementStart = c == ';' && depth == 0;
+                i++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Match {@code target [: annotation] = [target =]... "string"...} at a statement start.
+     *
+     * @return Offset after the literals if the statement assigns TCSS (added to {@code result}), else -1
+     */
+    private static int matchAssignment(@NotNull CharSequence text, int start, @NotNull List<Literal> result) {
+        int n = text.length();
+        boolean cssTarget = false;
+        boolean firstTarget = true;
+        int p = start;
+        while (true) {
+            // Target: a possibly qualified name, e.g. CSS or self.CSS
+            int nameStart = p;
+            int nameEnd = skipIdentifier(text, p);
+            while (nameEnd < n && text.charAt(nameEnd) == '.'
+                    && nameEnd + 1 < n && Character.isJavaIdentifierStart(text.charAt(nameEnd + 1))) {
+                nameStart = nameEnd + 1;
+                nameEnd = skipIdentifier(text, nameStart);
+            }
+            String name = text.subSequence(nameStart, nameEnd).toString();
+            cssTarget |= name.equals("CSS") || name.equals("DEFAULT_CSS");
+
+            p = skipSpaces(text, nameEnd);
+            if (firstTarget && p < n && text.charAt(p) == ':') {
+                p = skipAnnotation(text, p + 1);
+            }
+            if (p >= n || text.charAt(p) != '=' || (p + 1 < n && text.charAt(p + 1) == '=')) {
+                return -1;
+            }
+            p = skipSpaces(text, p + 1);
+            firstTarget = false;
+
+            if (p >= n) {
+                return -1;
+            }
+            if (stringStart(text, p) >= 0) {
+                break;
+            }
+            if (!Character.isJavaIdentifierStart(text.charAt(p))) {
+                return -1;
+            }
+        }
+        if (!cssTarget) {
+            return -1;
+        }
+
+        // The value: one or more adjacent string literals ending the statement
+        Literal.Builder literal = new Literal.Builder(p);
+        while (p < n && stringStart(text, p) >= 0) {
+            int end = skipString(text, p);
+            if (!literal.add(text, p, end)) {
+                return -1;  // F-string or unterminated
+            }
+            p = skipSpaces(text, end);
+        }
+        if (p < n && text.charAt(p) != '\n' && text.charAt(p) != '\r' && text.charAt(p) != '#' && text.charAt(p) != ';') {
+            return -1;  // Part of a larger expression
+        }
+        if (!literal.isBlank()) {
+            result.add(literal.build());
+        }
+        return p;
+    }
+
+    /**
+     * @return Offset of the opening quote if a string literal (with optional prefix) starts here, else -1
+     */
+    private static int stringStart(@NotNull CharSequence text, int i) {
+        int n = text.length();
+        int p = i;
+        while (p < n && p - i < 2 && "rRbBuUfF".indexOf(text.charAt(p)) >= 0) {
+            p++;
+        }
+        if (p < n && (text.charAt(p) == '"' || text.charAt(p) == '\'')) {
+            return i == 0 || !Character.isJavaIdentifierPart(text.charAt(i - 1)) || p == i ? p : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Offset after the string literal starting at {@code i}; at the line end if unterminated
+     */
+    private static int skipString(@NotNull CharSequence text, int i) {
+        int n = text.length();
+        int quoteAt = stringStart(text, i);
+        char quote = text.charAt(quoteAt);
+        boolean triple = quoteAt + 2 < n && text.charAt(quoteAt + 1) == quote && text.charAt(quoteAt + 2) == quote;
+        int p = quoteAt + (triple ? 3 : 1);
+        while (p < n) {
+            char c = text.charAt(p);
+            if (c == '\\') {
+                p += 2;  // Even in raw strings a backslash keeps the next quote in the string
+            } else if (c == quote && (!triple
+                    || (p + 2 < n && text.charAt(p + 1) == quote && text.charAt(p + 2) == quote))) {
+                return p + (triple ? 3 : 1);
+            } else if (!triple && (c == '\n' || c == '\r')) {
+                return p;
+            } else {
+                p++;
+            }
+        }
+        return n;
+    }
+
+    private static int skipIdentifier(@NotNull CharSequence text, int i) {
+        int p = i + 1;
+        while (p < text.length() && Character.isJavaIdentifierPart(text.charAt(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipComment(@NotNull CharSequence text, int i) {
+        int p = i;
+        while (p < text.length() && text.charAt(p) != '\n' && text.charAt(p) != '\r') {
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipLineContinuation(@NotNull CharSequence text, int i) {
+        int p = i + 1;
+        if (p < text.length() && text.charAt(p) == '\r') {
+            p++;
+        }
+        if (p < text.length() && text.charAt(p) == '\n') {
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Skip spaces and line continuations within a statement.
+     */
+    private static int skipSpaces(@NotNull CharSequence text, int i) {
+        int p = i;
+        while (p < text.length()) {
+            char c = text.charAt(p);
+            if (c == ' ' || c == '\t' || c == '\f') {
+                p++;
+            } else if (c == '\\' && p + 1 < text.length() && (text.charAt(p + 1) == '\n' || text.charAt(p + 1) == '\r')) {
+                p = skipLineContinuation(text, p);
+            } else {
+                break;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Skip an annotation up to the {@code =} of an annotated assignment.
+     *
+     * @return Offset of the {@code =}, or of the statement end if there is none
+     */
+    private static int skipAnnotation(@NotNull CharSequence text, int i) {
+        int n = text.length();
+        int depth = 0;
+        int p = i;
+        while (p < n) {
+            char c = text.charAt(p);
+            if (stringStart(text, p) >= 0) {
+                p = skipString(text, p);
+                continue;
+            }
+            if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if (depth <= 0 && (c == '=' || c == '\n' || c == '\r' || c == '#' || c == ';')) {
+                return p;
+            }
+            p = c == '\\' ? skipLineContinuation(text, p) : p + 1;
+        }
+        return p;
+    }
+
+    /**
+     * A TCSS string: its decoded text and the mapping of decoded offsets to the Python file.
+     */
+    public static final class Literal {
+        private final int startOffset;
+        private final String text;
+        private final int[] decodedStarts;
+        private final int[] hostStarts;
+
+        private Literal(int startOffset, @NotNull String text, @NotNull int[] decodedStarts, @NotNull int[] hostStarts) {
+            this.startOffset = startOffset;
+            this.text = text;
+            this.decodedStarts = decodedStarts;
+            this.hostStarts = hostStarts;
+        }
+
+        /**
+         * @return Offset of the literal (its first string prefix or quote) in the Python file
+         */
+        public int getStartOffset() {
+            return startOffset;
+        }
+
+        /**
+         * @return Decoded TCSS text of all the literal's strings, as injected
+         */
+        @NotNull
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Map an offset in {@link #getText()} to the Python file.
+         */
+        public int toHostOffset(int offset) {
+            // Fragments are never empty, so their decoded starts are strictly increasing
+            int i = Arrays.binarySearch(decodedStarts, offset);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return i < 0 ? startOffset : hostStarts[i] + (offset - decodedStarts[i]);
+        }
+
+        /**
+         * Accumulates the decoded fragments of adjacent string literals.
+         */
+        private static final class Builder {
+            private final int startOffset;
+            private final StringBuilder text = new StringBuilder();
+            private int[] decodedStarts = new int[8];
+            private int[] hostStarts = new int[8];
+            private int count;
+
+            private Builder(int startOffset) {
+                this.startOffset = startOffset;
+            }
+
+            /**
+             * Decode one string literal spanning {@code [start, end)}.
+             *
+             * @return false if the literal is an f-string or unterminated
+             */
+            private boolean add(@NotNull CharSequence source, int start, int end) {
+                int quoteAt = stringStart(source, start);
+                boolean raw = false;
+                boolean bytes = false;
+                for (int p = start; p < quoteAt; p++) {
+                    char prefix = Character.toLowerCase(source.charAt(p));
+                    if (prefix == 'f') {
+                        return false;
+                    }
+                    raw |= prefix == 'r';
+                    bytes |= prefix == 'b';
+                }
+                char quote = source.charAt(quoteAt);
+                int quoteLength = quoteAt + 2 < end && source.charAt(quoteAt + 1) == quote
+                        && source.charAt(quoteAt + 2) == quote && end - quoteAt >= 6 ? 3 : 1;
+                int bodyStart = quoteAt + quoteLength;
+                int bodyEnd = end - quoteLength;
+                if (bodyEnd < bodyStart || source.charAt(end - 1) != quote) {
+                    return false;
+                }
+
+                if (raw) {
+                    fragment(bodyStart, source.subSequence(bodyStart, bodyEnd));
+                    return true;
+                }
+                int plain = bodyStart;
+                int p = bodyStart;
+                while (p < bodyEnd) {
+                    if (source.charAt(p) != '\\' || p + 1 >= bodyEnd) {
+                        p++;
+                        continue;
+                    }
+                    if (p > plain) {
+                        fragment(plain, source.subSequence(plain, p));
+                    }
+                    p = escape(source, p, bodyEnd, bytes);
+                    plain = p;
+                }
+                if (bodyEnd > plain) {
+                    fragment(plain, source.subSequence(plain, bodyEnd));
+                }
+                return true;
+            }
+
+            /**
+             * Decode the escape at {@code p} into a fragment of its own.
+             *
+             * @return Offset after the escape
+             */
+            private int escape(@NotNull CharSequence source, int p, int bodyEnd, boolean bytes) {
+                char c = source.charAt(p + 1);
+                int end = p + 2;
+                String decoded;
+                switch (c) {
+                    case '\n':
+                        decoded = "";
+                        break;
+                    case '\r':
+                        end = end < bodyEnd && source.charAt(end) == '\n' ? end + 1 : end;
+                        decoded = "";
+                        break;
+                    case '\\':
+                    case '\'':
+                    case '"':
+                        decoded = String.valueOf(c);
+                        break;
+                    case 'a':
+                        decoded = "\u0007";
+                        break;
+                    case 'b':
+                        decoded = "\b";
+                        break;
+                    case 'f':
+                        decoded = "\f";
+                        break;
+                    case 'n':
+                        decoded = "\n";
+                        break;
+                    case 'r':
+                        decoded = "\r";
+                        break;
+                    case 't':
+                        decoded = "\t";
+                        break;
+                    case 'v':
+                        decoded = "\u000b";
+                        break;
+                    case 'x':
+                        decoded = hex(source, end, 2, bodyEnd);
+                        end = decoded != null ? end + 2 : end;
+                        break;
+                    case 'u':
+                        decoded = bytes ? null : hex(source, end, 4, bodyEnd);
+                        end = decoded != null ? end + 4 : end;
+                        break;
+                    case 'U':
+                        decoded = bytes ? null : hex(source, end, 8, bodyEnd);
+                        end = decoded != null ? end + 8 : end;
+                        break;
+                    case 'N':
+                        int close = bytes || end >= bodyEnd || source.charAt(end) != '{'
+                                ? -1 : StringUtil.indexOf(source, '}', end, bodyEnd);
+                        decoded = close > 0 ? namedCharacter(source.subSequence(end + 1, close).toString()) : null;
+                        end = decoded != null ? close + 1 : end;
+                        break;
+                    default:
+                        if (c >= '0' && c <= '7') {
+                            int value = 0;
+                            end = p + 1;
+                            while (end < bodyEnd && end < p + 4 && source.charAt(end) >= '0' && source.charAt(end) <= '7') {
+                                value = value * 8 + (source.charAt(end++) - '0');
+                            }
+                            decoded = String.valueOf((char) value);
+                        } else {
+                            decoded = null;
+                        }
+                        break;
+                }
+                // Unknown or malformed escapes keep the backslash, as Python does
+                fragment(p, decoded != null ? decoded : source.subSequence(p, end));
+                return end;
+            }
+
+            private static String hex(@NotNull CharSequence source, int start, int digits, int bodyEnd) {
+                if (start + digits > bodyEnd) {
+                    return null;
+                }
+                int value = 0;
+                for (int i = start; i < start + digits; i++) {
+                    int digit = Character.digit(source.charAt(i), 16);
+                    if (digit < 0) {
+                        return null;
+                    }
+                    value = value * 16 + digit;
+                }
+                return Character.isValidCodePoint(value) ? new String(Character.toChars(value)) : null;
+            }
+
+            private static String namedCharacter(@NotNull String name) {
+                try {
+                    return new String(Character.toChars(Character.codePointOf(name)));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+
+            private void fragment(int hostStart, @NotNull CharSequence decoded) {
+                if (decoded.length() == 0) {
+                    return;
+                }
+                if (count == decodedStarts.length) {
+                    decodedStarts = Arrays.copyOf(decodedStarts, count * 2);
+                    hostStarts = Arrays.copyOf(hostStarts, count * 2);
+                }
+                decodedStarts[count] = text.length();
+                hostStarts[count] = hostStart;
+                count++;
+                text.append(decoded);
+            }
+
+            private boolean isBlank() {
+                return StringUtil.isEmptyOrSpaces(text);
+            }
+
+            @NotNull
+            private Literal build() {
+                return new Literal(startOffset, text.toString(), Arrays.copyOf(decodedStarts, count), Arrays.copyOf(hostStarts, count));
+            }
+        }
+    }
+}
@@ -52,7 +52,14 @@ public class PythonTcssLanguageInjector implements MultiHostInjector {
         registrar.doneInjecting();
     }
 
-    private boolean isEligible(@NotNull PyStringLiteralExpression expression) {
+    /**
+     * Check whether a string literal is TCSS: a non-blank string assigned to {@code CSS} or {@code DEFAULT_CSS}.
+     * Indexers find the same strings by text with {@link PythonCssStrings}, which must agree with this check.
+     *
+     * @param expression String literal
+     * @return true if TCSS is injected into the literal
+     */
+    public static boolean isEligible(@NotNull PyStringLiteralExpression expression) {
         String value = expression.getStringValue();
         if (value == null || value.trim().isEmpty()) {
             return false;
@@ -79,7 +86,7 @@ public class PythonTcssLanguageInjector implements MultiHostInjector {
         return false;
     }
 
-    private PyAssignmentStatement findEnclosingAssignment(@NotNull PyStringLiteralExpression expression) {
+    private static PyAssignmentStatement findEnclosingAssignment(@NotNull PyStringLiteralExpression expression) {
         PsiElement parent = expression.getParent();
         while (parent != null && !(parent instanceof PyAssignmentStatement)) {
             parent = parent.getParent();
@@ -9,11 +9,8 @@ import com.intellij.usageView.UsageInfo;
 import org.msaraiva.pytcss.TcssElementFactory;
 import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
 import org.msaraiva.pytcss.psi.TcssVariableReference;
-import org.msaraiva.pytcss.util.VariableResolver;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
-
 /**
  * Ensures variable declaration renames also update all TCSS references.
  */
@@ -35,7 +32,8 @@ public class TcssVariableRenameProcessor extends RenamePsiElementProcessor {
         // Rename declaration token first
         declaration.setName(newName);
 
-        // Update collected usages (they should already be TcssVariableReference instances)
+        // Usages were collected before the write action by ReferencesSearch, which the usage index
+        // serves project-wide, so they already cover every reference
         for (UsageInfo usage : usages) {
             PsiElement usageElement = usage.getElement();
             if (usageElement instanceof TcssVariableReference) {
@@ -50,17 +48,6 @@ public class TcssVariableRenameProcessor extends RenamePsiElementProcessor {
             }
         }
 
-        // Catch stragglers: scan file for references resolving to this declaration
-        Collection<TcssVariableReference> extraRefs = VariableResolver.findReferences(declaration);
-        for (TcssVariableReference reference : extraRefs) {
-            if (!sanitized.equals(reference.getVariableName())) {
-                PsiElement replacement = TcssElementFactory.createVariableReference(project, sanitized);
-                if (replacement != null) {
-                    reference.replace(replacement);
-                }
-            }
-        }
-
         listener.elementRenamed(declaration);
     }
 }
@@ -0,0 +1,59 @@
+package org.msaraiva.pytcss.search;
+
+import com.intellij.lang.cacheBuilder.WordsScanner;
+import com.intellij.lang.findUsages.FindUsagesProvider;
+import com.intellij.psi.PsiElement;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Find Usages support for TCSS variables.
+ * Supplies the words scanner used to build the word index for .tcss files.
+ */
+public class TcssFindUsagesProvider implements FindUsagesProvider {
+    @Nullable
+    @Override
+    public WordsScanner getWordsScanner() {
+        return new TcssWordsScanner();
+    }
+
+    @Override
+    public boolean canFindUsagesFor(@NotNull PsiElement psiElement) {
+        return psiElement instanceof TcssVariableDeclaration
+                && !((TcssVariableDeclaration) psiElement).getVariableName().isEmpty();
+    }
+
+    @Nullable
+    @Override
+    public String getHelpId(@NotNull PsiElement psiElement) {
+        return null;
+    }
+
+    @NotNull
+    @Override
+    public String getType(@NotNull PsiElement element) {
+        return element instanceof TcssVariableDeclaration ? "variable" : "";
+    }
+
+    @NotNull
+    @Override
+    public String getDescriptiveName(@NotNull PsiElement element) {
+        return element instanceof TcssVariableDeclaration
+                ? ((TcssVariableDeclaration) element).getVariableNameWithPrefix()
+                : "";
+    }
+
+    @NotNull
+    @Override
+    public String getNodeText(@NotNull PsiElement element, boolean useFullName) {
+        if (!(element instanceof TcssVariableDeclaration)) {
+            return "";
+        }
+        TcssVariableDeclaration declaration = (TcssVariableDeclaration) element;
+        if (!useFullName) {
+            return declaration.getVariableNameWithPrefix();
+        }
+        return declaration.getVariableNameWithPrefix() + ": " + declaration.getValueText();
+    }
+}
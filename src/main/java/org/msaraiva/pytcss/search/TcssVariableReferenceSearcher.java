@@ -0,0 +1,68 @@
+package org.msaraiva.pytcss.search;
+
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import org.msaraiva.pytcss.index.TcssVariableUsageIndex;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.msaraiva.pytcss.psi.TcssVariableReference;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds references to TCSS variable declarations through {@link TcssVariableUsageIndex},
+ * so only files that use the variable (including Python {@code CSS}/{@code DEFAULT_CSS} strings) are visited.
+ */
+public class TcssVariableReferenceSearcher extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+
+    public TcssVariableReferenceSearcher() {
+        super(true);
+    }
+
+    @Override
+    public void processQuery(@NotNull ReferencesSearch.SearchParameters parameters,
+                             @NotNull Processor<? super PsiReference> consumer) {
+        PsiElement target = parameters.getElementToSearch();
+        if (!(target instanceof TcssVariableDeclaration)) {
+            return;
+        }
+
+        TcssVariableDeclaration declaration = (TcssVariableDeclaration) target;
+        String name = declaration.getVariableName();
+        if (name.isEmpty()) {
+            return;
+        }
+
+        SearchScope scope = parameters.getEffectiveSearchScope();
+        List<TcssVariableReference> candidates;
+        if (scope instanceof GlobalSearchScope) {
+            candidates = TcssVariableUsageIndex.findReferences(name, declaration.getProject(), (GlobalSearchScope) scope);
+        } else {
+            candidates = new ArrayList<>();
+            for (PsiElement element : ((LocalSearchScope) scope).getScope()) {
+                for (TcssVariableReference reference :
+                        PsiTreeUtil.findChildrenOfType(element, TcssVariableReference.class)) {
+                    if (name.equals(reference.getVariableName())) {
+                        candidates.add(reference);
+                    }
+                }
+            }
+        }
+
+        // Same name is not enough: a local declaration in the referencing file shadows this one
+        for (TcssVariableReference candidate : candidates) {
+            PsiReference reference = candidate.getReference();
+            if (reference != null && reference.isReferenceTo(declaration) && !consumer.process(reference)) {
+                return;
+            }
+        }
+    }
+}
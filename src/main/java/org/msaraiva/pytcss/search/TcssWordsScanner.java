@@ -0,0 +1,71 @@
+package org.msaraiva.pytcss.search;
+
+import com.intellij.lang.cacheBuilder.DefaultWordsScanner;
+import com.intellij.lang.cacheBuilder.VersionedWordsScanner;
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.Processor;
+import org.msaraiva.pytcss.TcssLexer;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lexer-backed words scanner for the platform word index.
+ *
+ * <p>Variable names are registered without their $, so a search for {@code primary} finds
+ * {@code $primary}. Selectors, property names and value identifiers are code words; the selector
+ * prefixes ({@code .}, {@code #}, {@code :}) are not word characters and are dropped. Names are split
+ * at hyphens, the same way the search splits the text it looks for.
+ */
+public class TcssWordsScanner extends VersionedWordsScanner {
+    @Override
+    public void processWords(@NotNull CharSequence fileText, @NotNull Processor<? super WordOccurrence> processor) {
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(fileText, 0, fileText.length(), 0);
+        WordOccurrence occurrence = new WordOccurrence(fileText, 0, 0, null);  // Reused for every word
+
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            int start = lexer.getTokenStart();
+            int end = lexer.getTokenEnd();
+            boolean proceed = true;
+
+            if (type == TcssTokenTypes.VARIABLE) {
+                // $ is a word character for the splitter, so start after it
+                proceed = DefaultWordsScanner.stripWords(processor, fileText, start + 1, end,
+                        WordOccurrence.Kind.CODE, occurrence, false);
+            } else if (isCodeWord(type)) {
+                proceed = DefaultWordsScanner.stripWords(processor, fileText, start, end,
+                        WordOccurrence.Kind.CODE, occurrence, false);
+            } else if (type == TcssTokenTypes.COMMENT) {
+                proceed = DefaultWordsScanner.stripWords(processor, fileText, start, end,
+                        WordOccurrence.Kind.COMMENTS, occurrence, false);
+            } else if (type == TcssTokenTypes.STRING) {
+                proceed = DefaultWordsScanner.stripWords(processor, fileText, start, end,
+                        WordOccurrence.Kind.LITERALS, occurrence, true);
+            }
+
+            if (!proceed) {
+                return;
+            }
+            lexer.advance();
+        }
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    private static boolean isCodeWord(@NotNull IElementType type) {
+        return type == TcssTokenTypes.PROPERTY_NAME ||
+               type == TcssTokenTypes.TYPE_SELECTOR ||
+               type == TcssTokenTypes.CLASS_SELECTOR ||
+               type == TcssTokenTypes.ID_SELECTOR ||
+               type == TcssTokenTypes.PSEUDO_CLASS ||
+               type == TcssTokenTypes.IDENTIFIER ||
+               type == TcssTokenTypes.COLOR_KEYWORD ||
+               type == TcssTokenTypes.COLOR_FUNCTION_NAME ||
+               type == TcssTokenTypes.INITIAL_KEYWORD;
+    }
+}
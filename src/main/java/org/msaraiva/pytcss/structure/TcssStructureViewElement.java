@@ -61,7 +61,7 @@ public class TcssStructureViewElement implements StructureViewTreeElement, Sorta
             }
         } else if (element instanceof TcssRuleSet) {
             TcssRuleSet ruleSet = (TcssRuleSet) element;
-            for (TcssRuleSet nested : PsiTreeUtil.getChildrenOfTypeAsList(ruleSet, TcssRuleSet.class)) {
+            for (TcssRuleSet nested : ruleSet.getNestedRuleSets()) {
                 children.add(new TcssStructureViewElement(nested));
             }
             for (TcssPropertyDeclaration declaration : ruleSet.getPropertyDeclarations()) {
@@ -0,0 +1,123 @@
+package org.msaraiva.pytcss.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, case-insensitive keyword lookup over character ranges.
+ *
+ * <p>Keywords are ASCII and are folded to lower case when the table is built. Lookups hash the
+ * requested range of a {@link CharSequence} in place and compare characters directly, so matching
+ * an identifier against the table allocates nothing. This makes it suitable for lexer hot paths,
+ * where the alternative is {@code subSequence().toString().toLowerCase()} per token.
+ *
+ * <p>The table uses open addressing with linear probing and is kept at most 25% full, so
+ * a miss usually costs one hash and one slot check.
+ */
+public final class KeywordTable {
+    private static final int NOT_FOUND = -1;
+
+    private final char[][] keys;
+    private final int[] ids;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Build a table from the given keywords. A keyword's id is its index in the list.
+     *
+     * @param keywords ASCII keywords; duplicates (ignoring case) keep the first id
+     */
+    public KeywordTable(@NotNull List<String> keywords) {
+        int capacity = Integer.highestOneBit(Math.max(4, keywords.size() * 4) - 1) << 1;
+        this.keys = new char[capacity][];
+        this.ids = new int[capacity];
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (int id = 0; id < keywords.size(); id++) {
+            char[] key = keywords.get(id).toLowerCase(Locale.ROOT).toCharArray();
+            int slot = hash(key, 0, key.length) & mask;
+            boolean duplicate = false;
+            while (keys[slot] != null) {
+                if (Arrays.equals(keys[slot], key)) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                keys[slot] = key;
+                ids[slot] = id;
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * Look up a range of characters, ignoring ASCII case.
+     *
+     * @param text  Text containing the candidate keyword
+     * @param start Start offset (inclusive)
+     * @param end   End offset (exclusive)
+     * @return Keyword id, or -1 if the range is not a keyword
+     */
+    public int get(@NotNull CharSequence text, int start, int end) {
+        int length = end - start;
+        int slot = hash(text, start, end) & mask;
+        char[] key;
+        while ((key = keys[slot]) != null) {
+            if (key.length == length && regionMatches(key, text, start)) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Check whether a range of characters is a keyword, ignoring ASCII case.
+     */
+    public boolean contains(@NotNull CharSequence text, int start, int end) {
+        return get(text, start, end) != NOT_FOUND;
+    }
+
+    /**
+     * @return Number of distinct keywords in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    private static boolean regionMatches(char[] key, CharSequence text, int start) {
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != toLowerAscii(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            h = (h ^ toLowerAscii(text.charAt(i))) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(char[] text, int start, int end) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            h = (h ^ text[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,213 @@
+package org.msaraiva.pytcss.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Precompiled "did you mean" lookup over a fixed set of names.
+ *
+ * <p>Names are stored case-insensitively in a BK-tree (a metric tree over edit distance), so a lookup
+ * only measures the few names whose distance to the input can be within the limit instead of the
+ * whole set. Each measurement is a two-row Levenshtein computation that gives up as soon as a row
+ * exceeds the limit the tree can still use. Lookups allocate only the two rows.
+ *
+ * <p>Among equally close names, the one added first wins.
+ */
+public final class SuggestionIndex {
+    /** Maximum edit distance of a suggestion. */
+    public static final int MAX_EDIT_DISTANCE = 2;
+
+    public static final SuggestionIndex EMPTY = new SuggestionIndex(new String[0], new String[0], new int[0],
+            new int[0], new int[0], new int[0], 0);
+
+    // Node arrays; node 0 is the root. Children of a node are linked through nextSibling.
+    private final String[] keys;
+    private final String[] values;
+    private final int[] edge;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] maxChildEdge;
+    private final int maxKeyLength;
+
+    private SuggestionIndex(String[] keys, String[] values, int[] edge, int[] firstChild, int[] nextSibling,
+                            int[] maxChildEdge, int maxKeyLength) {
+        this.keys = keys;
+        this.values = values;
+        this.edge = edge;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.maxChildEdge = maxChildEdge;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Build an index. Names differing only in case are kept once (the first one).
+     *
+     * @param names Candidate names, returned as given by {@link #suggest}
+     * @return Immutable index
+     */
+    @NotNull
+    public static SuggestionIndex of(@NotNull Collection<String> names) {
+        int capacity = names.size();
+        String[] keys = new String[capacity];
+        String[] values = new String[capacity];
+        int[] edge = new int[capacity];
+        int[] firstChild = new int[capacity];
+        int[] nextSibling = new int[capacity];
+        int[] maxChildEdge = new int[capacity];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+
+        int count = 0;
+        int maxKeyLength = 0;
+        for (String name : names) {
+            String key = name.toLowerCase(Locale.US);
+            if (count > 0 && !insert(keys, edge, firstChild, nextSibling, maxChildEdge, key, count)) {
+                continue;  // Same name in another case
+            }
+            keys[count] = key;
+            values[count] = name;
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+            count++;
+        }
+
+        if (count == 0) {
+            return EMPTY;
+        }
+        return new SuggestionIndex(Arrays.copyOf(keys, count), Arrays.copyOf(values, count), Arrays.copyOf(edge, count),
+                Arrays.copyOf(firstChild, count), Arrays.copyOf(nextSibling, count),
+                Arrays.copyOf(maxChildEdge, count), maxKeyLength);
+    }
+
+    /**
+     * Link node {@code id} under the existing tree.
+     *
+     * @return false if the key is already present
+     */
+    private static boolean insert(String[] keys, int[] edge, int[] firstChild, int[] nextSibling, int[] maxChildEdge,
+                                  @NotNull String key, int id) {
+        int node = 0;
+        while (true) {
+            int distance = distance(key, keys[node], Integer.MAX_VALUE);
+            if (distance == 0) {
+                return false;
+            }
+            int child = firstChild[node];
+            while (child >= 0 && edge[child] != distance) {
+                child = nextSibling[child];
+            }
+            if (child < 0) {
+                edge[id] = distance;
+                nextSibling[id] = firstChild[node];
+                firstChild[node] = id;
+                maxChildEdge[node] = Math.max(maxChildEdge[node], distance);
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Find the closest name within {@link #MAX_EDIT_DISTANCE}, ignoring case.
+     *
+     * @param input Unknown name
+     * @return Closest name as it was added, or null if none is close enough
+     */
+    @Nullable
+    public String suggest(@NotNull String input) {
+        if (keys.length == 0) {
+            return null;
+        }
+        String query = input.toLowerCase(Locale.US);
+        if (query.length() > maxKeyLength + MAX_EDIT_DISTANCE) {
+            return null;
+        }
+
+        int[] best = {MAX_EDIT_DISTANCE + 1, Integer.MAX_VALUE};  // distance, node id
+        int[] rows = new int[2 * (query.length() + 1)];
+        search(0, query, rows, best);
+        return best[1] != Integer.MAX_VALUE ? values[best[1]] : null;
+    }
+
+    private void search(int node, @NotNull String query, int[] rows, int[] best) {
+        // Exact up to the largest distance that can still lead to a close child
+        int limit = Math.max(best[0], MAX_EDIT_DISTANCE) + maxChildEdge[node];
+        int distance = boundedDistance(query, keys[node], limit, rows);
+
+        if (distance <= MAX_EDIT_DISTANCE && (distance < best[0] || (distance == best[0] && node < best[1]))) {
+            best[0] = distance;
+            best[1] = node;
+        }
+        if (distance > limit) {
+            return;  // No child can be within the bound
+        }
+
+        // Triangle inequality: only children whose edge is within MAX_EDIT_DISTANCE of this distance
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            if (Math.abs(edge[child] - distance) <= MAX_EDIT_DISTANCE) {
+                search(child, query, rows, best);
+            }
+        }
+    }
+
+    /**
+     * Levenshtein distance of two strings, computed only as far as {@code limit}.
+     *
+     * @param a     First string
+     * @param b     Second string
+     * @param limit Largest distance of interest
+     * @return Exact distance if it is at most {@code limit}, otherwise {@code limit + 1}
+     */
+    public static int distance(@NotNull String a, @NotNull String b, int limit) {
+        return boundedDistance(a, b, limit, new int[2 * (a.length() + 1)]);
+    }
+
+    /**
+     * Two-row Levenshtein distance with early exit.
+     *
+     * @param a     First string; {@code rows} holds two rows of {@code a.length() + 1}
+     * @param b     Second string
+     * @param limit Largest distance of interest
+     * @param rows  Scratch space of at least {@code 2 * (a.length() + 1)} ints
+     * @return Exact distance if it is at most {@code limit}, otherwise {@code limit + 1}
+     */
+    private static int boundedDistance(@NotNull String a, @NotNull String b, int limit, int[] rows) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+        if (a.equals(b)) {
+            return 0;
+        }
+
+        int prev = 0;
+        int cur = n + 1;
+        for (int i = 0; i <= n; i++) {
+            rows[prev + i] = i;
+        }
+        for (int j = 1; j <= m; j++) {
+            char bj = b.charAt(j - 1);
+            rows[cur] = j;
+            int rowMin = j;
+            for (int i = 1; i <= n; i++) {
+                int cost = a.charAt(i - 1) == bj ? 0 : 1;
+                int value = Math.min(Math.min(rows[cur + i - 1] + 1, rows[prev + i] + 1), rows[prev + i - 1] + cost);
+                rows[cur + i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        int result = rows[prev + n];
+        return result <= limit ? result : limit + 1;
+    }
+}
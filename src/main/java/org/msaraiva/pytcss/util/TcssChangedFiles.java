@@ -0,0 +1,175 @@
+package org.msaraiva.pytcss.util;
+
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.util.messages.MessageBusConnection;
+import com.jetbrains.python.PythonFileType;
+import org.msaraiva.pytcss.TcssFileType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the TCSS and Python files changed since a project model last caught up, so the model
+ * re-reads only those files instead of walking every candidate file on each edit.
+ *
+ * <p>Files are reported by PSI changes (including edits to TCSS injected into Python strings, which are
+ * reported against the host file) and by VFS events. Directory events and root changes can affect
+ * files without per-file events, so they request a full rescan. A new instance starts with a full
+ * rescan pending.
+ */
+public final class TcssChangedFiles {
+    private final Set<VirtualFile> changed = new HashSet<>();
+    private boolean rescanAll = true;
+    private volatile boolean pending = true;
+
+    /**
+     * @param project Project whose files are tracked
+     * @param parent  Disposable that unregisters the listeners
+     */
+    public TcssChangedFiles(@NotNull Project project, @NotNull Disposable parent) {
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(project, event.getFile());
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(project, event.getFile());
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(project, event.getFile());
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(project, event.getFile());
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                psiChanged(project, event.getFile());
+            }
+        }, parent);
+
+        MessageBusConnection connection = project.getMessageBus().connect(parent);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+                for (VFileEvent event : events) {
+                    if (event instanceof VFilePropertyChangeEvent && !((VFilePropertyChangeEvent) event).isRename()) {
+                        continue;
+                    }
+                    VirtualFile file = event.getFile();
+                    if (file == null) {
+                        markAll();
+                    } else if (file.isDirectory()) {
+                        // Deleted directories can no longer be checked against the project content
+                        if (!file.isValid() || fileIndex.isInContent(file)) {
+                            markAll();
+                        }
+                    } else if (event instanceof VFilePropertyChangeEvent || isTracked(file.getFileType())) {
+                        mark(file);  // A rename may also change the file type
+                    }
+                }
+            }
+        });
+        connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                markAll();
+            }
+        });
+    }
+
+    /**
+     * @return true if files changed since the last {@link #drain()}; a volatile read
+     */
+    public boolean hasChanges() {
+        return pending;
+    }
+
+    /**
+     * Take the files changed since the last call. Pass them back to {@link #restore} if they could
+     * not be processed.
+     *
+     * @return The changed files, or null if every candidate file must be re-read
+     */
+    @Nullable
+    public synchronized Set<VirtualFile> drain() {
+        Set<VirtualFile> result = rescanAll ? null : new HashSet<>(changed);
+        changed.clear();
+        rescanAll = false;
+        pending = false;
+        return result;
+    }
+
+    /**
+     * Report files from {@link #drain()} as changed again, e.g. after processing was canceled.
+     *
+     * @param files Files returned by {@link #drain()}
+     */
+    public void restore(@Nullable Collection<VirtualFile> files) {
+        if (files == null) {
+            markAll();
+            return;
+        }
+        synchronized (this) {
+            changed.addAll(files);
+            pending = true;
+        }
+    }
+
+    /**
+     * @return true for file types that can contribute TCSS: TCSS files and Python files
+     */
+    public static boolean isTracked(@NotNull FileType fileType) {
+        return fileType == TcssFileType.INSTANCE || fileType == PythonFileType.INSTANCE;
+    }
+
+    private void psiChanged(@NotNull Project project, @Nullable PsiFile file) {
+        if (file == null) {
+            return;  // Directory-level changes also arrive as VFS events
+        }
+        PsiFile host = InjectedLanguageManager.getInstance(project).getTopLevelFile(file);
+        VirtualFile virtualFile = host != null ? host.getVirtualFile() : null;
+        if (virtualFile != null && isTracked(virtualFile.getFileType())) {
+            mark(virtualFile);
+        }
+    }
+
+    private synchronized void mark(@NotNull VirtualFile file) {
+        if (!rescanAll) {
+            changed.add(file);
+        }
+        pending = true;
+    }
+
+    private synchronized void markAll() {
+        changed.clear();
+        rescanAll = true;
+        pending = true;
+    }
+}
@@ -0,0 +1,251 @@
+package org.msaraiva.pytcss.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.LowMemoryWatcher;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+import org.msaraiva.pytcss.index.TcssVariableIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Color;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project-level cache of project-wide variable color resolution.
+ *
+ * <p>Maps a variable name to its resolved ARGB color, or to {@link #UNRESOLVED} / {@link #CYCLIC}.
+ * Resolution is answered from {@link TcssVariableIndex} only:
+ * <ul>
+ *   <li>Declaring files are tried in path order; the first one that yields a color wins</li>
+ *   <li>A reference is looked up in the declaring file first, then project-wide (through this cache)</li>
+ *   <li>Chains longer than {@link #MAX_DEPTH} are unresolved; chains that loop back are cyclic</li>
+ * </ul>
+ *
+ * <p>The cache holds at most {@link #MAX_ENTRIES} names (least recently used are evicted), is cleared
+ * whenever TCSS changes, including TCSS in Python strings ({@link TcssModificationTracker}), and is dropped entirely when {@link LowMemoryWatcher} reports memory
+ * pressure. Hit and miss counters are exposed for diagnostics.
+ */
+public final class TcssColorResolutionCache implements Disposable {
+    /**
+     * Result for names that are undefined, not colors, or whose chain is too deep.
+     */
+    public static final long UNRESOLVED = -1L;
+
+    /**
+     * Result for names whose chain loops back to itself.
+     */
+    public static final long CYCLIC = -2L;
+
+    private static final int MAX_ENTRIES = 2048;
+    private static final int MAX_DEPTH = 10;
+
+    private final Project project;
+    private final ModificationTracker tracker;
+    private final Map<String, Long> results = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private long trackedStamp = -1;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TcssColorResolutionCache(@NotNull Project project) {
+        this.project = project;
+        this.tracker = TcssModificationTracker.getInstance(project);
+        LowMemoryWatcher.register(this::clear, this);
+    }
+
+    @NotNull
+    public static TcssColorResolutionCache getInstance(@NotNull Project project) {
+        return project.getService(TcssColorResolutionCache.class);
+    }
+
+    /**
+     * Resolve a variable to a color project-wide.
+     *
+     * @param variableName Variable name (without $)
+     * @return Resolved color, or null if unresolved or cyclic
+     */
+    @Nullable
+    public Color resolveColor(@NotNull String variableName) {
+        long result = resolve(variableName);
+        return isColor(result) ? new Color((int) result, true) : null;
+    }
+
+    /**
+     * Resolve a variable to a packed result project-wide.
+     *
+     * @param variableName Variable name (without $)
+     * @return ARGB color in the low 32 bits, or {@link #UNRESOLVED} / {@link #CYCLIC}
+     */
+    public long resolve(@NotNull String variableName) {
+        if (variableName.isEmpty()) {
+            return UNRESOLVED;
+        }
+        return resolve(variableName, new Resolution());
+    }
+
+    /**
+     * @return true if a packed result is a color rather than {@link #UNRESOLVED} / {@link #CYCLIC}
+     */
+    public static boolean isColor(long result) {
+        return result >= 0;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of cached names
+     */
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * Drop all cached results. Counters are kept.
+     */
+    public void clear() {
+        synchronized (results) {
+            results.clear();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    private long resolve(@NotNull String variableName, @NotNull Resolution resolution) {
+        Long cached = lookup(variableName);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        int contextHitsBefore = resolution.contextHits;
+        boolean topLevel = resolution.inProgress.isEmpty();
+        long result = compute(variableName, resolution);
+
+        // Results that hit an in-progress name or the depth limit depend on the caller's chain
+        if (topLevel || resolution.contextHits == contextHitsBefore) {
+            store(variableName, result);
+        }
+        return result;
+    }
+
+    private long compute(@NotNull String variableName, @NotNull Resolution resolution) {
+        if (resolution.inProgress.contains(variableName)) {
+            resolution.contextHits++;
+            return CYCLIC;
+        }
+        if (resolution.inProgress.size() >= MAX_DEPTH) {
+            resolution.contextHits++;
+            return UNRESOLVED;
+        }
+
+        resolution.inProgress.add(variableName);
+        try {
+            long result = UNRESOLVED;
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            for (Map.Entry<VirtualFile, TcssVariableEntry> declaring : TcssVariableIndex.getEntries(variableName, scope).entrySet()) {
+                long fileResult = resolveEntry(variableName, declaring.getValue(), declaring.getKey(), resolution);
+                if (isColor(fileResult)) {
+                    return fileResult;
+                }
+                if (fileResult == CYCLIC) {
+                    result = CYCLIC;
+                }
+            }
+            return result;
+        } finally {
+            resolution.inProgress.remove(variableName);
+        }
+    }
+
+    /**
+     * Follow a declaration's chain within its file, continuing project-wide for names the file
+     * does not declare.
+     */
+    private long resolveEntry(@NotNull String variableName,
+                              @NotNull TcssVariableEntry entry,
+                              @NotNull VirtualFile file,
+                              @NotNull Resolution resolution) {
+        Map<String, TcssVariableEntry> fileEntries = null;
+        Set<String> visited = new HashSet<>();
+        visited.add(variableName);
+
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            if (entry.hasColor()) {
+                return entry.getArgb() & 0xFFFFFFFFL;
+            }
+            String reference = entry.getColorReference();
+            if (reference == null) {
+                return UNRESOLVED;  // Not a color
+            }
+            if (!visited.add(reference)) {
+                return CYCLIC;
+            }
+
+            if (fileEntries == null) {
+                fileEntries = TcssVariableIndex.getFileEntries(file, project);
+            }
+            TcssVariableEntry local = fileEntries.get(reference);
+            if (local == null) {
+                // Not declared in this file: resolve project-wide
+                return resolve(reference, resolution);
+            }
+            entry = local;
+        }
+        return UNRESOLVED;
+    }
+
+    @Nullable
+    private Long lookup(@NotNull String variableName) {
+        synchronized (results) {
+            long stamp = tracker.getModificationCount();
+            if (stamp != trackedStamp) {
+                results.clear();
+                trackedStamp = stamp;
+                return null;
+            }
+            return results.get(variableName);
+        }
+    }
+
+    private void store(@NotNull String variableName, long result) {
+        synchronized (results) {
+            // Skip results computed against a stale snapshot
+            if (tracker.getModificationCount() == trackedStamp) {
+                results.put(variableName, result);
+            }
+        }
+    }
+
+    /**
+     * State of one top-level resolution: names being resolved and how many results depended on them.
+     */
+    private static final class Resolution {
+        private final Set<String> inProgress = new HashSet<>();
+        private int contextHits;
+    }
+}
@@ -0,0 +1,168 @@
+package org.msaraiva.pytcss.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.msaraiva.pytcss.index.TcssVariableIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A project model compiled from per-file data, re-reading only the files {@link TcssChangedFiles} reports.
+ *
+ * <p>The per-file data and the compiled result are one immutable state. An update drains the changed
+ * files, reads them from the indexes and compiles a new state without holding any lock, then publishes
+ * it with a compare-and-set. Callers arriving meanwhile get the previous result instead of waiting; if
+ * another update published first, the drained files are reported as changed again and picked up by the
+ * next query.
+ *
+ * @param <D> Data read from one file; must implement {@code equals}
+ * @param <S> Compiled result, immutable
+ */
+public final class TcssFileModel<D, S> {
+    private final Project project;
+    private final TcssChangedFiles changes;
+    private final Function<VirtualFile, D> reader;
+    private final Compiler<D, S> compiler;
+    private final State<D, S> initial;
+    private final AtomicReference<State<D, S>> state;
+
+    /**
+     * @param project  Project whose TCSS files and Python CSS strings are read
+     * @param parent   Disposable that unregisters the change listeners
+     * @param reader   Reads one file's data from the indexes; returns null if the file contributes nothing
+     * @param compiler Folds changed file data into a new result
+     * @param empty    Result for a project without data
+     */
+    public TcssFileModel(@NotNull Project project,
+                         @NotNull Disposable parent,
+                         @NotNull Function<VirtualFile, D> reader,
+                         @NotNull Compiler<D, S> compiler,
+                         @NotNull S empty) {
+        this.project = project;
+        this.changes = new TcssChangedFiles(project, parent);
+        this.reader = reader;
+        this.compiler = compiler;
+        this.initial = new State<>(Collections.emptyMap(), empty);
+        this.state = new AtomicReference<>(initial);
+    }
+
+    /**
+     * @return The result, brought up to date with the files changed since the last query
+     */
+    @NotNull
+    public S get() {
+        return get(result -> false);
+    }
+
+    /**
+     * @param stale Tells whether a result must be recompiled even if no file changed
+     * @return The result, brought up to date with the files changed since the last query
+     */
+    @NotNull
+    public S get(@NotNull Predicate<? super S> stale) {
+        State<D, S> base = state.get();
+        boolean recompile = stale.test(base.result);
+        if (!changes.hasChanges() && !recompile) {
+            return base.result;
+        }
+
+        Set<VirtualFile> changed = changes.hasChanges() ? changes.drain() : Collections.emptySet();
+        try {
+            Map<VirtualFile, D> files = new HashMap<>(base.files);
+            Map<VirtualFile, D> before = new HashMap<>();
+            if (changed == null) {
+                Set<VirtualFile> live = new HashSet<>(TcssVariableIndex.getCandidateFiles(project));
+                for (VirtualFile file : live) {
+                    reread(file, files, before);
+                }
+                for (VirtualFile file : new ArrayList<>(files.keySet())) {
+                    if (!live.contains(file)) {
+                        before.put(file, files.remove(file));
+                    }
+                }
+            } else {
+                GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+                for (VirtualFile file : changed) {
+                    if (file.isValid() && TcssChangedFiles.isTracked(file.getFileType()) && scope.contains(file)) {
+                        reread(file, files, before);
+                    } else if (files.containsKey(file)) {
+                        before.put(file, files.remove(file));
+                    }
+                }
+            }
+            if (before.isEmpty() && !recompile) {
+                return base.result;
+            }
+
+            Map<VirtualFile, D> published = Collections.unmodifiableMap(files);
+            State<D, S> next = new State<>(published, compiler.compile(base.result, published, before));
+            if (state.compareAndSet(base, next)) {
+                return next.result;
+            }
+            changes.restore(changed);  // Another update published first: retry on the next query
+            return state.get().result;
+        } catch (RuntimeException e) {
+            changes.restore(changed);  // E.g. canceled or indexes not ready: retry on the next query
+            throw e;
+        }
+    }
+
+    /**
+     * Drop all data; it is re-read on the next query.
+     */
+    public void reset() {
+        state.set(initial);
+        changes.restore(null);
+    }
+
+    private void reread(@NotNull VirtualFile file, @NotNull Map<VirtualFile, D> files, @NotNull Map<VirtualFile, D> before) {
+        D previous = files.get(file);
+        D current = reader.apply(file);
+        if (current != null ? current.equals(previous) : previous == null) {
+            return;
+        }
+        if (current != null) {
+            files.put(file, current);
+        } else {
+            files.remove(file);
+        }
+        before.put(file, previous);
+    }
+
+    /**
+     * Folds changed file data into a new result.
+     */
+    @FunctionalInterface
+    public interface Compiler<D, S> {
+        /**
+         * @param previous Result before the change
+         * @param files    Data of every contributing file, after the change; unmodifiable
+         * @param before   Changed files → their data before the change (null if they contributed nothing);
+         *                 their data after the change is in {@code files}. Empty if only a recompile was requested
+         * @return The new result
+         */
+        @NotNull
+        S compile(@NotNull S previous, @NotNull Map<VirtualFile, D> files, @NotNull Map<VirtualFile, D> before);
+    }
+
+    private static final class State<D, S> {
+        private final Map<VirtualFile, D> files;
+        private final S result;
+
+        private State(@NotNull Map<VirtualFile, D> files, @NotNull S result) {
+            this.files = files;
+            this.result = result;
+        }
+    }
+}
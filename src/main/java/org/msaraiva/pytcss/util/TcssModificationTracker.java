@@ -0,0 +1,35 @@
+package org.msaraiva.pytcss.util;
+
+import com.intellij.lang.Language;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.python.PythonLanguage;
+import org.msaraiva.pytcss.TcssLanguage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Modification tracker for data derived from TCSS wherever it is written: {@code .tcss} files and the
+ * {@code CSS}/{@code DEFAULT_CSS} strings of Python files.
+ *
+ * <p>Edits to injected TCSS change the host Python file, so a TCSS-only tracker misses them; this one
+ * also counts Python PSI changes. Use it instead of {@code forLanguage(TcssLanguage.INSTANCE)} for caches
+ * that read the variable indexes.
+ */
+public final class TcssModificationTracker {
+    private TcssModificationTracker() {
+    }
+
+    /**
+     * @param project Current project
+     * @return Tracker counting PSI changes in TCSS and Python files
+     */
+    @NotNull
+    public static ModificationTracker getInstance(@NotNull Project project) {
+        return PsiModificationTracker.getInstance(project).forLanguages(TcssModificationTracker::isTracked);
+    }
+
+    private static boolean isTracked(@NotNull Language language) {
+        return language.isKindOf(TcssLanguage.INSTANCE) || language.isKindOf(PythonLanguage.getInstance());
+    }
+}
@@ -0,0 +1,97 @@
+package org.msaraiva.pytcss.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.LowMemoryWatcher;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.msaraiva.pytcss.completion.TcssVariableCompletionModel;
+import org.msaraiva.pytcss.index.TcssValueUsageIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Project-level usage counts of variables and value words, for completion ranking.
+ *
+ * <p>Word counts come from {@link TcssValueUsageIndex}, per file, kept by a {@link TcssFileModel}: an edit
+ * subtracts the changed file's old counts from an immutable totals map and adds its new ones, so a
+ * ranking query is a map lookup. Variable counts are the reference counts of
+ * {@link TcssVariableCompletionModel}, which reads {@link org.msaraiva.pytcss.index.TcssVariableUsageIndex}.
+ * Everything is dropped and re-read when {@link LowMemoryWatcher} reports memory pressure.
+ */
+public final class TcssUsageStatistics implements Disposable {
+    private final Project project;
+    private final TcssFileModel<Map<String, Integer>, Map<String, Integer>> model;
+
+    public TcssUsageStatistics(@NotNull Project project) {
+        this.project = project;
+        this.model = new TcssFileModel<>(project, this, this::readFile, TcssUsageStatistics::compile, Map.of());
+        LowMemoryWatcher.register(this::clear, this);
+    }
+
+    @NotNull
+    public static TcssUsageStatistics getInstance(@NotNull Project project) {
+        return project.getService(TcssUsageStatistics.class);
+    }
+
+    /**
+     * @param variableName Variable name (without $)
+     * @return Number of references to the variable in the project
+     */
+    public int getVariableCount(@NotNull String variableName) {
+        return variableName.isEmpty() ? 0 : TcssVariableCompletionModel.getInstance(project).getUsageCount(variableName);
+    }
+
+    /**
+     * @param word Enum value, named color or keyword (case-insensitive)
+     * @return Number of times the word is used in property or variable values in the project
+     */
+    public int getWordCount(@NotNull String word) {
+        return word.isEmpty() ? 0 : model.get().getOrDefault(word.toLowerCase(Locale.US), 0);
+    }
+
+    /**
+     * Drop all counts; they are re-read on the next query.
+     */
+    public void clear() {
+        model.reset();
+    }
+
+    @Override
+    public void dispose() {
+        // The change and low memory listeners are registered with this service as parent
+    }
+
+    @Nullable
+    private Map<String, Integer> readFile(@NotNull VirtualFile file) {
+        Map<String, Integer> counts = TcssValueUsageIndex.getFileCounts(file, project);
+        return counts.isEmpty() ? null : counts;
+    }
+
+    /**
+     * Move the totals from the changed files' old counts to their new ones.
+     */
+    @NotNull
+    private static Map<String, Integer> compile(@NotNull Map<String, Integer> previous,
+                                                @NotNull Map<VirtualFile, Map<String, Integer>> files,
+                                                @NotNull Map<VirtualFile, Map<String, Integer>> before) {
+        Map<String, Integer> totals = new HashMap<>(previous);
+        for (Map.Entry<VirtualFile, Map<String, Integer>> change : before.entrySet()) {
+            if (change.getValue() != null) {
+                change.getValue().forEach((word, count) -> totals.computeIfPresent(word, (k, total) -> {
+                    int left = total - count;
+                    return left > 0 ? left : null;
+                }));
+            }
+            Map<String, Integer> current = files.get(change.getKey());
+            if (current != null) {
+                current.forEach((word, count) -> totals.merge(word, count, Integer::sum));
+            }
+        }
+        return Collections.unmodifiableMap(totals);
+    }
+}
@@ -0,0 +1,477 @@
+package org.msaraiva.pytcss.util;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+import org.msaraiva.pytcss.index.TcssVariableIndex;
+import org.msaraiva.pytcss.index.TcssVariableScanner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Project-wide dependency graph of TCSS variables.
+ *
+ * <p>Nodes are variable names with int ids; an edge {@code a → b} means a top-level declaration of
+ * {@code $a} references {@code $b} anywhere in its value. Declarations come from
+ * {@link TcssVariableIndex}, so no PSI is loaded.
+ *
+ * <p>Each file's declarations and edges are kept separately by a {@link TcssFileModel} and re-read only
+ * when {@link TcssChangedFiles} reports the file as changed, so an edit costs one file read rather than a
+ * walk over all project files. After an update the per-file edges are numbered and compiled into compact
+ * forward and reverse adjacency arrays, and strongly connected components are computed once (Tarjan), so
+ * queries are array lookups:
+ * <ul>
+ *   <li>{@link #isDeclared} / {@link #getDeclaringFiles} - resolve a name to its declarations</li>
+ *   <li>{@link #getDependents} / {@link #getTransitiveDependents} - who references a name</li>
+ *   <li>{@link #isInCycle} / {@link #isInSameCycle} - circular references</li>
+ * </ul>
+ *
+ * <p>Updates read the index without holding a lock; queries made during an update see the previous graph.
+ *
+ * <p>Textual substitutes variables textually, so any reference cycle is an error, not only cycles
+ * between color values.
+ */
+public final class TcssVariableGraph implements Disposable {
+    private final Project project;
+    private final TcssFileModel<FileEdges, Snapshot> model;
+
+    public TcssVariableGraph(@NotNull Project project) {
+        this.project = project;
+        this.model = new TcssFileModel<>(project, this, this::readFile,
+                (previous, files, before) -> compile(files), Snapshot.EMPTY);
+    }
+
+    @NotNull
+    public static TcssVariableGraph getInstance(@NotNull Project project) {
+        return project.getService(TcssVariableGraph.class);
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return true if any TCSS file in the project declares the variable
+     */
+    public boolean isDeclared(@NotNull String name) {
+        Snapshot s = update();
+        int id = s.id(name);
+        return id >= 0 && s.declOffsets[id + 1] > s.declOffsets[id];
+    }
+
+    /**
+     * Check many names against one snapshot of the graph.
+     *
+     * @param names Variable names (without $)
+     * @return The names no TCSS file in the project declares, in iteration order
+     */
+    @NotNull
+    public Set<String> getUndeclared(@NotNull Collection<String> names) {
+        Snapshot s = update();
+        Set<String> result = new LinkedHashSet<>();
+        for (String name : names) {
+            int id = s.id(name);
+            if (id < 0 || s.declOffsets[id + 1] == s.declOffsets[id]) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the closest declared variable name for a typo.
+     *
+     * @param name Unknown variable name (without $)
+     * @return Closest declared name within two edits, or null
+     */
+    @Nullable
+    public String getSuggestion(@NotNull String name) {
+        return update().suggestions().suggest(name);
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return Files declaring the variable, ordered by path
+     */
+    @NotNull
+    public List<VirtualFile> getDeclaringFiles(@NotNull String name) {
+        Snapshot s = update();
+        int id = s.id(name);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(s.declFiles).subList(s.declOffsets[id], s.declOffsets[id + 1]));
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return Names referenced by the variable's declarations
+     */
+    @NotNull
+    public Set<String> getReferences(@NotNull String name) {
+        Snapshot s = update();
+        return s.collect(s.id(name), s.fwdOffsets, s.fwdTargets);
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return Names whose declarations reference the variable directly
+     */
+    @NotNull
+    public Set<String> getDependents(@NotNull String name) {
+        Snapshot s = update();
+        return s.collect(s.id(name), s.revOffsets, s.revTargets);
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return Names that depend on the variable directly or through other variables
+     */
+    @NotNull
+    public Set<String> getTransitiveDependents(@NotNull String name) {
+        Snapshot s = update();
+        int start = s.id(name);
+        if (start < 0) {
+            return Collections.emptySet();
+        }
+
+        boolean[] seen = new boolean[s.names.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen[start] = true;
+        Set<String> result = new LinkedHashSet<>();
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = s.revOffsets[node]; i < s.revOffsets[node + 1]; i++) {
+                int dependent = s.revTargets[i];
+                if (!seen[dependent]) {
+                    seen[dependent] = true;
+                    result.add(s.names[dependent]);
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (s.cyclic[start]) {
+            result.add(name);  // Depends on itself through the cycle
+        }
+        return result;
+    }
+
+    /**
+     * @param name Variable name (without $)
+     * @return true if the variable references itself, directly or through other variables
+     */
+    public boolean isInCycle(@NotNull String name) {
+        Snapshot s = update();
+        int id = s.id(name);
+        return id >= 0 && s.cyclic[id];
+    }
+
+    /**
+     * @return true if both variables are part of the same reference cycle
+     */
+    public boolean isInSameCycle(@NotNull String first, @NotNull String second) {
+        Snapshot s = update();
+        int a = s.id(first);
+        int b = s.id(second);
+        return a >= 0 && b >= 0 && s.cyclic[a] && s.scc[a] == s.scc[b];
+    }
+
+    @Override
+    public void dispose() {
+        // Change listeners are registered with this service as parent and go away with it
+    }
+
+    /**
+     * @return The graph, brought up to date with the files reported as changed
+     */
+    @NotNull
+    private Snapshot update() {
+        return model.get();
+    }
+
+    /**
+     * Read one file's declarations and reference edges from the variable index.
+     *
+     * @return The file's data, or null if it declares no variables
+     */
+    @Nullable
+    private FileEdges readFile(@NotNull VirtualFile file) {
+        Map<String, TcssVariableEntry> entries = TcssVariableIndex.getFileEntries(file, project);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        String[] declared = new String[entries.size()];
+        List<String> from = new ArrayList<>();
+        List<String> to = new ArrayList<>();
+        int declIndex = 0;
+
+        for (Map.Entry<String, TcssVariableEntry> entry : new TreeMap<>(entries).entrySet()) {  // Stable order for equals
+            declared[declIndex++] = entry.getKey();
+            for (String reference : TcssVariableScanner.collectReferences(entry.getValue().getValueText())) {
+                from.add(entry.getKey());
+                to.add(reference);
+            }
+        }
+        return new FileEdges(declared, from.toArray(new String[0]), to.toArray(new String[0]));
+    }
+
+    /**
+     * Compile per-file data into adjacency arrays and compute strongly connected components.
+     */
+    @NotNull
+    private static Snapshot compile(@NotNull Map<VirtualFile, FileEdges> files) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        List<VirtualFile> sortedFiles = new ArrayList<>(files.keySet());
+        sortedFiles.sort((a, b) -> a.getPath().compareTo(b.getPath()));
+
+        // Number the names in file path order
+        for (VirtualFile file : sortedFiles) {
+            FileEdges edges = files.get(file);
+            number(edges.declared, ids, names);
+            number(edges.to, ids, names);
+        }
+        int n = names.size();
+
+        // Count degrees
+        int[] fwdOffsets = new int[n + 1];
+        int[] revOffsets = new int[n + 1];
+        int[] declOffsets = new int[n + 1];
+        for (FileEdges edges : files.values()) {
+            for (int i = 0; i < edges.from.length; i++) {
+                fwdOffsets[ids.get(edges.from[i]) + 1]++;
+                revOffsets[ids.get(edges.to[i]) + 1]++;
+            }
+            for (String name : edges.declared) {
+                declOffsets[ids.get(name) + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            fwdOffsets[i + 1] += fwdOffsets[i];
+            revOffsets[i + 1] += revOffsets[i];
+            declOffsets[i + 1] += declOffsets[i];
+        }
+
+        // Fill
+        int[] fwdTargets = new int[fwdOffsets[n]];
+        int[] revTargets = new int[revOffsets[n]];
+        VirtualFile[] declFiles = new VirtualFile[declOffsets[n]];
+        int[] fwdFill = Arrays.copyOf(fwdOffsets, n);
+        int[] revFill = Arrays.copyOf(revOffsets, n);
+        int[] declFill = Arrays.copyOf(declOffsets, n);
+        for (VirtualFile file : sortedFiles) {
+            FileEdges edges = files.get(file);
+            for (int i = 0; i < edges.from.length; i++) {
+                int from = ids.get(edges.from[i]);
+                int to = ids.get(edges.to[i]);
+                fwdTargets[fwdFill[from]++] = to;
+                revTargets[revFill[to]++] = from;
+            }
+            for (String name : edges.declared) {
+                declFiles[declFill[ids.get(name)]++] = file;
+            }
+        }
+
+        int[] scc = new int[n];
+        boolean[] cyclic = new boolean[n];
+        computeComponents(n, fwdOffsets, fwdTargets, scc, cyclic);
+
+        return new Snapshot(ids, names.toArray(new String[0]), fwdOffsets, fwdTargets,
+                revOffsets, revTargets, declOffsets, declFiles, scc, cyclic);
+    }
+
+    /**
+     * Give each name not numbered yet the next id. Edge sources are declared names, so numbering
+     * declared names and edge targets covers every node.
+     */
+    private static void number(@NotNull String[] fileNames, @NotNull Map<String, Integer> ids, @NotNull List<String> names) {
+        for (String name : fileNames) {
+            if (ids.putIfAbsent(name, names.size()) == null) {
+                names.add(name);
+            }
+        }
+    }
+
+    /**
+     * Iterative Tarjan SCC. Marks nodes in components of size &gt; 1 or with a self-loop as cyclic.
+     */
+    private static void computeComponents(int n, int[] offsets, int[] targets, int[] scc, boolean[] cyclic) {
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] edgePos = new int[n];
+        Arrays.fill(index, -1);
+
+        int counter = 0;
+        int sp = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int csp = 0;
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            callStack[csp] = root;
+            edgePos[csp++] = offsets[root];
+
+            while (csp > 0) {
+                int u = callStack[csp - 1];
+                if (edgePos[csp - 1] < offsets[u + 1]) {
+                    int w = targets[edgePos[csp - 1]++];
+                    if (w == u) {
+                        cyclic[u] = true;  // Self-reference
+                    }
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        callStack[csp] = w;
+                        edgePos[csp++] = offsets[w];
+                    } else if (onStack[w]) {
+                        low[u] = Math.min(low[u], index[w]);
+                    }
+                    continue;
+                }
+
+                if (low[u] == index[u]) {
+                    int size = 0;
+                    int w;
+                    int top = sp;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        scc[w] = components;
+                        size++;
+                    } while (w != u);
+                    if (size > 1) {
+                        for (int i = sp; i < top; i++) {
+                            cyclic[stack[i]] = true;
+                        }
+                    }
+                    components++;
+                }
+                csp--;
+                if (csp > 0) {
+                    int parent = callStack[csp - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Declarations and reference edges contributed by one file, by name.
+     */
+    private static final class FileEdges {
+        private final String[] declared;
+        private final String[] from;
+        private final String[] to;
+
+        private FileEdges(String[] declared, String[] from, String[] to) {
+            this.declared = declared;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileEdges)) {
+                return false;
+            }
+            FileEdges other = (FileEdges) o;
+            return Arrays.equals(declared, other.declared) && Arrays.equals(from, other.from) && Arrays.equals(to, other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Arrays.hashCode(declared) + Arrays.hashCode(from)) + Arrays.hashCode(to);
+        }
+    }
+
+    /**
+     * Immutable compiled graph, safe to query without locking.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), new String[0], new int[1], new int[0],
+                new int[1], new int[0], new int[1], new VirtualFile[0], new int[0], new boolean[0]);
+
+        private final Map<String, Integer> ids;
+        private final String[] names;
+        private final int[] fwdOffsets;
+        private final int[] fwdTargets;
+        private final int[] revOffsets;
+        private final int[] revTargets;
+        private final int[] declOffsets;
+        private final VirtualFile[] declFiles;
+        private final int[] scc;
+        private final boolean[] cyclic;
+        private volatile SuggestionIndex suggestions;  // Built on first use
+
+        private Snapshot(Map<String, Integer> ids, String[] names, int[] fwdOffsets, int[] fwdTargets,
+                         int[] revOffsets, int[] revTargets, int[] declOffsets, VirtualFile[] declFiles,
+                         int[] scc, boolean[] cyclic) {
+            this.ids = ids;
+            this.names = names;
+            this.fwdOffsets = fwdOffsets;
+            this.fwdTargets = fwdTargets;
+            this.revOffsets = revOffsets;
+            this.revTargets = revTargets;
+            this.declOffsets = declOffsets;
+            this.declFiles = declFiles;
+            this.scc = scc;
+            this.cyclic = cyclic;
+        }
+
+        @NotNull
+        private SuggestionIndex suggestions() {
+            SuggestionIndex result = suggestions;
+            if (result == null) {
+                Set<String> declared = new TreeSet<>();
+                for (int id = 0; id < names.length; id++) {
+                    if (declOffsets[id + 1] > declOffsets[id]) {
+                        declared.add(names[id]);
+                    }
+                }
+                suggestions = result = SuggestionIndex.of(declared);
+            }
+            return result;
+        }
+
+        private int id(@NotNull String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : -1;
+        }
+
+        @NotNull
+        private Set<String> collect(int id, int[] offsets, int[] targets) {
+            if (id < 0) {
+                return Collections.emptySet();
+            }
+            Set<String> result = new LinkedHashSet<>();
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                result.add(names[targets[i]]);
+            }
+            return result;
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package org.msaraiva.pytcss.util;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
+import org.msaraiva.pytcss.TcssFile;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
 import org.msaraiva.pytcss.index.TcssVariableIndex;
+import org.msaraiva.pytcss.index.TcssVariableStubIndex;
 import org.msaraiva.pytcss.psi.TcssColorValue;
 import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
 import org.msaraiva.pytcss.psi.TcssVariableReference;
@@ -26,8 +37,8 @@ import java.util.*;
  *   <li>Undefined variables return null (no errors - validation is separate feature)</li>
  * </ul>
  *
- * <p>Note: This resolver does not cache results. TCSS files are typically small (50-200 lines),
- * so linear scanning is fast enough. Caching can be added later if profiling shows need.
+ * <p>Each file's declaration table (name → last declaration) is cached until the file changes,
+ * so resolving N references in a file costs one scan of its declarations, not N.
  */
 public class VariableResolver {
     /**
@@ -36,6 +47,12 @@ public class VariableResolver {
      */
     private static final int MAX_DEPTH = 10;
 
+    private static final Key<CachedValue<DeclarationTable>> DECLARATION_TABLE_KEY =
+            Key.create("tcss.variable.declarationTable");
+
+    private static final Key<CachedValue<Set<String>>> UNDEFINED_NAMES_KEY =
+            Key.create("tcss.variable.undefinedNames");
+
     /**
      * Resolve a variable name to a color within a file scope.
      *
@@ -60,7 +77,7 @@ public class VariableResolver {
 
         // Track visited variables to detect circular references
         Set<String> visited = new HashSet<>();
-        return resolveColorRecursive(declaration, visited, 0);
+        return resolveColorRecursive(declaration, visited, 0, false);
     }
 
     /**
@@ -74,22 +91,7 @@ public class VariableResolver {
     @Nullable
     public static TcssVariableDeclaration findDeclaration(@NotNull String variableName,
                                                            @NotNull PsiFile scope) {
-        Collection<TcssVariableDeclaration> declarations =
-                PsiTreeUtil.findChildrenOfType(scope, TcssVariableDeclaration.class);
-
-        TcssVariableDeclaration lastDeclaration = null;
-        for (TcssVariableDeclaration decl : declarations) {
-            String declName = decl.getVariableName();
-            if (declName.isEmpty()) {
-                continue;
-            }
-
-            if (variableName.equals(declName)) {
-                lastDeclaration = decl;  // Keep last one (last declaration wins)
-            }
-        }
-
-        return lastDeclaration;
+        return getDeclarationTable(scope).lastByName.get(variableName);
     }
 
     /**
@@ -99,12 +101,14 @@ public class VariableResolver {
      * @param declaration Variable declaration to resolve
      * @param visited     Set of visited variable names (circular detection)
      * @param depth       Current recursion depth
+     * @param crossFile   Resolve references the file does not declare project-wide
      * @return Resolved color or null
      */
     @Nullable
     private static Color resolveColorRecursive(@NotNull TcssVariableDeclaration declaration,
                                                 @NotNull Set<String> visited,
-                                                int depth) {
+                                                int depth,
+                                                boolean crossFile) {
         // Max depth check - prevents stack overflow
         if (depth >= MAX_DEPTH) {
             return null;
@@ -121,34 +125,41 @@ public class VariableResolver {
         }
         visited.add(variableName);
 
-        // Get the color value
-        TcssColorValue colorValue = declaration.getColorValue();
-        if (colorValue == null) {
+        // Get the first color value: from the lexed stub value if the declaring file is not parsed
+        String referencedVar;
+        TcssVariableEntry entry = declaration.getStubValueEntry();
+        if (entry != null) {
+            if (entry.hasColor()) {
+                return new Color(entry.getArgb(), true);
+            }
+            referencedVar = entry.getColorReference();
+        } else {
+            TcssColorValue colorValue = declaration.getColorValue();
+            if (colorValue != null && !(colorValue instanceof TcssVariableReference)) {
+                return colorValue.resolveColor();  // Direct color value
+            }
+            referencedVar = colorValue != null ? ((TcssVariableReference) colorValue).getVariableName() : null;
+        }
+        if (referencedVar == null) {
             return null;  // Variable value is not color-related
         }
 
-        // If it's a variable reference, recurse
-        if (colorValue instanceof TcssVariableReference) {
-            TcssVariableReference varRef = (TcssVariableReference) colorValue;
-            String referencedVar = varRef.getVariableName();
-
-            // Find the referenced declaration
-            PsiFile containingFile = declaration.getContainingFile();
-            if (containingFile == null) {
-                return null;
-            }
-
-            TcssVariableDeclaration referencedDecl = findDeclaration(referencedVar, containingFile);
-            if (referencedDecl == null) {
-                return null;  // Undefined variable
-            }
+        // It's a variable reference: find the referenced declaration and recurse
+        PsiFile containingFile = declaration.getContainingFile();
+        if (containingFile == null) {
+            return null;
+        }
 
-            // Recurse with incremented depth and same visited set
-            return resolveColorRecursive(referencedDecl, visited, depth + 1);
+        TcssVariableDeclaration referencedDecl = findDeclaration(referencedVar, containingFile);
+        if (referencedDecl == null) {
+            // Not declared in this file: continue project-wide, or undefined in file scope
+            return crossFile && !referencedVar.isEmpty()
+                    ? TcssColorResolutionCache.getInstance(declaration.getProject()).resolveColor(referencedVar)
+                    : null;
         }
 
-        // Direct color value - resolve it
-        return colorValue.resolveColor();
+        // Recurse with incremented depth and same visited set
+        return resolveColorRecursive(referencedDecl, visited, depth + 1, crossFile);
     }
 
     /**
@@ -156,23 +167,22 @@ public class VariableResolver {
      * Useful for code completion and validation features.
      *
      * @param scope File to search
-     * @return Map of variable name → declaration (last declaration wins)
+     * @return Unmodifiable map of variable name → declaration (last declaration wins), in source order
      */
     @NotNull
     public static Map<String, TcssVariableDeclaration> getAllDeclarations(@NotNull PsiFile scope) {
-        Collection<TcssVariableDeclaration> declarations =
-                PsiTreeUtil.findChildrenOfType(scope, TcssVariableDeclaration.class);
-
-        // Use LinkedHashMap to preserve order
-        Map<String, TcssVariableDeclaration> result = new LinkedHashMap<>();
-        for (TcssVariableDeclaration decl : declarations) {
-            String name = decl.getVariableName();
-            if (!name.isEmpty()) {
-                result.put(name, decl);  // Last declaration wins
-            }
-        }
+        return getDeclarationTable(scope).lastByName;
+    }
 
-        return result;
+    /**
+     * Get all top-level variable declarations in a file in source order, including redefinitions.
+     *
+     * @param scope File to search
+     * @return Declarations in source order
+     */
+    @NotNull
+    public static List<TcssVariableDeclaration> getOrderedDeclarations(@NotNull PsiFile scope) {
+        return getDeclarationTable(scope).ordered;
     }
 
     @NotNull
@@ -180,18 +190,20 @@ public class VariableResolver {
         return getAllDeclarations(scope).values();
     }
 
+    /**
+     * Find all references to a declaration across the project.
+     * Served from the variable usage index, so only files that use the name are searched;
+     * references in other files whose own declaration shadows this one are excluded.
+     *
+     * @param declaration Variable declaration
+     * @return References resolving to the declaration, including ones in Python CSS strings
+     */
     @NotNull
     public static Collection<TcssVariableReference> findReferences(@NotNull TcssVariableDeclaration declaration) {
-        PsiFile file = declaration.getContainingFile();
-        if (file == null) {
-            return Collections.emptyList();
-        }
-
-        Collection<TcssVariableReference> references = PsiTreeUtil.findChildrenOfType(file, TcssVariableReference.class);
         List<TcssVariableReference> result = new ArrayList<>();
-        for (TcssVariableReference reference : references) {
-            if (declaration.equals(reference.resolveDeclaration())) {
-                result.add(reference);
+        for (PsiReference reference : ReferencesSearch.search(declaration).findAll()) {
+            if (reference.getElement() instanceof TcssVariableReference) {
+                result.add((TcssVariableReference) reference.getElement());
             }
         }
         return result;
@@ -199,9 +211,40 @@ public class VariableResolver {
 
     // ========== Cross-File Resolution Methods ==========
 
+    /**
+     * Get the variable names referenced in a file that neither the file nor any project TCSS file declares.
+     *
+     * <p>Computed once per TCSS modification: distinct names are collected in one walk of the file and
+     * checked against the project in one batch, so the cost scales with distinct names, not references.
+     *
+     * @param scope File containing the references
+     * @return Unmodifiable set of undefined variable names (without $)
+     */
+    @NotNull
+    public static Set<String> getUndefinedVariableNames(@NotNull PsiFile scope) {
+        return CachedValuesManager.getCachedValue(scope, UNDEFINED_NAMES_KEY, () -> {
+            Map<String, TcssVariableDeclaration> local = getAllDeclarations(scope);
+            Set<String> referenced = new LinkedHashSet<>();
+            for (TcssVariableReference reference : PsiTreeUtil.findChildrenOfType(scope, TcssVariableReference.class)) {
+                String name = reference.getVariableName();
+                if (!name.isEmpty() && !local.containsKey(name)) {
+                    referenced.add(name);
+                }
+            }
+
+            Set<String> undefined = referenced.isEmpty()
+                    ? Collections.emptySet()
+                    : Collections.unmodifiableSet(TcssVariableGraph.getInstance(scope.getProject()).getUndeclared(referenced));
+            return CachedValueProvider.Result.create(undefined, scope,
+                    TcssModificationTracker.getInstance(scope.getProject()),
+                    VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+        });
+    }
+
     /**
      * Resolve variable color with cross-file support.
      * Checks local file first (shadowing), then searches project-wide.
+     * References a file does not declare are resolved project-wide, so chains can span files.
      *
      * @param variableName Variable name (without $)
      * @param contextFile File containing the reference
@@ -217,25 +260,11 @@ public class VariableResolver {
         TcssVariableDeclaration localDecl = findDeclaration(variableName, contextFile);
         if (localDecl != null) {
             Set<String> visited = new HashSet<>();
-            return resolveColorRecursive(localDecl, visited, 0);
+            return resolveColorRecursive(localDecl, visited, 0, true);
         }
 
-        // 2. Search project-wide via index
-        Project project = contextFile.getProject();
-        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-        Collection<TcssVariableDeclaration> declarations =
-                TcssVariableIndex.findDeclarations(variableName, project, scope);
-
-        // Return first valid color (arbitrary but deterministic order)
-        for (TcssVariableDeclaration decl : declarations) {
-            Set<String> visited = new HashSet<>();
-            Color color = resolveColorRecursive(decl, visited, 0);
-            if (color != null) {
-                return color;
-            }
-        }
-
-        return null;
+        // 2. Search project-wide via the resolution cache (served from the index, no PSI is loaded)
+        return TcssColorResolutionCache.getInstance(contextFile.getProject()).resolveColor(variableName);
     }
 
     /**
@@ -261,9 +290,9 @@ public class VariableResolver {
     /**
      * Get all variable declarations across the project.
      * Returns a map of variable name → collection of declarations.
-     * Used for project-wide completion.
+     * Completion uses the index-backed {@link org.msaraiva.pytcss.completion.TcssVariableCompletionModel} instead.
      *
-     * <p>Optimized to load each file only once, even if it declares multiple variables.
+     * <p>Served from the variable stub index, so declaring files are not parsed.
      *
      * @param project Current project
      * @return Map of variable name to all declarations with that name
@@ -272,40 +301,60 @@ public class VariableResolver {
     public static Map<String, Collection<TcssVariableDeclaration>> getAllDeclarationsCrossFile(
             @NotNull Project project) {
         Map<String, Collection<TcssVariableDeclaration>> result = new LinkedHashMap<>();
-
-        // Get all variable names and collect unique files
-        Collection<String> varNames = TcssVariableIndex.getAllVariableNames(project);
         GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-        Set<com.intellij.openapi.vfs.VirtualFile> allFiles = new HashSet<>();
 
-        // Collect all files that declare any variable
-        for (String varName : varNames) {
-            Collection<com.intellij.openapi.vfs.VirtualFile> files =
-                    TcssVariableIndex.getFilesDeclaringVariable(varName, scope);
-            allFiles.addAll(files);
+        for (String varName : StubIndex.getInstance().getAllKeys(TcssVariableStubIndex.KEY, project)) {
+            Collection<TcssVariableDeclaration> declarations = StubIndex.getElements(
+                    TcssVariableStubIndex.KEY, varName, project, scope, TcssVariableDeclaration.class);
+            if (!declarations.isEmpty()) {
+                result.put(varName, new ArrayList<>(declarations));
+            }
         }
 
-        // Load each file once and extract all declarations
-        com.intellij.psi.PsiManager psiManager = com.intellij.psi.PsiManager.getInstance(project);
-        for (com.intellij.openapi.vfs.VirtualFile virtualFile : allFiles) {
-            PsiFile psiFile = psiManager.findFile(virtualFile);
-            if (psiFile == null) {
-                continue;
-            }
+        return result;
+    }
+
+    /**
+     * Get the cached declaration table of a file, rebuilt when the file changes.
+     */
+    @NotNull
+    private static DeclarationTable getDeclarationTable(@NotNull PsiFile scope) {
+        return CachedValuesManager.getCachedValue(scope, DECLARATION_TABLE_KEY, () ->
+                CachedValueProvider.Result.create(new DeclarationTable(getTopLevelDeclarations(scope)), scope));
+    }
+
+    /**
+     * Top-level variable declarations of a file, in source order.
+     * Uses the stub tree for TCSS files so unopened files are not parsed.
+     */
+    @NotNull
+    private static Collection<TcssVariableDeclaration> getTopLevelDeclarations(@NotNull PsiFile scope) {
+        if (scope instanceof TcssFile) {
+            return ((TcssFile) scope).getVariableDeclarations();
+        }
+        return PsiTreeUtil.findChildrenOfType(scope, TcssVariableDeclaration.class);
+    }
 
-            // Get all declarations from this file
-            Collection<TcssVariableDeclaration> declarations =
-                    PsiTreeUtil.findChildrenOfType(psiFile, TcssVariableDeclaration.class);
+    /**
+     * Declarations of one file: all of them in source order, and the last one per name.
+     */
+    private static final class DeclarationTable {
+        private final List<TcssVariableDeclaration> ordered;
+        private final Map<String, TcssVariableDeclaration> lastByName;
 
-            // Group by variable name
+        private DeclarationTable(@NotNull Collection<TcssVariableDeclaration> declarations) {
+            List<TcssVariableDeclaration> list = new ArrayList<>(declarations.size());
+            Map<String, TcssVariableDeclaration> byName = new LinkedHashMap<>();
             for (TcssVariableDeclaration decl : declarations) {
-                String varName = decl.getVariableName();
-                if (!varName.isEmpty()) {
-                    result.computeIfAbsent(varName, k -> new ArrayList<>()).add(decl);
+                String name = decl.getVariableName();
+                if (name.isEmpty()) {
+                    continue;
                 }
+                list.add(decl);
+                byName.put(name, decl);  // Last declaration wins
             }
+            this.ordered = Collections.unmodifiableList(list);
+            this.lastByName = Collections.unmodifiableMap(byName);
         }
-
-        return result;
     }
 }
@@ -0,0 +1,523 @@
+package org.msaraiva.pytcss.validation;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.tree.IElementType;
+import org.msaraiva.pytcss.TcssElementTypes;
+import org.msaraiva.pytcss.TcssTokenTypes;
+import org.msaraiva.pytcss.constants.TcssConstants;
+import org.msaraiva.pytcss.metadata.TcssPropertyCatalog;
+import org.msaraiva.pytcss.metadata.TcssPropertyInfo;
+import org.msaraiva.pytcss.psi.TcssPropertyValue;
+import org.msaraiva.pytcss.psi.TcssValueSummary;
+import org.msaraiva.pytcss.util.KeywordTable;
+import org.msaraiva.pytcss.util.SuggestionIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Per-property value grammars, compiled once from {@link TcssPropertyCatalog} and {@link TcssConstants}.
+ *
+ * <p>A property value is read as a sequence of atoms: numbers (with their unit), colors (hex, functions,
+ * keywords, each with an optional opacity suffix), words, strings and commas. Each property compiles to
+ * a rule of slots, for example {@code <scalar>{1,4}} for {@code margin}, {@code <horizontal> <vertical>}
+ * for {@code align} or {@code [<border-style>] [<color>]} in any order for {@code border}. Word slots
+ * hold a {@link BitSet} over one shared {@link KeywordTable}, so checking an enum value hashes the token
+ * in place. Checking a valid value walks its children once and allocates nothing.
+ *
+ * <p>Other {@code STRING} properties are free-form and only reject a lone plain number or hex color.
+ * Values containing variables or {@code initial}, values the parser flagged, and {@code OTHER}
+ * properties are not checked.
+ */
+public final class TcssValueGrammar {
+    // Atom kinds, as bits
+    private static final int NUMBER = 1;
+    private static final int COLOR = 1 << 1;
+    private static final int WORD = 1 << 2;
+    private static final int STRING = 1 << 3;
+    private static final int COMMA = 1 << 4;
+
+    // Returned by classify() for whitespace and comments
+    private static final int SKIP = 0;
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final KeywordTable WORDS;
+    private static final Map<String, Rule> RULES = new HashMap<>();
+
+    static {
+        List<String> words = new ArrayList<>();
+        collectWords(words);
+        WORDS = new KeywordTable(words);
+        for (TcssPropertyInfo info : TcssPropertyCatalog.getAll()) {
+            Rule rule = compile(info);
+            if (rule != null) {
+                RULES.put(info.getName().toLowerCase(Locale.US), rule);
+            }
+        }
+    }
+
+    private TcssValueGrammar() {
+    }
+
+    /**
+     * A problem found in a property value.
+     */
+    public static final class Problem {
+        private final String message;
+        private final ASTNode node;
+
+        private Problem(@NotNull String message, @NotNull ASTNode node) {
+            this.message = message;
+            this.node = node;
+        }
+
+        @NotNull
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @return The offending atom, or the whole value for problems with the value as a whole
+         */
+        @NotNull
+        public ASTNode getNode() {
+            return node;
+        }
+    }
+
+    /**
+     * Check a property value against the property's grammar.
+     *
+     * @param propertyName Property name (case-insensitive)
+     * @param value        Property value
+     * @return The first problem, or null if the value is valid or not checked
+     */
+    @Nullable
+    public static Problem check(@NotNull String propertyName, @NotNull TcssPropertyValue value) {
+        Rule rule = RULES.get(propertyName.toLowerCase(Locale.US));
+        if (rule == null) {
+            return null;
+        }
+        // Variables and initial can stand for anything; parser errors are already reported
+        if (value.getSummary().hasAny(TcssValueSummary.VARIABLE | TcssValueSummary.INITIAL | TcssValueSummary.ERROR)) {
+            return null;
+        }
+        return rule.check(propertyName, value.getNode());
+    }
+
+    // ========== Atoms ==========
+
+    private static int classify(@NotNull ASTNode node) {
+        IElementType type = node.getElementType();
+        if (type == TcssTokenTypes.WHITE_SPACE || type == TcssTokenTypes.COMMENT) {
+            return SKIP;
+        }
+        if (type == TcssTokenTypes.NUMBER) {
+            return NUMBER;
+        }
+        if (type == TcssTokenTypes.IDENTIFIER) {
+            return WORD;
+        }
+        if (type == TcssTokenTypes.STRING) {
+            return STRING;
+        }
+        if (type == TcssTokenTypes.COMMA) {
+            return COMMA;
+        }
+        if (type == TcssElementTypes.COLOR_KEYWORD_VALUE) {
+            return COLOR | WORD;  // "auto" and friends can also be enum words
+        }
+        if (type == TcssElementTypes.HEX_COLOR_VALUE || type == TcssElementTypes.COLOR_FUNCTION_CALL
+                || type == TcssElementTypes.COLOR_WITH_OPACITY_VALUE) {
+            return COLOR;
+        }
+        return SKIP;  // Variable reference, initial and errors are ruled out by the summary
+    }
+
+    /**
+     * @return Keyword id of a word atom, or -1
+     */
+    private static int wordId(@NotNull ASTNode atom) {
+        ASTNode leaf = atom.getFirstChildNode() != null ? atom.getFirstChildNode() : atom;
+        CharSequence chars = leaf.getChars();
+        return WORDS.get(chars, 0, chars.length());
+    }
+
+    /**
+     * @return true for a number without a unit, such as {@code 2} or {@code 0.5}
+     */
+    private static boolean isPlainNumber(@NotNull ASTNode atom) {
+        CharSequence chars = atom.getChars();
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return chars.length() > 0;
+    }
+
+    @NotNull
+    private static String kindName(int kind) {
+        if ((kind & COLOR) != 0) {
+            return "COLOR";
+        }
+        switch (kind) {
+            case NUMBER:
+                return "NUMBER";
+            case STRING:
+                return "STRING";
+            case COMMA:
+                return "','";
+            default:
+                return "IDENTIFIER";
+        }
+    }
+
+    // ========== Rules ==========
+
+    /**
+     * One position in a rule: the atom kinds it takes and, for words, which ones.
+     */
+    private static final class Slot {
+        private final String description;
+        private final int kinds;
+        @Nullable private final BitSet words;
+        @Nullable private final SuggestionIndex suggestions;
+        private final int min;
+        private final int max;
+
+        private Slot(@NotNull String description, int kinds, @Nullable Collection<String> words, int min, int max) {
+            this.description = description;
+            this.kinds = kinds;
+            this.min = min;
+            this.max = max;
+            if (words == null) {
+                this.words = null;
+                this.suggestions = null;
+            } else {
+                BitSet bits = new BitSet();
+                for (String word : words) {
+                    bits.set(WORDS.get(word, 0, word.length()));
+                }
+                this.words = bits;
+                this.suggestions = SuggestionIndex.of(new TreeSet<>(words));
+            }
+        }
+
+        /**
+         * @return true if the slot takes the atom
+         */
+        private boolean takes(@NotNull ASTNode atom, int kind) {
+            int shared = kinds & kind;
+            if (shared == 0) {
+                return false;
+            }
+            if (shared != WORD || words == null) {
+                return true;  // Matched by a non-word kind, or any word goes
+            }
+            int id = wordId(atom);
+            return id >= 0 && words.get(id);
+        }
+
+        /**
+         * A word this slot could have taken, had it been spelled differently. Color keywords only count
+         * when they are also known enum words ({@code auto}); otherwise they are reported as colors.
+         */
+        private boolean isMisspelling(@NotNull ASTNode atom, int kind) {
+            if (words == null || (kinds & WORD) == 0 || (kind & WORD) == 0) {
+                return false;
+            }
+            return kind == WORD || wordId(atom) >= 0;
+        }
+    }
+
+    /**
+     * Compiled grammar of one property.
+     */
+    private static final class Rule {
+        private final Slot[] slots;
+        private final boolean unordered;
+        private final boolean lenient;    // Free-form: only a lone plain number or hex color is rejected
+        private final int allowedCounts;  // Bit n set: n atoms allowed; 0 means any count the slots take
+        private final String expected;
+
+        private Rule(@NotNull String expected, boolean unordered, int allowedCounts, @NotNull Slot... slots) {
+            this(expected, unordered, false, allowedCounts, slots);
+        }
+
+        private Rule(@NotNull String expected, boolean unordered, boolean lenient, int allowedCounts,
+                     @NotNull Slot... slots) {
+            this.expected = expected;
+            this.unordered = unordered;
+            this.lenient = lenient;
+            this.allowedCounts = allowedCounts;
+            this.slots = slots;
+        }
+
+        @Nullable
+        private Problem check(@NotNull String propertyName, @NotNull ASTNode value) {
+            if (lenient) {
+                return checkLenient(propertyName, value);
+            }
+
+            int slot = 0;
+            int used = 0;       // Atoms taken by the current slot (ordered)
+            int usedSlots = 0;  // Bit per slot already taken (unordered)
+            int count = 0;
+
+            for (ASTNode atom = value.getFirstChildNode(); atom != null; atom = atom.getTreeNext()) {
+                int kind = classify(atom);
+                if (kind == SKIP) {
+                    continue;
+                }
+                count++;
+
+                if (unordered) {
+                    int match = -1;
+                    for (int i = 0; i < slots.length && match < 0; i++) {
+                        if ((usedSlots & (1 << i)) == 0 && slots[i].takes(atom, kind)) {
+                            match = i;
+                        }
+                    }
+                    if (match < 0) {
+                        return reject(propertyName, value, atom, kind);
+                    }
+                    usedSlots |= 1 << match;
+                    continue;
+                }
+
+                // Ordered: stay on a slot until it is full or stops matching, then move on
+                while (slot < slots.length && (used >= slots[slot].max || !slots[slot].takes(atom, kind))) {
+                    if (used < slots[slot].min) {
+                        return slots[slot].isMisspelling(atom, kind)
+                                ? misspelling(propertyName, atom, slots[slot])
+                                : mismatch(propertyName, value, kind);
+                    }
+                    slot++;
+                    used = 0;
+                }
+                if (slot == slots.length) {
+                    return reject(propertyName, value, atom, kind);
+                }
+                used++;
+            }
+
+            if (count == 0) {
+                return null;  // Missing value is reported by the parser
+            }
+            if (allowedCounts != 0 && (count >= Integer.SIZE || (allowedCounts & (1 << count)) == 0)) {
+                return new Problem(String.format("Property '%s' expects %s, got %d values",
+                        propertyName, expected, count), value);
+            }
+            if (!unordered) {
+                for (int i = slot; i < slots.length; i++) {
+                    if ((i == slot ? used : 0) < slots[i].min) {
+                        return new Problem(String.format("Property '%s' expects %s", propertyName, expected), value);
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        private Problem checkLenient(@NotNull String propertyName, @NotNull ASTNode value) {
+            ASTNode single = null;
+            for (ASTNode atom = value.getFirstChildNode(); atom != null; atom = atom.getTreeNext()) {
+                if (classify(atom) == SKIP) {
+                    continue;
+                }
+                if (single != null) {
+                    return null;
+                }
+                single = atom;
+            }
+            if (single == null) {
+                return null;
+            }
+            if (single.getElementType() == TcssTokenTypes.NUMBER && isPlainNumber(single)) {
+                return mismatch(propertyName, value, NUMBER);
+            }
+            if (single.getElementType() == TcssElementTypes.HEX_COLOR_VALUE) {
+                return mismatch(propertyName, value, COLOR);
+            }
+            return null;
+        }
+
+        /**
+         * An atom no remaining slot takes: one too many, a misspelled word, or the wrong kind of value.
+         */
+        @NotNull
+        private Problem reject(@NotNull String propertyName, @NotNull ASTNode value, @NotNull ASTNode atom, int kind) {
+            for (Slot slot : slots) {
+                if (slot.takes(atom, kind)) {
+                    return new Problem(String.format("Unexpected value '%s' for '%s': expected %s",
+                            atom.getText(), propertyName, expected), atom);
+                }
+            }
+            for (Slot slot : slots) {
+                if (slot.isMisspelling(atom, kind)) {
+                    return misspelling(propertyName, atom, slot);
+                }
+            }
+            for (Slot slot : slots) {
+                if ((slot.kinds & kind) != 0) {
+                    return new Problem(String.format("Unexpected value '%s' for '%s': expected %s",
+                            atom.getText(), propertyName, expected), atom);
+                }
+            }
+            return mismatch(propertyName, value, kind);
+        }
+
+        @NotNull
+        private Problem mismatch(@NotNull String propertyName, @NotNull ASTNode value, int kind) {
+            return new Problem(String.format("Property '%s' expects %s, got %s",
+                    propertyName, expected, kindName(kind)), value);
+        }
+
+        @NotNull
+        private static Problem misspelling(@NotNull String propertyName, @NotNull ASTNode atom, @NotNull Slot slot) {
+            String text = atom.getText();
+            String message = String.format("Invalid value '%s' for '%s': expected %s", text, propertyName, slot.description);
+            String suggestion = slot.suggestions != null ? slot.suggestions.suggest(text) : null;
+            if (suggestion != null) {
+                message += ". Did you mean '" + suggestion + "'?";
+            }
+            return new Problem(message, atom);
+        }
+    }
+
+    // ========== Compilation ==========
+
+    private static void collectWords(@NotNull List<String> words) {
+        words.add("auto");
+        words.add("true");
+        words.add("false");
+        for (Set<String> set : List.of(TcssConstants.VALID_BORDER, TcssConstants.VALID_STYLE_FLAGS,
+                TcssConstants.VALID_KEYLINE, TcssConstants.VALID_CONSTRAIN, TcssConstants.VALID_OVERLAY,
+                TcssConstants.VALID_ALIGN_HORIZONTAL, TcssConstants.VALID_ALIGN_VERTICAL)) {
+            words.addAll(new TreeSet<>(set));
+        }
+        for (TcssPropertyInfo info : TcssPropertyCatalog.getAll()) {
+            Set<String> values = TcssConstants.getValidEnumValues(info.getName());
+            if (values != null) {
+                words.addAll(new TreeSet<>(values));
+            }
+        }
+    }
+
+    @Nullable
+    private static Rule compile(@NotNull TcssPropertyInfo info) {
+        String name = info.getName().toLowerCase(Locale.US);
+        Set<String> enumValues = TcssConstants.getValidEnumValues(name);
+
+        switch (name) {
+            case "align":
+            case "content-align":
+                return new Rule("a horizontal and a vertical alignment", false, 0,
+                        words("horizontal alignment", TcssConstants.VALID_ALIGN_HORIZONTAL, 1, 1),
+                        words("vertical alignment", TcssConstants.VALID_ALIGN_VERTICAL, 1, 1));
+            case "border-title-align":
+            case "border-subtitle-align":
+                return single(words("horizontal alignment", TcssConstants.VALID_ALIGN_HORIZONTAL, 1, 1));
+            case "overflow":
+                return new Rule("1 or 2 overflow values", false, 0,
+                        words("overflow", TcssConstants.VALID_OVERFLOW, 1, 2));
+            case "border":
+            case "border-top":
+            case "border-right":
+            case "border-bottom":
+            case "border-left":
+            case "outline":
+            case "outline-top":
+            case "outline-right":
+            case "outline-bottom":
+            case "outline-left":
+                return new Rule("a border style and/or a color", true, 0,
+                        words("border style", TcssConstants.VALID_BORDER, 0, 1),
+                        new Slot("color", COLOR, null, 0, 1));
+            case "keyline":
+                return new Rule("a keyline style and an optional color", false, 0,
+                        words("keyline style", TcssConstants.VALID_KEYLINE, 1, 1),
+                        new Slot("color", COLOR, null, 0, 1));
+            case "constrain":
+                return new Rule("1 or 2 constrain values", false, 0,
+                        words("constrain", TcssConstants.VALID_CONSTRAIN, 1, 2));
+            case "overlay":
+                return single(words("overlay", TcssConstants.VALID_OVERLAY, 1, 1));
+            case "text-style":
+            case "link-style":
+            case "link-style-hover":
+            case "border-title-style":
+            case "border-subtitle-style":
+                return new Rule("text style flags", false, 0,
+                        words("text style", TcssConstants.VALID_STYLE_FLAGS, 1, UNBOUNDED));
+            case "margin":
+            case "padding":
+                return new Rule("1, 2 or 4 scalars", false, (1 << 1) | (1 << 2) | (1 << 4), scalars(1, 4));
+            case "border-width":
+                return new Rule("1 to 4 scalars", false, 0, scalars(1, 4));
+            case "offset":
+                return new Rule("2 scalars", false, 0, scalars(2, 2));
+            case "grid-gutter":
+            case "scrollbar-size":
+                return new Rule("1 or 2 scalars", false, 0, scalars(1, 2));
+            case "grid-columns":
+            case "grid-rows":
+                return new Rule("scalars", false, 0, scalars(1, UNBOUNDED));
+            case "grid-size":
+                return new Rule("1 or 2 numbers", false, 0, new Slot("number", NUMBER, null, 1, 2));
+            default:
+                break;
+        }
+
+        switch (info.getValueType()) {
+            case COLOR:
+                return new Rule("COLOR", false, 0, new Slot("color", COLOR, null, 1, 1));
+            case LENGTH:
+                return new Rule("LENGTH", false, 0, scalars(1, 1));
+            case NUMBER:
+                return new Rule("NUMBER", false, 0, new Slot("number", NUMBER, null, 1, 1));
+            case BOOLEAN:
+                return single(words("true or false", List.of("true", "false"), 1, 1));
+            case ENUM:
+                return enumValues != null
+                        ? single(words(describe(enumValues), enumValues, 1, 1))
+                        : new Rule("ENUM", false, 0, new Slot("keyword", WORD, null, 1, UNBOUNDED));
+            case STRING:
+                return new Rule("STRING", false, true, 0);
+            default:
+                return null;  // OTHER values are not checked
+        }
+    }
+
+    @NotNull
+    private static Rule single(@NotNull Slot slot) {
+        return new Rule(slot.description, false, 0, slot);
+    }
+
+    @NotNull
+    private static Slot scalars(int min, int max) {
+        return new Slot("scalar", NUMBER | WORD, List.of("auto"), min, max);
+    }
+
+    @NotNull
+    private static Slot words(@NotNull String description, @NotNull Collection<String> values, int min, int max) {
+        return new Slot(description, WORD, values, min, max);
+    }
+
+    @NotNull
+    private static String describe(@NotNull Set<String> values) {
+        return "one of " + String.join(", ", new TreeSet<>(values));
+    }
+}
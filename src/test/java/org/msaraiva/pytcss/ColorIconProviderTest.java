@@ -0,0 +1,58 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.ui.scale.JBUIScale;
+import org.msaraiva.pytcss.completion.ColorIconProvider;
+
+import javax.swing.Icon;
+import java.awt.Color;
+
+/**
+ * Tests for the bounded color icon cache.
+ */
+public class ColorIconProviderTest extends BasePlatformTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ColorIconProvider.clearCache();
+    }
+
+    public void testHitsAndMisses() {
+        Icon first = ColorIconProvider.createColorIcon(new Color(0x12, 0x34, 0x56));
+        Icon second = ColorIconProvider.createColorIcon(0xFF123456);
+
+        assertSame(first, second);
+        assertEquals(1, ColorIconProvider.getMissCount());
+        assertEquals(1, ColorIconProvider.getHitCount());
+        assertEquals(1, ColorIconProvider.getCacheSize());
+        assertNull(ColorIconProvider.createColorIcon((Color) null));
+    }
+
+    public void testAlphaIsPartOfKey() {
+        assertNotSame(ColorIconProvider.createColorIcon(0xFF123456), ColorIconProvider.createColorIcon(0x80123456));
+    }
+
+    public void testCacheIsBounded() {
+        int max = ColorIconProvider.getMaxCacheSize();
+        for (int argb = 0; argb < max + 100; argb++) {
+            ColorIconProvider.createColorIcon(argb);
+        }
+
+        assertEquals(max, ColorIconProvider.getCacheSize());
+        assertEquals(100, ColorIconProvider.getEvictionCount());
+
+        // The most recently used colors survive, the oldest are recreated
+        ColorIconProvider.createColorIcon(max + 99);
+        assertEquals(1, ColorIconProvider.getHitCount());
+        ColorIconProvider.createColorIcon(0);
+        assertEquals(max + 101, ColorIconProvider.getMissCount());
+    }
+
+    public void testIconSizeFollowsUiScale() {
+        Icon icon = ColorIconProvider.createColorIcon(0xFFFF0000);
+        int size = Math.round(16 * JBUIScale.scale(1f));
+        assertEquals(size, icon.getIconWidth());
+        assertEquals(size, icon.getIconHeight());
+    }
+}
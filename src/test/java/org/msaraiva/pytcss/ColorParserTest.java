@@ -0,0 +1,209 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.color.ColorParser;
+import org.msaraiva.pytcss.color.NamedColors;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for the allocation-free color parser, checked against the regex-based parser it replaced.
+ */
+public class ColorParserTest extends BasePlatformTestCase {
+
+    public void testFormats() {
+        assertEquals(0xFFFF0000L, ColorParser.parse("#f00"));
+        assertEquals(0x88FF0000L, ColorParser.parse("#f008"));
+        assertEquals(0xFF0066CCL, ColorParser.parse("#0066CC"));
+        assertEquals(0x800066CCL, ColorParser.parse("#0066cc80"));
+        assertEquals(0xFF0A141EL, ColorParser.parse("rgb(10, 20, 30)"));
+        assertEquals(0x800A141EL, ColorParser.parse("RGBA( 10 ,20,30, 0.5 )"));
+        assertEquals(0xFFFF0000L, ColorParser.parse("hsl(0, 100%, 50%)"));
+        assertEquals(0xFF008000L, ColorParser.parse("  green "));
+        assertEquals(0xFFFF0000L, ColorParser.parse("xx red xx", 3, 6));
+    }
+
+    public void testInvalid() {
+        for (String text : List.of("", "#ff", "#ggg", "#12345", "rgb(256, 0, 0)", "rgb(1, 2)", "rgb(1, 2, 3, 4)",
+                "rgba(1, 2, 3, 1.5)", "hsl(0, 100, 50%)", "hsl(361, 0%, 0%)", "rgb(1.5, 2, 3)", "rgb(1, 2, 3) x",
+                "hsla(0, 0%, 0%, 1..0)", "auto", "notacolor")) {
+            assertEquals(text, ColorParser.NONE, ColorParser.parse(text));
+        }
+    }
+
+    public void testOpacity() {
+        assertEquals(128, ColorParser.parseOpacity("50%", 0, 3));
+        assertEquals(255, ColorParser.parseOpacity("150%", 0, 4));
+        assertEquals(0, ColorParser.parseOpacity("-5%", 0, 3));
+        assertEquals(-1, ColorParser.parseOpacity("50", 0, 2));
+        assertEquals(0x80FF0000L, ColorParser.withAlpha(ColorParser.parse("red"), 128));
+    }
+
+    public void testMatchesLegacyParser() {
+        for (String text : buildCorpus(5_000)) {
+            Color legacy = LegacyColorUtil.parse(text);
+            long argb = ColorParser.parse(text);
+            assertEquals(text, legacy != null ? legacy.getRGB() & 0xFFFFFFFFL : ColorParser.NONE, argb);
+        }
+    }
+
+    static List<String> buildCorpus(int size) {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>(NamedColors.getAllColorNames());
+        names.sort(null);
+        List<String> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                    corpus.add(String.format("#%06x", random.nextInt(0x1000000)));
+                    break;
+                case 1:
+                    corpus.add(String.format("#%03X", random.nextInt(0x1000)));
+                    break;
+                case 2:
+                    corpus.add(String.format("#%08x", random.nextInt() & 0x7fffffff));
+                    break;
+                case 3:
+                    corpus.add(String.format("rgb(%d, %d,%d)", random.nextInt(300), random.nextInt(256), random.nextInt(256)));
+                    break;
+                case 4:
+                    corpus.add(String.format("rgba(%d,%d, %d, 0.%d)", random.nextInt(256), random.nextInt(256),
+                            random.nextInt(256), random.nextInt(100)));
+                    break;
+                case 5:
+                    corpus.add(String.format("hsl(%d, %d%%, %d.5%%)", random.nextInt(400), random.nextInt(101), random.nextInt(100)));
+                    break;
+                case 6:
+                    corpus.add(String.format("HSLA(%d.25,%d%%,%d%%, %d)", random.nextInt(360), random.nextInt(101),
+                            random.nextInt(101), random.nextInt(2)));
+                    break;
+                default:
+                    String name = names.get(random.nextInt(names.size()));
+                    corpus.add(random.nextBoolean() ? name : name.toUpperCase() + "x");
+                    break;
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * The regex-based parser ColorParser replaced, kept here as the reference implementation.
+     */
+    static final class LegacyColorUtil {
+        private static final Pattern RGB_PATTERN = Pattern.compile(
+            "rgb\\s*\\(\\s*(\\d+)\\s*,\\s*(\\d+)\\s*,\\s*(\\d+)\\s*\\)", Pattern.CASE_INSENSITIVE);
+        private static final Pattern RGBA_PATTERN = Pattern.compile(
+            "rgba\\s*\\(\\s*(\\d+)\\s*,\\s*(\\d+)\\s*,\\s*(\\d+)\\s*,\\s*([\\d.]+)\\s*\\)", Pattern.CASE_INSENSITIVE);
+        private static final Pattern HSL_PATTERN = Pattern.compile(
+            "hsl\\s*\\(\\s*([\\d.]+)\\s*,\\s*([\\d.]+)%\\s*,\\s*([\\d.]+)%\\s*\\)", Pattern.CASE_INSENSITIVE);
+        private static final Pattern HSLA_PATTERN = Pattern.compile(
+            "hsla\\s*\\(\\s*([\\d.]+)\\s*,\\s*([\\d.]+)%\\s*,\\s*([\\d.]+)%\\s*,\\s*([\\d.]+)\\s*\\)", Pattern.CASE_INSENSITIVE);
+
+        static Color parse(String colorString) {
+            String trimmed = colorString.trim();
+            if (trimmed.startsWith("#")) {
+                return parseHex(trimmed);
+            }
+            String lower = trimmed.toLowerCase();
+            if (lower.startsWith("rgb")) {
+                Color color = parseRgb(RGBA_PATTERN.matcher(trimmed), true);
+                return color != null ? color : parseRgb(RGB_PATTERN.matcher(trimmed), false);
+            }
+            if (lower.startsWith("hsl")) {
+                Color color = parseHsl(HSLA_PATTERN.matcher(trimmed), true);
+                return color != null ? color : parseHsl(HSL_PATTERN.matcher(trimmed), false);
+            }
+            return NamedColors.getColorByName(trimmed);
+        }
+
+        private static Color parseHex(String hex) {
+            String digits = hex.substring(1);
+            if (!digits.matches("[0-9a-fA-F]+")) {
+                return null;
+            }
+            switch (digits.length()) {
+                case 3:
+                    return new Color(nibble(digits, 0), nibble(digits, 1), nibble(digits, 2));
+                case 4:
+                    return new Color(nibble(digits, 0), nibble(digits, 1), nibble(digits, 2), nibble(digits, 3));
+                case 6:
+                    return new Color(Integer.parseInt(digits.substring(0, 2), 16),
+                            Integer.parseInt(digits.substring(2, 4), 16), Integer.parseInt(digits.substring(4, 6), 16));
+                case 8:
+                    return new Color(Integer.parseInt(digits.substring(0, 2), 16),
+                            Integer.parseInt(digits.substring(2, 4), 16), Integer.parseInt(digits.substring(4, 6), 16),
+                            Integer.parseInt(digits.substring(6, 8), 16));
+                default:
+                    return null;
+            }
+        }
+
+        private static int nibble(String digits, int index) {
+            return Integer.parseInt(digits.substring(index, index + 1), 16) * 17;
+        }
+
+        private static Color parseRgb(Matcher matcher, boolean alpha) {
+            if (!matcher.matches()) {
+                return null;
+            }
+            try {
+                int r = Integer.parseInt(matcher.group(1));
+                int g = Integer.parseInt(matcher.group(2));
+                int b = Integer.parseInt(matcher.group(3));
+                float a = alpha ? Float.parseFloat(matcher.group(4)) : 1.0f;
+                if (r > 255 || g > 255 || b > 255 || a < 0.0f || a > 1.0f) {
+                    return null;
+                }
+                return new Color(r, g, b, Math.round(a * 255));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Color parseHsl(Matcher matcher, boolean alpha) {
+            if (!matcher.matches()) {
+                return null;
+            }
+            try {
+                float h = Float.parseFloat(matcher.group(1));
+                float s = Float.parseFloat(matcher.group(2));
+                float l = Float.parseFloat(matcher.group(3));
+                float a = alpha ? Float.parseFloat(matcher.group(4)) : 1.0f;
+                if (h > 360 || s > 100 || l > 100 || a < 0.0f || a > 1.0f) {
+                    return null;
+                }
+                return hslToRgb(h / 360.0f, s / 100.0f, l / 100.0f, a);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Color hslToRgb(float h, float s, float l, float alpha) {
+            float r, g, b;
+            if (s == 0) {
+                r = g = b = l;
+            } else {
+                float q = l < 0.5f ? l * (1 + s) : l + s - l * s;
+                float p = 2 * l - q;
+                r = hueToRgb(p, q, h + 1.0f / 3.0f);
+                g = hueToRgb(p, q, h);
+                b = hueToRgb(p, q, h - 1.0f / 3.0f);
+            }
+            return new Color(Math.round(r * 255), Math.round(g * 255), Math.round(b * 255), Math.round(alpha * 255));
+        }
+
+        private static float hueToRgb(float p, float q, float t) {
+            if (t < 0) t += 1;
+            if (t > 1) t -= 1;
+            if (t < 1.0f / 6.0f) return p + (q - p) * 6 * t;
+            if (t < 1.0f / 2.0f) return q;
+            if (t < 2.0f / 3.0f) return p + (q - p) * (2.0f / 3.0f - t) * 6;
+            return p;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.msaraiva.pytcss;
 
+import com.intellij.lang.injection.InjectedLanguageManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -102,4 +103,72 @@ public class CrossFileVariableTest extends BasePlatformTestCase {
         assertTrue("Should include $primary", completions.contains("$primary"));
         assertTrue("Should include $secondary", completions.contains("$secondary"));
     }
+
+    public void testPolyVariantResolve() {
+        myFixture.addFileToProject("b/theme.tcss", "$primary: #ff0000;");
+        myFixture.addFileToProject("a/theme.tcss", "$primary: #0066cc;");
+        PsiFile mainFile = myFixture.configureByText("main.tcss", "Button { background: $primary; }");
+
+        TcssVariableReference ref = PsiTreeUtil.findChildOfType(mainFile, TcssVariableReference.class);
+        assertNotNull(ref);
+        assertSame("Reference object is reused", ref.getReference(), ref.getReference());
+
+        java.util.List<TcssVariableDeclaration> decls = ref.resolveDeclarations();
+        assertEquals(2, decls.size());
+        assertEquals("a", decls.get(0).getContainingFile().getContainingDirectory().getName());
+        assertSame("First candidate by path", decls.get(0), ref.resolveDeclaration());
+        assertTrue(ref.getReference().isReferenceTo(decls.get(1)));
+    }
+
+    public void testResolveToPythonCssString() {
+        PsiFile widget = myFixture.addFileToProject("widget.py",
+                "class Panel:\n" +
+                "    DEFAULT_CSS = \"\"\"\n" +
+                "    $brand: #ff0000;\n" +
+                "    Panel { background: $brand; }\n" +
+                "    \"\"\"\n");
+        myFixture.addFileToProject("theme.tcss", "$brand: #0066cc;");
+        PsiFile mainFile = myFixture.configureByText("main.tcss", "Button { background: $brand; }");
+
+        TcssVariableReference ref = PsiTreeUtil.findChildOfType(mainFile, TcssVariableReference.class);
+        assertNotNull(ref);
+        java.util.List<TcssVariableDeclaration> decls = ref.resolveDeclarations();
+        assertEquals(2, decls.size());
+
+        assertEquals("theme.tcss", decls.get(0).getContainingFile().getName());
+        TcssVariableDeclaration python = decls.get(1);
+        assertEquals("brand", python.getVariableName());
+        assertEquals(widget, InjectedLanguageManager.getInstance(getProject()).getTopLevelFile(python));
+        assertEquals(2, VariableResolver.findDeclarationsCrossFile("brand", getProject()).size());
+    }
+
+    public void testLocalDeclarationIsOnlyCandidate() {
+        myFixture.addFileToProject("colors.tcss", "$primary: #0066cc;");
+        PsiFile mainFile = myFixture.configureByText("main.tcss",
+                "$primary: red;\n" +
+                "Button { background: $primary; }");
+
+        TcssVariableReference ref = PsiTreeUtil.findChildOfType(mainFile, TcssVariableReference.class);
+        assertNotNull(ref);
+        java.util.List<TcssVariableDeclaration> decls = ref.resolveDeclarations();
+        assertEquals(1, decls.size());
+        assertEquals(mainFile, decls.get(0).getContainingFile());
+    }
+
+    public void testUndefinedVariableNamesBatched() {
+        myFixture.addFileToProject("colors.tcss", "$primary: #0066cc;");
+        PsiFile mainFile = myFixture.configureByText("main.tcss",
+                "$local: red;\n" +
+                "Button { color: $primary; background: $local; border: tall $missing; }\n" +
+                "Label { color: $missing; background: $other; }");
+
+        assertEquals(java.util.Set.of("missing", "other"), VariableResolver.getUndefinedVariableNames(mainFile));
+    }
+
+    public void testUndefinedVariableAnnotation() {
+        myFixture.addFileToProject("colors.tcss", "$primary: #0066cc;");
+        myFixture.configureByText("main.tcss",
+                "Button { color: $primary; background: <error descr=\"Undefined variable 'missing'\">$missing</error>; }");
+        myFixture.checkHighlighting(false, false, false);
+    }
 }
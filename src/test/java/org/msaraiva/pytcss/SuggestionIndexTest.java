@@ -0,0 +1,74 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.color.NamedColors;
+import org.msaraiva.pytcss.constants.TcssConstants;
+import org.msaraiva.pytcss.metadata.TcssPropertyCatalog;
+import org.msaraiva.pytcss.metadata.TcssPropertyInfo;
+import org.msaraiva.pytcss.util.SuggestionIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for precompiled fuzzy suggestions.
+ */
+public class SuggestionIndexTest extends BasePlatformTestCase {
+
+    public void testBoundedDistance() {
+        assertEquals(0, SuggestionIndex.distance("color", "color", 2));
+        assertEquals(1, SuggestionIndex.distance("colr", "color", 2));
+        assertEquals(3, SuggestionIndex.distance("kitten", "sitting", 5));
+        assertEquals("Beyond the limit returns limit + 1", 3, SuggestionIndex.distance("abc", "xyz123", 2));
+    }
+
+    public void testSuggestions() {
+        assertEquals("background", TcssPropertyCatalog.getSuggestion("backgrund"));
+        assertEquals("color", TcssPropertyCatalog.getSuggestion("COLOUR"));
+        assertNull(TcssPropertyCatalog.getSuggestion("completely-unknown"));
+        assertEquals("hover", TcssConstants.getPseudoClassSuggestion("hovr"));
+        assertEquals("horizontal", TcssConstants.getEnumValueSuggestion("layout", "horizntal"));
+        assertNull(TcssConstants.getEnumValueSuggestion("color", "red"));
+        assertEquals("red", NamedColors.getSuggestion("rd"));
+        assertNull(SuggestionIndex.EMPTY.suggest("anything"));
+    }
+
+    public void testMatchesLinearScan() {
+        List<String> names = new ArrayList<>();
+        for (TcssPropertyInfo info : TcssPropertyCatalog.getAll()) {
+            names.add(info.getName());
+        }
+        SuggestionIndex index = SuggestionIndex.of(names);
+
+        Random random = new Random(42);
+        for (String name : names) {
+            StringBuilder typo = new StringBuilder(name);
+            for (int edits = random.nextInt(4); edits > 0 && typo.length() > 1; edits--) {
+                int at = random.nextInt(typo.length());
+                if (random.nextBoolean()) {
+                    typo.deleteCharAt(at);
+                } else {
+                    typo.setCharAt(at, (char) ('a' + random.nextInt(26)));
+                }
+            }
+            String expected = TcssConstants.getSuggestion(typo.toString(), names);
+            String actual = index.suggest(typo.toString());
+            if (expected == null) {
+                assertNull(typo.toString(), actual);
+            } else {
+                assertNotNull(typo.toString(), actual);
+                assertEquals("Same distance for " + typo,
+                        SuggestionIndex.distance(typo.toString(), expected, 2),
+                        SuggestionIndex.distance(typo.toString(), actual, 2));
+            }
+        }
+    }
+
+    public void testUndefinedVariableSuggestsDeclaredName() {
+        myFixture.addFileToProject("colors.tcss", "$primary: #0066cc;");
+        myFixture.configureByText("main.tcss",
+                "Button { color: <error descr=\"Undefined variable 'primry'. Did you mean '$primary'?\">$primry</error>; }");
+        myFixture.checkHighlighting(false, false, false);
+    }
+}
@@ -0,0 +1,76 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.util.TcssColorResolutionCache;
+import org.msaraiva.pytcss.util.VariableResolver;
+
+import java.awt.Color;
+
+/**
+ * Tests for the project-wide color resolution cache.
+ */
+public class TcssColorResolutionCacheTest extends BasePlatformTestCase {
+
+    public void testChainsFollowedAcrossFiles() {
+        myFixture.addFileToProject("theme.tcss", "$accent: $base;\n");
+        myFixture.addFileToProject("base.tcss", "$base: #0066cc;\n");
+        PsiFile main = myFixture.configureByText("main.tcss",
+                "$local: $accent;\n" +
+                "Button { color: $local; }");
+
+        assertEquals(new Color(0x0066cc), VariableResolver.resolveColorCrossFile("accent", main));
+        assertEquals("Local chains continue project-wide",
+                new Color(0x0066cc), VariableResolver.resolveColorCrossFile("local", main));
+        assertNull("File-scope resolution stays within the file", VariableResolver.resolveColor("local", main));
+    }
+
+    public void testDeclaringFileShadowsProjectWide() {
+        myFixture.addFileToProject("a.tcss", "$primary: $base;\n$base: red;\n");
+        myFixture.addFileToProject("b.tcss", "$base: blue;\n");
+
+        assertEquals(Color.RED.getRGB(), (int) getCache().resolve("primary"));
+    }
+
+    public void testCyclesAcrossFiles() {
+        myFixture.addFileToProject("a.tcss", "$a: $b;\n");
+        myFixture.addFileToProject("b.tcss", "$b: $a;\n");
+        myFixture.addFileToProject("c.tcss", "$text: 1fr;\n");
+
+        TcssColorResolutionCache cache = getCache();
+        assertEquals(TcssColorResolutionCache.CYCLIC, cache.resolve("a"));
+        assertEquals(TcssColorResolutionCache.CYCLIC, cache.resolve("b"));
+        assertEquals(TcssColorResolutionCache.UNRESOLVED, cache.resolve("text"));
+        assertEquals(TcssColorResolutionCache.UNRESOLVED, cache.resolve("missing"));
+    }
+
+    public void testHitsAndInvalidationOnEdit() {
+        myFixture.addFileToProject("colors.tcss", "$primary: red;\n");
+        PsiFile main = myFixture.configureByText("main.tcss", "$local: blue;\n");
+
+        TcssColorResolutionCache cache = getCache();
+        cache.clear();
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+
+        assertEquals(Color.RED, cache.resolveColor("primary"));
+        assertEquals(Color.RED, cache.resolveColor("primary"));
+        assertEquals(misses + 1, cache.getMissCount());
+        assertEquals(hits + 1, cache.getHitCount());
+
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(0, "$other: green;\n"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        assertEquals(Color.RED, cache.resolveColor("primary"));
+        assertEquals("TCSS edits invalidate cached results", misses + 2, cache.getMissCount());
+        assertNotNull(VariableResolver.resolveColor("local", main));
+    }
+
+    private TcssColorResolutionCache getCache() {
+        return TcssColorResolutionCache.getInstance(getProject());
+    }
+}
@@ -0,0 +1,41 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.usageView.UsageInfo;
+import org.msaraiva.pytcss.search.TcssWordsScanner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tests for the TCSS words scanner and Find Usages.
+ */
+public class TcssFindUsagesTest extends BasePlatformTestCase {
+
+    public void testWordsScanner() {
+        List<String> code = new ArrayList<>();
+        List<String> comments = new ArrayList<>();
+        new TcssWordsScanner().processWords(
+                "/* theme */\n$primary-dark: red;\n#main .panel:hover { color: $primary-dark; }\n",
+                occurrence -> {
+                    String word = occurrence.getBaseText()
+                            .subSequence(occurrence.getStart(), occurrence.getEnd()).toString();
+                    (occurrence.getKind() == WordOccurrence.Kind.COMMENTS ? comments : code).add(word);
+                    return true;
+                });
+
+        assertEquals(List.of("theme"), comments);
+        assertEquals(List.of("primary", "dark", "red", "main", "panel", "hover", "color", "primary", "dark"), code);
+    }
+
+    public void testFindUsagesAcrossFiles() {
+        myFixture.addFileToProject("button.tcss", "Button { color: $primary; }\n");
+        myFixture.addFileToProject("label.tcss", "Label { color: red; }\n");
+        myFixture.configureByText("colors.tcss", "$prim<caret>ary: red;\n$accent: $primary;\n");
+
+        Collection<UsageInfo> usages = myFixture.findUsages(myFixture.getElementAtCaret());
+        assertEquals(2, usages.size());
+    }
+}
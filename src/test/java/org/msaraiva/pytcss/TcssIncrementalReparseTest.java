@@ -0,0 +1,112 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.FileASTNode;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.Couple;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.impl.source.text.BlockSupportImpl;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.psi.TcssPropertyDeclaration;
+import org.msaraiva.pytcss.psi.TcssRuleBlock;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+
+import java.util.List;
+
+/**
+ * Tests that edits inside a rule block reparse only that block.
+ */
+public class TcssIncrementalReparseTest extends BasePlatformTestCase {
+
+    public void testSingleCharacterEditReparsesOnlyEnclosingBlock() {
+        String text = buildTheme(2000);
+        PsiFile file = myFixture.configureByText("theme.tcss", text);
+        int fileNodeCount = countNodes(file.getNode());
+
+        int editOffset = text.indexOf("padding: 1", text.length() / 2) + "padding: 1".length();
+        String newText = text.substring(0, editOffset) + "0" + text.substring(editOffset);
+
+        FileASTNode fileNode = file.getNode();
+        Couple<ASTNode> roots = BlockSupportImpl.findReparseableRoots(
+                (PsiFileImpl) file, fileNode, new TextRange(editOffset, editOffset), newText);
+        assertNotNull("Edit inside a block should be reparseable without reparsing the file", roots);
+
+        ASTNode oldRoot = roots.first;
+        ASTNode newRoot = roots.second;
+        assertEquals(TcssElementTypes.RULE_BLOCK, oldRoot.getElementType());
+        assertTrue("Reparse root should contain the edit", oldRoot.getTextRange().contains(editOffset));
+
+        int reparsedNodes = countNodes(newRoot);
+        assertEquals("Only the edited block should be rebuilt", countNodes(oldRoot), reparsedNodes);
+        assertTrue("Reparse should touch a tiny fraction of the tree, got " + reparsedNodes,
+                reparsedNodes * 100 < fileNodeCount);
+    }
+
+    public void testEditInsideNestedBlockKeepsOuterPsi() {
+        String text = buildTheme(50);
+        PsiFile file = myFixture.configureByText("theme.tcss", text);
+        List<TcssRuleSet> ruleSets = PsiTreeUtil.getChildrenOfTypeAsList(file, TcssRuleSet.class);
+        TcssRuleSet first = ruleSets.get(0);
+        TcssRuleSet edited = ruleSets.get(25);
+        TcssRuleSet nested = edited.getNestedRuleSets().get(0);
+        TcssRuleBlock nestedBlock = nested.getBlock();
+        assertNotNull(nestedBlock);
+
+        int editOffset = nestedBlock.getTextRange().getStartOffset() + nestedBlock.getText().indexOf("padding: 1") + "padding: 1".length();
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(editOffset, "0"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        assertTrue("Unrelated rule sets should survive the edit", first.isValid());
+        assertTrue("Enclosing rule set should survive the edit", edited.isValid());
+        assertTrue("Nested rule set header should survive the edit", nested.isValid());
+        assertSame(edited, PsiTreeUtil.getChildrenOfTypeAsList(file, TcssRuleSet.class).get(25));
+
+        TcssPropertyDeclaration padding = nested.getPropertyDeclarations().get(0);
+        assertEquals("padding: 10 2;", padding.getText());
+    }
+
+    public void testUnbalancedEditFallsBackToParentReparse() {
+        assertTrue(TcssRuleBlockElementType.isBalancedBlock("{ color: red; & .a { width: 1; } }"));
+        assertTrue(TcssRuleBlockElementType.isBalancedBlock("{ /* } */ content: \"}\"; }"));
+        assertFalse(TcssRuleBlockElementType.isBalancedBlock("{ color: red; "));
+        assertFalse(TcssRuleBlockElementType.isBalancedBlock("{ color: red; } }"));
+        assertFalse(TcssRuleBlockElementType.isBalancedBlock("{ } A { }"));
+        assertFalse(TcssRuleBlockElementType.isBalancedBlock(" { }"));
+    }
+
+    public void testRuleSetWithoutBracesStillParsesDeclarations() {
+        PsiFile file = myFixture.configureByText("broken.tcss", "Button color: red; }");
+        TcssRuleSet ruleSet = PsiTreeUtil.findChildOfType(file, TcssRuleSet.class);
+        assertNotNull(ruleSet);
+        assertNull(ruleSet.getBlock());
+        assertEquals(1, ruleSet.getPropertyDeclarations().size());
+    }
+
+    private static int countNodes(ASTNode node) {
+        int count = 1;
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
+    private static String buildTheme(int rules) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rules; i++) {
+            sb.append("$color").append(i).append(": #1e1e1e;\n");
+            sb.append("Widget").append(i).append(" .item:hover {\n");
+            sb.append("    background: $color").append(i).append(";\n");
+            sb.append("    & > .child {\n");
+            sb.append("        padding: 1 2;\n");
+            sb.append("    }\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,305 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.psi.tree.IElementType;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.color.NamedColors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for TcssLexer and TcssHighlightingLexer: restartability, relexing cost and token classification.
+ * Timings live in {@code src/benchmark}.
+ */
+public class TcssLexerTest extends BasePlatformTestCase {
+    static final int STYLESHEET_BLOCK_LINES = 8;
+
+    private static final String SAMPLE =
+            "$primary: #0066cc;\n" +
+            "$accent: rgba(255, 0, 0, 0.5);\n" +
+            "/* header */\n" +
+            "Screen > Container .panel:hover, #main {\n" +
+            "    background: $primary 50%;\n" +
+            "    color: red !important;\n" +
+            "    & .child {\n" +
+            "        border: solid $accent;\n" +
+            "        padding: 1 2;\n" +
+            "    }\n" +
+            "    text-style: bold;\n" +
+            "}\n";
+
+    public void testStatesAreBounded() {
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            deep.append("A { ");
+        }
+        for (int i = 0; i < 40; i++) {
+            deep.append("} ");
+        }
+
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(deep, 0, deep.length(), 0);
+        int maxState = TcssLexer.encodeState(TcssLexer.MAX_TRACKED_BRACE_DEPTH, true);
+        while (lexer.getTokenType() != null) {
+            int state = lexer.getState();
+            assertTrue("State out of range: " + state, state >= 0 && state <= maxState);
+            lexer.advance();
+        }
+    }
+
+    public void testRestartFromAnyTokenMatchesFullLex() {
+        List<Token> full = lex(SAMPLE, 0, 0);
+
+        for (int i = 0; i < full.size(); i++) {
+            Token from = full.get(i);
+            List<Token> restarted = lex(SAMPLE, from.start, from.stateBefore);
+            assertEquals("Restart at offset " + from.start + " should produce the same tokens",
+                    full.subList(i, full.size()), restarted);
+        }
+    }
+
+    public void testRestartInsidePropertyValueKeepsValueContext() {
+        String text = "Button { color: red; }";
+        int valueStart = text.indexOf("red");
+
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(text, valueStart, text.length(), TcssLexer.encodeState(1, true));
+        assertEquals(TcssTokenTypes.COLOR_KEYWORD, lexer.getTokenType());
+    }
+
+    public void testHighlightingLexerMatchesParsingLexerWithTwoStates() {
+        List<Token> parsing = lex(new TcssLexer(), SAMPLE, 0, 0);
+        List<Token> highlighting = lex(new TcssHighlightingLexer(), SAMPLE, 0, 0);
+
+        assertEquals(parsing.size(), highlighting.size());
+        for (int i = 0; i < parsing.size(); i++) {
+            Token expected = parsing.get(i);
+            Token actual = highlighting.get(i);
+            assertEquals(expected.type(), actual.type());
+            assertEquals(expected.start(), actual.start());
+            assertEquals(expected.end(), actual.end());
+            assertTrue("Unexpected highlighting state " + actual.stateBefore(),
+                    actual.stateBefore() == 0 || actual.stateBefore() == TcssLexer.STATE_IN_PROPERTY_VALUE);
+        }
+    }
+
+    public void testHighlightingLexerRestartsAtLineStarts() {
+        List<Token> full = lex(new TcssHighlightingLexer(), SAMPLE, 0, 0);
+
+        for (int i = 0; i < full.size(); i++) {
+            Token from = full.get(i);
+            if (from.start() > 0 && SAMPLE.charAt(from.start() - 1) != '\n') {
+                continue;
+            }
+            assertEquals("Nested rules still start lines in the initial state", 0, from.stateBefore());
+            List<Token> restarted = lex(new TcssHighlightingLexer(), SAMPLE, from.start(), 0);
+            assertEquals(full.subList(i, full.size()), restarted);
+        }
+    }
+
+    /**
+     * Simulates an editor keystroke: relex starts at the last token boundary before the edit,
+     * using the state recorded there, and stops once the new token stream rejoins the old one.
+     * The number of relexed tokens must not depend on how long the file is.
+     */
+    public void testRelexCostIndependentOfFileLength() {
+        int smallCost = relexCostForMiddleEdit(buildTheme(100));
+        int largeCost = relexCostForMiddleEdit(buildTheme(10_000));
+
+        assertTrue("Relex should stop shortly after the edit, got " + largeCost, largeCost < 50);
+        assertEquals("Relex cost should not grow with file length", smallCost, largeCost);
+    }
+
+    /**
+     * Value identifiers are classified through a precomputed keyword table instead of
+     * {@code toString().toLowerCase()} plus string comparisons. Both must agree on every identifier.
+     */
+    public void testValueKeywordClassificationMatchesLegacy() {
+        String corpus = buildValueCorpus(2_000);
+        int identifiers = 0;
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(corpus, 0, corpus.length(), 0);
+        while (lexer.getTokenType() != null) {
+            IElementType type = lexer.getTokenType();
+            if (type == TcssTokenTypes.IDENTIFIER || type == TcssTokenTypes.COLOR_KEYWORD
+                    || type == TcssTokenTypes.INITIAL_KEYWORD || type == TcssTokenTypes.COLOR_FUNCTION_NAME) {
+                identifiers++;
+                assertEquals("Classification mismatch for '" + corpus.substring(lexer.getTokenStart(), lexer.getTokenEnd()) + "'",
+                        legacyClassify(corpus, lexer.getTokenStart(), lexer.getTokenEnd()), type);
+            }
+            lexer.advance();
+        }
+        assertTrue(identifiers > 0);
+    }
+
+    public void testNonAsciiCharactersUseUnicodeClasses() {
+        String text = "Caf\u00e9 {\u2003couleur_\u00e9t\u00e9: rouge;\u3000}";
+        List<Token> tokens = lex(text, 0, 0);
+
+        assertEquals(TcssTokenTypes.TYPE_SELECTOR, tokens.get(0).type());
+        assertEquals("Caf\u00e9", text.substring(tokens.get(0).start(), tokens.get(0).end()));
+        assertEquals(TcssTokenTypes.WHITE_SPACE, tokens.get(3).type());
+        assertEquals(TcssTokenTypes.PROPERTY_NAME, tokens.get(4).type());
+        assertEquals("couleur_\u00e9t\u00e9", text.substring(tokens.get(4).start(), tokens.get(4).end()));
+        assertEquals(TcssTokenTypes.WHITE_SPACE, tokens.get(tokens.size() - 2).type());
+    }
+
+    public void testWhitespaceAfterPropertyNameIsSingleToken() {
+        String text = "A { color \t\n : red; }";
+        List<Token> tokens = lex(text, 0, 0);
+
+        assertEquals(TcssTokenTypes.PROPERTY_NAME, tokens.get(4).type());
+        Token whitespace = tokens.get(5);
+        assertEquals(TcssTokenTypes.WHITE_SPACE, whitespace.type());
+        assertEquals(" \t\n ", text.substring(whitespace.start(), whitespace.end()));
+        assertEquals(TcssTokenTypes.COLON, tokens.get(6).type());
+    }
+
+    /**
+     * A generated stylesheet exercising the ASCII character-class table and the reuse of whitespace
+     * runs measured during property-name lookahead lexes into contiguous tokens with no bad characters.
+     */
+    public void testGeneratedStylesheetLexesCleanly() {
+        String stylesheet = buildStylesheet(50);
+
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(stylesheet, 0, stylesheet.length(), 0);
+        int expectedStart = 0;
+        while (lexer.getTokenType() != null) {
+            assertEquals(expectedStart, lexer.getTokenStart());
+            assertNotSame("Bad character at " + lexer.getTokenStart(), TcssTokenTypes.BAD_CHARACTER, lexer.getTokenType());
+            expectedStart = lexer.getTokenEnd();
+            lexer.advance();
+        }
+        assertEquals(stylesheet.length(), expectedStart);
+    }
+
+    /**
+     * A stylesheet of variables, selector lists, declarations and comments, {@link #STYLESHEET_BLOCK_LINES} lines per block.
+     */
+    static String buildStylesheet(int blocks) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < blocks; i++) {
+            sb.append("$surface-").append(i).append(": #1e1e").append(String.format("%02x", i & 0xff)).append(";\n");
+            sb.append("Screen > Panel-").append(i).append(" .item_").append(i).append(":focus, #id-").append(i).append(" {\n");
+            sb.append("    background   : $surface-").append(i).append(" 80%;\n");
+            sb.append("    border: tall rgba(12, 34, 56, 0.5);\n");
+            sb.append("    padding: 1 2 3 4;\n");
+            sb.append("    width: 50vw;\n");
+            sb.append("    /* comment ").append(i).append(" */\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The value-identifier classification TcssLexer used before the keyword table.
+     */
+    static IElementType legacyClassify(CharSequence buffer, int start, int end) {
+        String text = buffer.subSequence(start, end).toString();
+        String lowerText = text.toLowerCase();
+        int next = end;
+        while (next < buffer.length() && Character.isWhitespace(buffer.charAt(next))) {
+            next++;
+        }
+        if ((lowerText.equals("rgb") || lowerText.equals("rgba") ||
+             lowerText.equals("hsl") || lowerText.equals("hsla")) &&
+            next < buffer.length() && buffer.charAt(next) == '(') {
+            return TcssTokenTypes.COLOR_FUNCTION_NAME;
+        } else if (lowerText.equals("auto")) {
+            return TcssTokenTypes.COLOR_KEYWORD;
+        } else if (lowerText.equals("initial")) {
+            return TcssTokenTypes.INITIAL_KEYWORD;
+        } else if (NamedColors.isNamedColor(text)) {
+            return TcssTokenTypes.COLOR_KEYWORD;
+        }
+        return TcssTokenTypes.IDENTIFIER;
+    }
+
+    static String buildValueCorpus(int rules) {
+        String[] values = {"red", "Crimson", "auto", "initial", "solid", "bold italic", "rgb(1, 2, 3)",
+                "HSLA(120, 50%, 50%, 0.5)", "ansi_bright_blue", "transparent", "center middle", "rgba"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rules; i++) {
+            sb.append("Widget").append(i).append(" {\n");
+            sb.append("    color: ").append(values[i % values.length]).append(";\n");
+            sb.append("    border: tall ").append(values[(i + 5) % values.length]).append(";\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    private static int relexCostForMiddleEdit(String text) {
+        List<Token> before = lex(text, 0, 0);
+
+        // Insert a character inside a property value in the middle of the file
+        int editOffset = text.indexOf("#1", text.length() / 2) + 1;
+        String inserted = "f";
+        String edited = text.substring(0, editOffset) + inserted + text.substring(editOffset);
+
+        int restartIndex = 0;
+        for (int i = 0; i < before.size(); i++) {
+            if (before.get(i).start < editOffset) {
+                restartIndex = i;
+            } else {
+                break;
+            }
+        }
+        Token restart = before.get(restartIndex);
+
+        TcssLexer lexer = new TcssLexer();
+        lexer.start(edited, restart.start, edited.length(), restart.stateBefore);
+
+        int relexed = 0;
+        int oldIndex = restartIndex;
+        while (lexer.getTokenType() != null) {
+            int shiftedStart = lexer.getTokenStart() - inserted.length();
+            if (lexer.getTokenStart() > editOffset) {
+                while (oldIndex < before.size() && before.get(oldIndex).start < shiftedStart) {
+                    oldIndex++;
+                }
+                if (oldIndex < before.size()) {
+                    Token old = before.get(oldIndex);
+                    if (old.start == shiftedStart && old.stateBefore == lexer.getState()) {
+                        return relexed;
+                    }
+                }
+            }
+            relexed++;
+            lexer.advance();
+        }
+        return relexed;
+    }
+
+    private static String buildTheme(int rules) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rules; i++) {
+            sb.append("$color").append(i).append(": #1").append(String.format("%05x", i)).append(";\n");
+            sb.append("Widget").append(i).append(" .item:hover {\n");
+            sb.append("    background: $color").append(i).append(";\n");
+            sb.append("    & > .child { padding: 1 2; }\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    private static List<Token> lex(CharSequence text, int start, int initialState) {
+        return lex(new TcssLexer(), text, start, initialState);
+    }
+
+    private static List<Token> lex(TcssLexer lexer, CharSequence text, int start, int initialState) {
+        List<Token> tokens = new ArrayList<>();
+        lexer.start(text, start, text.length(), initialState);
+        while (lexer.getTokenType() != null) {
+            tokens.add(new Token(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd(), lexer.getState()));
+            lexer.advance();
+        }
+        return tokens;
+    }
+
+    /**
+     * A lexed token together with the lexer state that was current when it started.
+     */
+    private record Token(IElementType type, int start, int end, int stateBefore) {
+    }
+}
@@ -0,0 +1,38 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.color.NamedColors;
+import org.msaraiva.pytcss.completion.TcssLookupPools;
+import org.msaraiva.pytcss.metadata.TcssPropertyCatalog;
+
+import java.util.List;
+
+/**
+ * Tests for the shared completion lookup pools.
+ */
+public class TcssLookupPoolsTest extends BasePlatformTestCase {
+
+    public void testPoolsAreBuiltOnce() {
+        assertSame(TcssLookupPools.getPropertyNames(), TcssLookupPools.getPropertyNames());
+        assertSame(TcssLookupPools.getNamedColors(), TcssLookupPools.getNamedColors());
+        assertSame(TcssLookupPools.getEnumValues("display"), TcssLookupPools.getEnumValues("DISPLAY"));
+    }
+
+    public void testPoolContents() {
+        assertEquals(TcssPropertyCatalog.getAll().size(), TcssLookupPools.getPropertyNames().size());
+        assertEquals(NamedColors.getAllColorNames().size() + 1, TcssLookupPools.getNamedColors().size());
+
+        List<LookupElement> display = TcssLookupPools.getEnumValues("display");
+        assertEquals(List.of("block", "grid", "hidden", "none"), display.stream().map(LookupElement::getLookupString).toList());
+        assertTrue(TcssLookupPools.getEnumValues("color").isEmpty());
+    }
+
+    public void testCompletionUsesPools() {
+        myFixture.configureByText("main.tcss", "Screen {\n    display: <caret>\n}\n");
+        myFixture.completeBasic();
+        List<String> strings = myFixture.getLookupElementStrings();
+        assertNotNull(strings);
+        assertSameElements(strings, "block", "grid", "hidden", "none");
+    }
+}
@@ -0,0 +1,145 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.indexing.FindSymbolParameters;
+import org.msaraiva.pytcss.index.TcssVariableScanner;
+import org.msaraiva.pytcss.navigation.TcssChooseByNameContributor;
+import org.msaraiva.pytcss.psi.TcssRuleSet;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.msaraiva.pytcss.util.VariableResolver;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for the TCSS stub tree and the variable/selector stub indexes.
+ */
+public class TcssStubIndexTest extends BasePlatformTestCase {
+
+    public void testCrossFileLookupDoesNotParseDeclaringFile() {
+        PsiFile colors = myFixture.addFileToProject("colors.tcss",
+                "$primary: #0066cc;\n" +
+                "$accent: $primary 50%;\n" +
+                "Button { color: $primary; }\n");
+
+        Collection<TcssVariableDeclaration> declarations =
+                VariableResolver.findDeclarationsCrossFile("primary", getProject());
+        assertEquals(1, declarations.size());
+
+        TcssVariableDeclaration declaration = declarations.iterator().next();
+        assertEquals("primary", declaration.getVariableName());
+        assertEquals("#0066cc", declaration.getValueText());
+        assertFalse("Declaring file should be served from stubs", ((PsiFileImpl) colors).isContentsLoaded());
+    }
+
+    public void testCrossFileColorResolvesFromStubs() {
+        PsiFile colors = myFixture.addFileToProject("colors.tcss",
+                "$base: #0066cc;\n" +
+                "$primary: $base;\n");
+        PsiFile main = myFixture.configureByText("main.tcss", "Button { color: $primary; }");
+
+        Color color = VariableResolver.resolveColorCrossFile("primary", main);
+        assertEquals(new Color(0x0066cc), color);
+        assertFalse("Chained resolution should not parse the declaring file", ((PsiFileImpl) colors).isContentsLoaded());
+    }
+
+    public void testLastDeclarationPerFileWins() {
+        myFixture.addFileToProject("colors.tcss",
+                "$primary: red;\n" +
+                "$primary: blue;\n");
+
+        Collection<TcssVariableDeclaration> declarations =
+                VariableResolver.findDeclarationsCrossFile("primary", getProject());
+        assertEquals(1, declarations.size());
+        assertEquals("blue", declarations.iterator().next().getValueText());
+
+        Map<String, Collection<TcssVariableDeclaration>> all = VariableResolver.getAllDeclarationsCrossFile(getProject());
+        assertEquals(2, all.get("primary").size());
+    }
+
+    public void testRuleSetSelectorNames() {
+        PsiFile file = myFixture.configureByText("main.tcss",
+                "Screen > .panel:hover, #main {\n" +
+                "    & .child { color: red; }\n" +
+                "}");
+        List<TcssRuleSet> ruleSets = new ArrayList<>(PsiTreeUtil.findChildrenOfType(file, TcssRuleSet.class));
+        assertEquals(2, ruleSets.size());
+        assertEquals(List.of("Screen", ".panel", ":hover", "#main"), ruleSets.get(0).getSelectorNames());
+        assertEquals(List.of(".child"), ruleSets.get(1).getSelectorNames());
+    }
+
+    public void testGoToSymbolFindsVariablesAndSelectors() {
+        myFixture.addFileToProject("theme.tcss",
+                "$primary: #0066cc;\n" +
+                "Screen .panel { color: $primary; }\n");
+
+        TcssChooseByNameContributor contributor = new TcssChooseByNameContributor();
+        Set<String> names = new HashSet<>();
+        contributor.processNames(name -> {
+            names.add(name);
+            return true;
+        }, GlobalSearchScope.projectScope(getProject()), null);
+        assertTrue(names.contains("primary"));
+        assertTrue(names.contains(".panel"));
+        assertTrue(names.contains("Screen"));
+
+        List<NavigationItem> items = new ArrayList<>();
+        contributor.processElementsWithName(".panel", items::add,
+                FindSymbolParameters.simple(getProject(), false));
+        assertEquals(1, items.size());
+        assertEquals("Screen .panel", items.get(0).getPresentation().getPresentableText());
+    }
+
+    public void testSelectorScannerMatchesStubNames() {
+        String text = "Screen > .panel:hover, #main {\n" +
+                "    & .child { color: red; background: #12345; }\n" +
+                "}\n" +
+                "$accent: #0066cc;";
+        PsiFile file = myFixture.configureByText("main.tcss", text);
+        List<String> expected = new ArrayList<>();
+        for (TcssRuleSet ruleSet : PsiTreeUtil.findChildrenOfType(file, TcssRuleSet.class)) {
+            expected.addAll(ruleSet.getSelectorNames());
+        }
+
+        List<String> scanned = new ArrayList<>();
+        TcssVariableScanner.scanSelectors(text, (name, offset) -> scanned.add(name));
+        assertEquals(expected, scanned);
+    }
+
+    public void testGoToSymbolFindsSelectorsInPythonStrings() {
+        PsiFile widget = myFixture.addFileToProject("widget.py",
+                "class Panel:\n" +
+                "    DEFAULT_CSS = \"\"\"\n" +
+                "    Panel { & .title { color: red; } }\n" +
+                "    \"\"\"\n" +
+                "    HELP = \"Hidden { color: red; }\"\n");
+
+        TcssChooseByNameContributor contributor = new TcssChooseByNameContributor();
+        Set<String> names = new HashSet<>();
+        contributor.processNames(name -> {
+            names.add(name);
+            return true;
+        }, GlobalSearchScope.projectScope(getProject()), null);
+        assertTrue(names.contains("Panel"));
+        assertTrue(names.contains(".title"));
+        assertFalse(names.contains("Hidden"));
+
+        List<NavigationItem> items = new ArrayList<>();
+        contributor.processElementsWithName(".title", items::add,
+                FindSymbolParameters.simple(getProject(), false));
+        assertEquals(1, items.size());
+        assertEquals(widget.getVirtualFile(),
+                InjectedLanguageManager.getInstance(getProject()).getTopLevelFile((TcssRuleSet) items.get(0)).getVirtualFile());
+    }
+}
@@ -0,0 +1,62 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Tests for per-property value grammar validation.
+ */
+public class TcssValueGrammarTest extends BasePlatformTestCase {
+
+    public void testValidValues() {
+        myFixture.configureByText("valid.tcss",
+                "$edge: top;\n" +
+                "Button {\n" +
+                "    margin: 1 2;\n" +
+                "    padding: 1 2 3 4;\n" +
+                "    width: 50%;\n" +
+                "    height: auto;\n" +
+                "    align: center middle;\n" +
+                "    border: solid red;\n" +
+                "    outline: round #ff0000 50%;\n" +
+                "    text-style: bold italic;\n" +
+                "    display: none;\n" +
+                "    dock: $edge;\n" +
+                "    overflow: hidden auto;\n" +
+                "    opacity: 50%;\n" +
+                "    grid-size: 3 2;\n" +
+                "    keyline: thin green;\n" +
+                "    visibility: initial;\n" +
+                "    hatch: cross red;\n" +
+                "}");
+        myFixture.checkHighlighting(false, false, false);
+    }
+
+    public void testArity() {
+        myFixture.configureByText("arity.tcss",
+                "Button {\n" +
+                "    margin: <error descr=\"Property 'margin' expects 1, 2 or 4 scalars, got 3 values\">1 2 3</error>;\n" +
+                "    align: <error descr=\"Property 'align' expects a horizontal and a vertical alignment\">center</error>;\n" +
+                "    border: solid <error descr=\"Unexpected value 'dashed' for 'border': expected a border style and/or a color\">dashed</error>;\n" +
+                "}");
+        myFixture.checkHighlighting(false, false, false);
+    }
+
+    public void testEnumWords() {
+        myFixture.configureByText("enum.tcss",
+                "Button {\n" +
+                "    dock: <error descr=\"Invalid value 'topp' for 'dock': expected one of bottom, left, none, right, top. Did you mean 'top'?\">topp</error>;\n" +
+                "    align: center <error descr=\"Invalid value 'left' for 'align': expected vertical alignment\">left</error>;\n" +
+                "}");
+        myFixture.checkHighlighting(false, false, false);
+    }
+
+    public void testValueKinds() {
+        myFixture.configureByText("kinds.tcss",
+                "Button {\n" +
+                "    color: <error descr=\"Property 'color' expects COLOR, got NUMBER\">1</error>;\n" +
+                "    width: <error descr=\"Property 'width' expects LENGTH, got COLOR\">red</error>;\n" +
+                "    hatch: <error descr=\"Property 'hatch' expects STRING, got COLOR\">#ff0000</error>;\n" +
+                "}");
+        myFixture.checkHighlighting(false, false, false);
+    }
+}
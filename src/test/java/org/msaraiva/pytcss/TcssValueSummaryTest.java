@@ -0,0 +1,55 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.psi.TcssPropertyValue;
+import org.msaraiva.pytcss.psi.TcssValueSummary;
+
+import java.util.List;
+
+/**
+ * Tests for the cached property value summary.
+ */
+public class TcssValueSummaryTest extends BasePlatformTestCase {
+
+    public void testKindsAndScalars() {
+        TcssValueSummary summary = summarize("1fr 50% 2 auto");
+
+        assertTrue(summary.hasAny(TcssValueSummary.NUMBER));
+        assertTrue(summary.hasAny(TcssValueSummary.COLOR));  // "auto" is a color keyword in values
+        assertFalse(summary.hasAny(TcssValueSummary.VARIABLE | TcssValueSummary.STRING));
+        assertEquals(4, summary.getAtomCount());
+
+        List<TcssValueSummary.Scalar> scalars = summary.getScalars();
+        assertEquals(3, scalars.size());
+        assertEquals(1.0, scalars.get(0).getValue());
+        assertEquals("fr", scalars.get(0).getUnit());
+        assertEquals("%", scalars.get(1).getUnit());
+        assertEquals("", scalars.get(2).getUnit());
+    }
+
+    public void testColorsAndVariables() {
+        TcssValueSummary summary = summarize("tall $primary, #ff0000 50%");
+
+        assertTrue(summary.hasAny(TcssValueSummary.IDENTIFIER));
+        assertTrue(summary.hasAny(TcssValueSummary.VARIABLE));
+        assertTrue(summary.hasAny(TcssValueSummary.COMMA));
+        assertEquals(2, summary.getColors().size());
+        assertTrue(summary.getScalars().isEmpty());  // The opacity belongs to the color
+    }
+
+    public void testInitial() {
+        assertTrue(summarize("initial").hasAny(TcssValueSummary.INITIAL));
+    }
+
+    public void testSummaryIsCached() {
+        TcssPropertyValue value = TcssElementFactory.createPropertyValue(getProject(), "1 2");
+        assertNotNull(value);
+        assertSame(value.getSummary(), value.getSummary());
+    }
+
+    private TcssValueSummary summarize(String text) {
+        TcssPropertyValue value = TcssElementFactory.createPropertyValue(getProject(), text);
+        assertNotNull(value);
+        return value.getSummary();
+    }
+}
@@ -0,0 +1,66 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.index.TcssValueUsageIndex;
+import org.msaraiva.pytcss.util.TcssUsageStatistics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the value usage index and usage-ranked completion.
+ */
+public class TcssValueUsageIndexTest extends BasePlatformTestCase {
+
+    public void testIndexText() {
+        String text = "$primary: Red;\n" +
+                      "$accent: $primary 50%;\n" +
+                      "Button { color: $primary; background: red; dock: top; }\n";
+        Map<String, Integer> data = TcssValueUsageIndex.indexText(text);
+
+        assertNull("Variables are counted by the variable usage index", data.get("$primary"));
+        assertNull(data.get("primary"));
+        assertEquals(Integer.valueOf(2), data.get("red"));
+        assertEquals(Integer.valueOf(1), data.get("top"));
+        assertNull("Selectors and property names are not values", data.get("button"));
+    }
+
+    public void testProjectCountsFollowEdits() {
+        myFixture.configureByText("layout.tcss", "A { dock: top; }\n");
+        TcssUsageStatistics statistics = TcssUsageStatistics.getInstance(getProject());
+        assertEquals(1, statistics.getWordCount("top"));
+
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText("A { dock: bottom; }\nB { dock: bottom; }\n"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+        assertEquals(0, statistics.getWordCount("top"));
+        assertEquals(2, statistics.getWordCount("bottom"));
+    }
+
+    public void testProjectCounts() {
+        myFixture.addFileToProject("colors.tcss", "$primary: red;\nA { color: $primary; }\n");
+        myFixture.addFileToProject("app.py",
+                "class MyApp:\n" +
+                "    DEFAULT_CSS = \"\"\"\n" +
+                "    Screen { background: $primary; color: red; }\n" +
+                "    \"\"\"\n");
+
+        TcssUsageStatistics statistics = TcssUsageStatistics.getInstance(getProject());
+        assertEquals(2, statistics.getVariableCount("primary"));
+        assertEquals(2, statistics.getWordCount("RED"));
+        assertEquals(0, statistics.getWordCount("blue"));
+    }
+
+    public void testCompletionPrefersUsedValues() {
+        myFixture.addFileToProject("layout.tcss", "A { dock: bottom; }\nB { dock: bottom; }\nC { dock: left; }\n");
+        myFixture.configureByText("main.tcss", "Screen {\n    dock: <caret>\n}\n");
+
+        myFixture.completeBasic();
+        List<String> strings = myFixture.getLookupElementStrings();
+        assertNotNull(strings);
+        assertEquals(List.of("bottom", "left"), strings.subList(0, 2));
+    }
+}
@@ -0,0 +1,131 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.completion.TcssVariableCompletionModel;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the project-wide variable completion model.
+ */
+public class TcssVariableCompletionModelTest extends BasePlatformTestCase {
+
+    public void testSymbols() {
+        myFixture.addFileToProject("b.tcss", "$primary: blue;\n$gap: 2;\n");
+        myFixture.addFileToProject("a.tcss", "$primary: #ff0000;\n$accent: $primary 50%;\n");
+
+        TcssVariableCompletionModel model = getModel();
+        List<TcssVariableCompletionModel.Symbol> symbols = model.getSymbols();
+        assertEquals(List.of("accent", "gap", "primary"), symbols.stream().map(TcssVariableCompletionModel.Symbol::getName).toList());
+
+        TcssVariableCompletionModel.Symbol primary = model.getSymbol("primary");
+        assertNotNull(primary);
+        assertEquals("a.tcss", primary.getFile().getName());
+        assertEquals(TcssVariableEntry.Kind.COLOR, primary.getKind());
+        assertEquals(0xFFFF0000L, primary.getArgb());
+        assertEquals("$primary", primary.getLookupElement().getLookupString());
+
+        assertEquals(TcssVariableEntry.Kind.NUMBER, model.getSymbol("gap").getKind());
+        assertTrue(model.getSymbol("gap").getArgb() < 0);
+    }
+
+    public void testIncrementalUpdate() {
+        myFixture.addFileToProject("colors.tcss", "$other: green;\n");
+        myFixture.configureByText("main.tcss", "$primary: red;\n$accent: $primary;\n");
+
+        TcssVariableCompletionModel model = getModel();
+        TcssVariableCompletionModel.Symbol other = model.getSymbol("other");
+        TcssVariableCompletionModel.Symbol accent = model.getSymbol("accent");
+        assertEquals(0xFFFF0000L, accent.getArgb());
+
+        // An edit that does not touch declarations keeps every symbol
+        replaceText("$primary: red;\n$accent: $primary;\nScreen { color: red; }\n");
+        assertSame(accent, model.getSymbol("accent"));
+
+        // Changing a declaration re-resolves its dependents; unrelated symbols are reused
+        replaceText("$primary: blue;\n$accent: $primary;\n");
+        assertEquals(0xFF0000FFL, model.getSymbol("accent").getArgb());
+        assertSame(other, model.getSymbol("other"));
+
+        replaceText("$accent: blue;\n");
+        assertNull(model.getSymbol("primary"));
+    }
+
+    public void testPrefixRangeInUsageOrder() {
+        myFixture.addFileToProject("theme.tcss", "$panel: red;\n$primary: red;\n$primary-dark: red;\n$Primary-light: red;\n");
+        myFixture.addFileToProject("app.tcss", "A { color: $primary-dark; }\nB { color: $primary-dark; }\nC { color: $Primary-light; }\n");
+
+        TcssVariableCompletionModel model = getModel();
+        assertEquals(2, model.getUsageCount("primary-dark"));
+        assertEquals(0, model.getUsageCount("missing"));
+        assertEquals(List.of("primary-dark", "Primary-light", "primary"), collect(model, "PRI", 10));
+        assertEquals(List.of("primary-dark", "Primary-light", "panel", "primary"), collect(model, "", 10));
+        assertEquals("Processing stops when the processor does", List.of("primary-dark"), collect(model, "p", 1));
+        assertTrue(collect(model, "x", 10).isEmpty());
+    }
+
+    public void testPythonReferencesCountEach() {
+        myFixture.addFileToProject("theme.tcss", "$primary: red;\n");
+        myFixture.addFileToProject("app.py",
+                "class MyApp:\n" +
+                "    DEFAULT_CSS = \"\"\"\n" +
+                "    Screen { background: $primary; color: $primary; }\n" +
+                "    Label { color: $primary; }\n" +
+                "    \"\"\"\n");
+
+        assertEquals(3, getModel().getUsageCount("primary"));
+    }
+
+    public void testCompletionOffersProjectVariables() {
+        myFixture.addFileToProject("theme.tcss", "$surface: #222222;\n$primary: red;\n");
+        myFixture.configureByText("main.tcss", "$primary: blue;\nScreen {\n    background: <caret>\n}\n");
+
+        myFixture.completeBasic();
+        List<String> strings = myFixture.getLookupElementStrings();
+        assertNotNull(strings);
+        assertTrue(strings.contains("$surface"));
+        assertEquals("Local declaration shadows the project one", 1, strings.stream().filter("$primary"::equals).count());
+    }
+
+    public void testMiddleMatchesOnlyOnRepeatedInvocation() {
+        myFixture.addFileToProject("theme.tcss", "$primary-dark: #111111;\n$primary-light: #eeeeee;\n$text-primary: white;\n");
+        myFixture.configureByText("main.tcss", "Screen {\n    background: pri<caret>\n}\n");
+
+        myFixture.complete(CompletionType.BASIC, 1);
+        List<String> strings = myFixture.getLookupElementStrings();
+        assertNotNull(strings);
+        assertTrue(strings.contains("$primary-dark"));
+        assertFalse(strings.contains("$text-primary"));
+
+        myFixture.configureByText("main.tcss", "Screen {\n    background: pri<caret>\n}\n");
+        myFixture.complete(CompletionType.BASIC, 2);
+        strings = myFixture.getLookupElementStrings();
+        assertNotNull(strings);
+        assertTrue(strings.contains("$text-primary"));
+    }
+
+    private static List<String> collect(TcssVariableCompletionModel model, String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        model.processSymbols(prefix, symbol -> {
+            names.add(symbol.getName());
+            return names.size() < limit;
+        });
+        return names;
+    }
+
+    private void replaceText(String text) {
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.replaceString(0, document.getTextLength(), text));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    }
+
+    private TcssVariableCompletionModel getModel() {
+        return TcssVariableCompletionModel.getInstance(getProject());
+    }
+}
@@ -0,0 +1,82 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.util.TcssVariableGraph;
+
+import java.util.Set;
+
+/**
+ * Tests for the project-wide variable dependency graph.
+ */
+public class TcssVariableGraphTest extends BasePlatformTestCase {
+
+    public void testDeclarationsAndDependents() {
+        myFixture.addFileToProject("base.tcss", "$base: #0066cc;\n");
+        myFixture.addFileToProject("theme.tcss", "$accent: $base;\n$border: $accent 50%;\n");
+        myFixture.addFileToProject("other.tcss", "$base: red;\n");
+
+        TcssVariableGraph graph = getGraph();
+        assertTrue(graph.isDeclared("accent"));
+        assertFalse(graph.isDeclared("missing"));
+        assertEquals(2, graph.getDeclaringFiles("base").size());
+        assertEquals(Set.of("base"), graph.getReferences("accent"));
+        assertEquals(Set.of("accent"), graph.getDependents("base"));
+        assertEquals(Set.of("accent", "border"), graph.getTransitiveDependents("base"));
+        assertFalse(graph.isInCycle("accent"));
+    }
+
+    public void testCycles() {
+        myFixture.addFileToProject("a.tcss", "$a: $b;\n$self: $self;\n");
+        myFixture.addFileToProject("b.tcss", "$b: $c;\n$c: $a;\n$d: $a;\n");
+
+        TcssVariableGraph graph = getGraph();
+        assertTrue(graph.isInCycle("a"));
+        assertTrue(graph.isInCycle("self"));
+        assertFalse("Depending on a cycle is not being in it", graph.isInCycle("d"));
+        assertTrue(graph.isInSameCycle("a", "c"));
+        assertFalse(graph.isInSameCycle("a", "self"));
+        assertTrue(graph.getTransitiveDependents("a").contains("a"));
+    }
+
+    public void testEditUpdatesGraph() {
+        myFixture.addFileToProject("colors.tcss", "$primary: red;\n");
+        myFixture.configureByText("main.tcss", "$accent: $primary;\n");
+
+        TcssVariableGraph graph = getGraph();
+        assertEquals(Set.of("accent"), graph.getDependents("primary"));
+
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(),
+                () -> document.replaceString(0, document.getTextLength(), "$accent: blue;\n$primary: $accent;\n"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        assertTrue(graph.getDependents("primary").isEmpty());
+        assertEquals(Set.of("primary"), graph.getDependents("accent"));
+        assertEquals(2, graph.getDeclaringFiles("primary").size());
+    }
+
+    public void testDeletedFileLeavesGraph() throws Exception {
+        PsiFile colors = myFixture.addFileToProject("colors.tcss", "$primary: red;\n$accent: $primary;\n");
+        myFixture.addFileToProject("main.tcss", "$border: $accent;\n");
+
+        TcssVariableGraph graph = getGraph();
+        assertTrue(graph.isDeclared("primary"));
+        assertEquals(Set.of("border"), graph.getDependents("accent"));
+
+        WriteAction.runAndWait(() -> colors.getVirtualFile().delete(this));
+
+        assertFalse(graph.isDeclared("primary"));
+        assertFalse(graph.isDeclared("accent"));
+        assertEquals(Set.of("border"), graph.getDependents("accent"));
+        assertEquals(Set.of("accent"), graph.getReferences("border"));
+    }
+
+    private TcssVariableGraph getGraph() {
+        return TcssVariableGraph.getInstance(getProject());
+    }
+}
@@ -0,0 +1,196 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.index.TcssVariableEntry;
+import org.msaraiva.pytcss.index.TcssVariableIndex;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.msaraiva.pytcss.python.PythonCssStrings;
+import org.msaraiva.pytcss.util.VariableResolver;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the value-carrying variable index.
+ */
+public class TcssVariableIndexTest extends BasePlatformTestCase {
+
+    public void testEntryClassification() {
+        assertEquals(TcssVariableEntry.Kind.COLOR, TcssVariableEntry.create(0, "#0066cc").getKind());
+        assertEquals(TcssVariableEntry.Kind.COLOR, TcssVariableEntry.create(0, "rgb(0, 102, 204)").getKind());
+        assertEquals(TcssVariableEntry.Kind.LENGTH, TcssVariableEntry.create(0, "1fr").getKind());
+        assertEquals(TcssVariableEntry.Kind.LENGTH, TcssVariableEntry.create(0, "50%").getKind());
+        assertEquals(TcssVariableEntry.Kind.NUMBER, TcssVariableEntry.create(0, "2").getKind());
+        assertEquals(TcssVariableEntry.Kind.REFERENCE, TcssVariableEntry.create(0, "$primary").getKind());
+        assertEquals(TcssVariableEntry.Kind.OTHER, TcssVariableEntry.create(0, "\"text\"").getKind());
+    }
+
+    public void testEntryColors() {
+        TcssVariableEntry hex = TcssVariableEntry.create(0, "#0066cc");
+        assertTrue(hex.hasColor());
+        assertEquals(new Color(0x0066cc).getRGB(), hex.getArgb());
+
+        TcssVariableEntry withOpacity = TcssVariableEntry.create(0, "red 50%");
+        assertTrue(withOpacity.hasColor());
+        assertEquals(128, new Color(withOpacity.getArgb(), true).getAlpha());
+
+        TcssVariableEntry function = TcssVariableEntry.create(0, "rgb(0, 102, 204)");
+        assertEquals(new Color(0, 102, 204).getRGB(), function.getArgb());
+
+        TcssVariableEntry reference = TcssVariableEntry.create(0, "$base 50%");
+        assertFalse(reference.hasColor());
+        assertEquals("base", reference.getColorReference());
+
+        assertFalse(TcssVariableEntry.create(0, "auto").hasColor());
+        assertFalse(TcssVariableEntry.create(0, "1 2").hasColor());
+    }
+
+    public void testFileEntriesKeepLastDeclaration() {
+        PsiFile colors = myFixture.addFileToProject("colors.tcss",
+                "$primary: red;\n" +
+                "$gap: 2;\n" +
+                "$primary: #0066cc;\n");
+
+        Map<String, TcssVariableEntry> entries =
+                TcssVariableIndex.getFileEntries(colors.getVirtualFile(), getProject());
+        assertEquals(2, entries.size());
+
+        TcssVariableEntry primary = entries.get("primary");
+        assertEquals("#0066cc", primary.getValueText());
+        assertEquals(colors.getText().lastIndexOf("$primary"), primary.getOffset());
+        assertEquals(new Color(0x0066cc).getRGB(), primary.getArgb());
+        assertEquals(TcssVariableEntry.Kind.NUMBER, entries.get("gap").getKind());
+    }
+
+    public void testCrossFileColorResolvesFromIndex() {
+        PsiFile colors = myFixture.addFileToProject("colors.tcss",
+                "$base: #0066cc;\n" +
+                "$primary: $base;\n" +
+                "$loop: $loop;\n");
+        PsiFile main = myFixture.configureByText("main.tcss", "Button { color: $primary; }");
+
+        assertEquals(new Color(0x0066cc), VariableResolver.resolveColorCrossFile("primary", main));
+        assertNull(VariableResolver.resolveColorCrossFile("loop", main));
+        assertNull(VariableResolver.resolveColorCrossFile("missing", main));
+        assertFalse("Index resolution should not load the declaring file", ((PsiFileImpl) colors).isContentsLoaded());
+    }
+
+    public void testIsDeclared() {
+        myFixture.addFileToProject("a.tcss", "$primary: red;\n");
+        myFixture.addFileToProject("b.tcss", "$primary: blue;\n");
+
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(getProject());
+        assertTrue(TcssVariableIndex.isDeclared("primary", scope));
+        assertFalse(TcssVariableIndex.isDeclared("secondary", scope));
+        assertEquals(2, TcssVariableIndex.getEntries("primary", scope).size());
+    }
+
+    public void testPythonCssStrings() {
+        PsiFile widget = myFixture.addFileToProject("widget.py",
+                "class Panel:\n" +
+                "    DEFAULT_CSS = \"\"\"\n" +
+                "    $brand: #ff0000;\n" +
+                "    $brand-muted: $brand 50%;\n" +
+                "    Panel { background: $brand; }\n" +
+                "    \"\"\"\n" +
+                "    OTHER = \"$ignored: red;\"\n");
+        PsiFile main = myFixture.configureByText("main.tcss", "Button { color: $brand-muted; }");
+
+        Map<String, TcssVariableEntry> entries = TcssVariableIndex.getFileEntries(widget.getVirtualFile(), getProject());
+        assertEquals(2, entries.size());
+        assertEquals("Offsets point into the Python file",
+                widget.getText().indexOf("$brand-muted"), entries.get("brand-muted").getOffset());
+
+        assertEquals(new Color(255, 0, 0, 128), VariableResolver.resolveColorCrossFile("brand-muted", main));
+        assertTrue(VariableResolver.getUndefinedVariableNames(main).isEmpty());
+    }
+
+    public void testPythonCssStringsScanner() {
+        String source =
+                "# CSS = \"$comment: red;\"\n" +
+                "HELP = \"CSS = '$nested: red;'\"\n" +
+                "class A:\n" +
+                "    DEFAULT_CSS: ClassVar[str] = \"$a: red;\"\n" +
+                "    CSS = OTHER = (\"$b:\" \" blue;\")\n" +
+                "    CSS = \"$c: \\x23fff;\"  # trailing\n" +
+                "    CSS = f\"$d: {x};\"\n" +
+                "    CSS = \"$e: red;\" + suffix\n" +
+                "    self.CSS = r'''$f: \\n;'''\n";
+        List<PythonCssStrings.Literal> literals = PythonCssStrings.find(source);
+
+        List<String> texts = new ArrayList<>();
+        for (PythonCssStrings.Literal literal : literals) {
+            texts.add(literal.getText());
+        }
+        assertEquals(Arrays.asList("$a: red;", "$c: #fff;", "$f: \\n;"), texts);
+
+        PythonCssStrings.Literal escaped = literals.get(1);
+        assertEquals(source.indexOf("\"$c:"), escaped.getStartOffset());
+        assertEquals("Offsets after an escape map past its source text",
+                source.indexOf("fff;\""), escaped.toHostOffset(escaped.getText().indexOf("fff")));
+
+        assertTrue(PythonCssStrings.find("x = \"$a: red;\"\n").isEmpty());
+    }
+
+    public void testLexerIndexerMatchesPsi() {
+        String[] samples = {
+                "$a: red;\n$b: $a 50%;\n$a: #fff;\n",
+                "$gap : 1 2 /* inline */ 3 ;\nButton { $local: red; color: $gap; }\n$after: blue;",
+                "$fn: rgb(1, 2; 3);\n$bang: red !important;\n$empty: ;\n$: red;\n$eof: 1fr",
+                "Screen, .panel:hover > #main {\n  & .child { width: 1; }\n}\n$x: 1;",
+                "Broken color: red; }\n$y: $x;\n$nocolon red;",
+        };
+        for (String sample : samples) {
+            assertEquals(sample, indexWithPsi(getProject(), sample), TcssVariableIndex.indexText(sample));
+        }
+    }
+
+    public void testLexerIndexerMatchesPsiOnGeneratedFile() {
+        String text = buildStylesheet(50);
+
+        Map<String, TcssVariableEntry> entries = TcssVariableIndex.indexText(text);
+        assertEquals(100, entries.size());
+        assertEquals(indexWithPsi(getProject(), text), entries);
+    }
+
+    /**
+     * Two variables and one nested rule per block.
+     */
+    static String buildStylesheet(int blocks) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < blocks; i++) {
+            sb.append("$color").append(i).append(": #1e1e1e;\n");
+            sb.append("$accent").append(i).append(": $color").append(i).append(" 50%;\n");
+            sb.append("Widget").append(i).append(" .item:hover {\n");
+            sb.append("    background: $color").append(i).append(";\n");
+            sb.append("    & > .child { padding: 1 2; }\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The previous PSI-based indexer: parse the file and read its top-level declarations.
+     */
+    static Map<String, TcssVariableEntry> indexWithPsi(Project project, String text) {
+        TcssFile file = (TcssFile) PsiFileFactory.getInstance(project)
+                .createFileFromText("index.tcss", TcssFileType.INSTANCE, text);
+        Map<String, TcssVariableEntry> result = new HashMap<>();
+        for (TcssVariableDeclaration decl : file.getVariableDeclarations()) {
+            String name = decl.getVariableName();
+            if (!name.isEmpty()) {
+                result.put(name, TcssVariableEntry.create(decl.getTextRange().getStartOffset(), decl.getValueText()));
+            }
+        }
+        return result;
+    }
+}
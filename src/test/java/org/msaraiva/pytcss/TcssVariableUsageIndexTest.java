@@ -0,0 +1,60 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.index.TcssVariableUsageIndex;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.msaraiva.pytcss.psi.TcssVariableReference;
+import org.msaraiva.pytcss.util.VariableResolver;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Tests for the variable usage index and index-backed reference search.
+ */
+public class TcssVariableUsageIndexTest extends BasePlatformTestCase {
+
+    public void testIndexTextSkipsDeclarationNames() {
+        String text = "$primary: red;\n" +
+                      "$accent: $primary 50%;\n" +
+                      "Button { color: $primary; background: $accent; }\n";
+        Map<String, int[]> data = TcssVariableUsageIndex.indexText(text);
+
+        assertEquals(2, data.size());
+        assertEquals(2, data.get("primary").length);
+        assertEquals(text.indexOf("$primary 50%"), data.get("primary")[0]);
+        assertEquals(text.lastIndexOf("$accent"), data.get("accent")[0]);
+    }
+
+    public void testFilesReferencing() {
+        myFixture.addFileToProject("colors.tcss", "$primary: red;\n");
+        myFixture.addFileToProject("button.tcss", "Button { color: $primary; }\n");
+        myFixture.addFileToProject("label.tcss", "Label { color: red; }\n");
+
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(getProject());
+        Collection<?> files = TcssVariableUsageIndex.getFilesReferencing("primary", scope);
+        assertEquals(1, files.size());
+        assertTrue(TcssVariableUsageIndex.isReferenced("primary", scope));
+        assertFalse(TcssVariableUsageIndex.isReferenced("missing", scope));
+    }
+
+    public void testFindReferencesAcrossFiles() {
+        PsiFile colors = myFixture.addFileToProject("colors.tcss", "$primary: red;\n");
+        myFixture.addFileToProject("button.tcss", "Button { color: $primary; }\n");
+        myFixture.addFileToProject("shadow.tcss", "$primary: blue;\nLabel { color: $primary; }\n");
+        myFixture.addFileToProject("app.py",
+                "class MyApp:\n" +
+                "    DEFAULT_CSS = \"\"\"\n" +
+                "    Screen { background: $primary; }\n" +
+                "    \"\"\"\n");
+
+        TcssVariableDeclaration declaration = PsiTreeUtil.findChildOfType(colors, TcssVariableDeclaration.class);
+        assertNotNull(declaration);
+
+        Collection<TcssVariableReference> references = VariableResolver.findReferences(declaration);
+        assertEquals("Shadowed references are excluded", 2, references.size());
+    }
+}
@@ -0,0 +1,53 @@
+package org.msaraiva.pytcss;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.msaraiva.pytcss.psi.TcssVariableDeclaration;
+import org.msaraiva.pytcss.util.VariableResolver;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for file-scope variable resolution and its per-file declaration table.
+ */
+public class VariableResolverTest extends BasePlatformTestCase {
+
+    public void testDeclarationTableKeepsLastDeclarationAndOrder() {
+        PsiFile file = myFixture.configureByText("theme.tcss",
+                "$primary: red;\n" +
+                "$gap: 1;\n" +
+                "$primary: blue;\n" +
+                "Button { color: $primary; }\n");
+
+        TcssVariableDeclaration primary = VariableResolver.findDeclaration("primary", file);
+        assertNotNull(primary);
+        assertEquals("blue", primary.getValueText());
+        assertNull(VariableResolver.findDeclaration("missing", file));
+
+        List<TcssVariableDeclaration> ordered = VariableResolver.getOrderedDeclarations(file);
+        assertEquals(3, ordered.size());
+        assertEquals("red", ordered.get(0).getValueText());
+
+        Map<String, TcssVariableDeclaration> all = VariableResolver.getAllDeclarations(file);
+        assertEquals(List.of("primary", "gap"), List.copyOf(all.keySet()));
+    }
+
+    public void testDeclarationTableIsReusedUntilFileChanges() {
+        PsiFile file = myFixture.configureByText("theme.tcss", "$primary: red;\n");
+
+        Map<String, TcssVariableDeclaration> first = VariableResolver.getAllDeclarations(file);
+        assertSame("Unchanged file should reuse its table", first, VariableResolver.getAllDeclarations(file));
+
+        Document document = myFixture.getEditor().getDocument();
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(document.getTextLength(), "$accent: blue;\n"));
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        Map<String, TcssVariableDeclaration> second = VariableResolver.getAllDeclarations(file);
+        assertNotSame("Edited file should rebuild its table", first, second);
+        assertNotNull(VariableResolver.findDeclaration("accent", file));
+    }
+}